@@ -2,6 +2,7 @@ plugins {
     id("org.springframework.boot") version "3.3.4"
     id("io.spring.dependency-management") version "1.1.6"
     id("java")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.sam.finflow"
@@ -23,6 +24,11 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.springframework.boot:spring-boot-starter-data-redis")
     implementation("org.springframework.boot:spring-boot-starter-validation")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+    implementation("org.springframework.boot:spring-boot-starter-aop") // @Timed via TimedAspect
+    implementation("org.hibernate.orm:hibernate-micrometer")           // hibernate.* meters
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
+    implementation("com.github.ben-manes.caffeine:caffeine")
 
     runtimeOnly("org.postgresql:postgresql")
     // Annotations (silence When.MAYBE warning)
@@ -30,8 +36,24 @@ dependencies {
 
     // Tests
     testImplementation("org.springframework.boot:spring-boot-starter-test")
+
+    // Benchmarks (src/jmh): H2 by default, Postgres via -p jdbcUrl=...
+    jmh("com.h2database:h2")
+    jmh("org.postgresql:postgresql")
 }
 
 tasks.test {
     useJUnitPlatform()
 }
+
+// Microbenchmarks in src/jmh/java: ./gradlew jmh  (-Pjmh.includes=Money to filter, -Pjmh.profilers=gc for allocations)
+// Results go to build/reports/jmh/results-<version>.json; keep one per release to compare
+jmh {
+    warmupIterations = 3
+    iterations = 5
+    fork = 1
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("reports/jmh/results-${project.version}.json")
+    providers.gradleProperty("jmh.includes").orNull?.let { includes = listOf(it) }
+    providers.gradleProperty("jmh.profilers").orNull?.let { profilers = it.split(",") } // e.g. gc for allocation per op
+}
@@ -0,0 +1,171 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop load generator for POST /merchant-payouts and GET /merchant-payouts/{id}.
+ * No dependencies: run with  java loadtest/LoadHarness.java --scenario create --label platform
+ *
+ * Each of --concurrency clients sends one request, waits for the answer, sends the next; latencies from the
+ * --warmup period are dropped. Prints p50/p99/p999 and throughput and appends them to --out (CSV).
+ * The get scenario first creates --seed payouts and then reads random ones.
+ * The hot scenario also seeds, then fires random PATCH processing/settled/failed at a small window of
+ * --hot-keys payouts that moves on every 50 requests, so clients keep racing on the same rows.
+ * There a 409 (illegal move) is a fine answer; only 5xx and I/O failures count as errors.
+ */
+public class LoadHarness {
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*\"([0-9a-f-]{36})\"");
+
+    public static void main(String[] argv) throws Exception {
+        Map<String, String> a = args(argv);
+        URI base = URI.create(a.getOrDefault("base-url", "http://localhost:8080"));
+        String scenario = a.getOrDefault("scenario", "create");
+        String label = a.getOrDefault("label", "run");
+        int concurrency = Integer.parseInt(a.getOrDefault("concurrency", "200"));
+        Duration warmup = Duration.parse(a.getOrDefault("warmup", "PT15S"));
+        Duration duration = Duration.parse(a.getOrDefault("duration", "PT60S"));
+        int seed = Integer.parseInt(a.getOrDefault("seed", "10000"));
+        int hotKeys = Integer.parseInt(a.getOrDefault("hot-keys", "8"));
+        Path out = Path.of(a.getOrDefault("out", "build/loadtest/results.csv"));
+
+        HttpClient http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        UUID merchantId = UUID.randomUUID();
+        UUID accountId = UUID.randomUUID();
+        AtomicLong captures = new AtomicLong();
+
+        List<String> ids = new ArrayList<>();
+        boolean hot = scenario.equals("hot");
+        if (scenario.equals("get") || hot) {
+            System.out.printf("seeding %d payouts...%n", seed);
+            for (int i = 0; i < seed; i++) {
+                HttpResponse<String> r = http.send(create(base, merchantId, accountId, captures.incrementAndGet()),
+                        HttpResponse.BodyHandlers.ofString());
+                Matcher m = ID.matcher(r.body());
+                if (r.statusCode() / 100 != 2 || !m.find()) throw new IllegalStateException("seed failed: " + r.statusCode() + " " + r.body());
+                ids.add(m.group(1));
+            }
+        } else if (!scenario.equals("create")) {
+            throw new IllegalArgumentException("--scenario must be create, get or hot");
+        }
+
+        long startNanos = System.nanoTime();
+        long measureFrom = startNanos + warmup.toNanos();
+        long stopAt = measureFrom + duration.toNanos();
+        List<long[]> perClient = new ArrayList<>();
+        int[] counts = new int[concurrency];
+        AtomicLong errors = new AtomicLong();
+        AtomicLong steps = new AtomicLong();
+        String[] targets = { "processing", "settled", "failed" };
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                long[] latencies = new long[1 << 16];
+                perClient.add(latencies);
+                int client = c;
+                clients.execute(() -> {
+                    long[] lat = latencies;
+                    int n = 0;
+                    while (true) {
+                        long t0 = System.nanoTime();
+                        if (t0 - stopAt >= 0) break;
+                        HttpRequest req;
+                        if (hot) {
+                            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                            int window = (int) (steps.getAndIncrement() / 50 % Math.max(1, ids.size() - hotKeys));
+                            String id = ids.get(Math.min(ids.size() - 1, window + rnd.nextInt(hotKeys)));
+                            req = HttpRequest.newBuilder(base.resolve("/merchant-payouts/" + id + "/" + targets[rnd.nextInt(targets.length)]))
+                                    .method("PATCH", HttpRequest.BodyPublishers.noBody()).build();
+                        } else if (scenario.equals("get")) {
+                            req = HttpRequest.newBuilder(base.resolve("/merchant-payouts/" + ids.get(ThreadLocalRandom.current().nextInt(ids.size())))).GET().build();
+                        } else {
+                            req = create(base, merchantId, accountId, captures.incrementAndGet());
+                        }
+                        boolean ok;
+                        try {
+                            int status = http.send(req, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            ok = hot ? status < 500 : status / 100 == 2;
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        long t1 = System.nanoTime();
+                        if (t0 - measureFrom < 0) continue;
+                        if (!ok) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        if (n == lat.length) lat = Arrays.copyOf(lat, n * 2);
+                        lat[n++] = t1 - t0;
+                    }
+                    perClient.set(client, lat);
+                    counts[client] = n;
+                });
+            }
+        }
+
+        int total = 0;
+        for (int n : counts) total += n;
+        long[] all = new long[total];
+        int pos = 0;
+        for (int c = 0; c < concurrency; c++) {
+            System.arraycopy(perClient.get(c), 0, all, pos, counts[c]);
+            pos += counts[c];
+        }
+        Arrays.sort(all);
+        double seconds = duration.toNanos() / 1e9;
+        String line = String.format("%s,%s,%d,%d,%d,%.1f,%.2f,%.2f,%.2f",
+                label, scenario, concurrency, total, errors.get(), total / seconds,
+                millis(all, 0.50), millis(all, 0.99), millis(all, 0.999));
+        System.out.printf("%-10s %-7s c=%d ok=%d errors=%d  %.1f req/s  p50=%.2fms p99=%.2fms p999=%.2fms%n",
+                label, scenario, concurrency, total, errors.get(), total / seconds,
+                millis(all, 0.50), millis(all, 0.99), millis(all, 0.999));
+
+        Files.createDirectories(out.toAbsolutePath().getParent());
+        if (Files.notExists(out)) Files.writeString(out, "label,scenario,concurrency,ok,errors,rps,p50_ms,p99_ms,p999_ms\n");
+        Files.writeString(out, line + "\n", StandardOpenOption.APPEND);
+    }
+
+    private static HttpRequest create(URI base, UUID merchantId, UUID accountId, long capture) {
+        String body = """
+                {"merchantId":"%s","merchantSettlementAccountId":"%s","captureId":"load-%s-%d","amount":12.34,"currency":"USD"}"""
+                .formatted(merchantId, accountId, merchantId, capture);
+        return HttpRequest.newBuilder(base.resolve("/merchant-payouts"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static double millis(long[] sorted, double q) {
+        if (sorted.length == 0) return Double.NaN;
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(q * sorted.length) - 1)] / 1e6;
+    }
+
+    private static Map<String, String> args(String[] argv) {
+        Map<String, String> a = new HashMap<>();
+        for (int i = 0; i + 1 < argv.length; i += 2) {
+            if (!argv[i].startsWith("--")) throw new IllegalArgumentException("expected --name value, got " + argv[i]);
+            a.put(argv[i].substring(2), argv[i + 1]);
+        }
+        return a;
+    }
+}
@@ -0,0 +1,52 @@
+#!/usr/bin/env sh
+# Platform vs virtual threads, same build, same database.
+#   docker compose up -d && loadtest/compare.sh
+# Env: CONCURRENCY (200), DURATION (PT60S), WARMUP (PT15S), POOL (Hikari maximum-pool-size, 20).
+# Results: build/loadtest/results.csv, app logs: build/loadtest/<mode>.log
+set -eu
+cd "$(dirname "$0")/.."
+
+CONCURRENCY=${CONCURRENCY:-200}
+DURATION=${DURATION:-PT60S}
+WARMUP=${WARMUP:-PT15S}
+POOL=${POOL:-20}
+OUT=build/loadtest
+mkdir -p "$OUT"
+rm -f "$OUT/results.csv"
+
+./gradlew -q bootJar
+JAR=$(ls build/libs/*.jar | grep -v plain | head -n 1)
+
+for MODE in platform virtual; do
+  PROFILE=""
+  [ "$MODE" = virtual ] && PROFILE="--spring.profiles.active=virtual"
+  # Same app settings in both modes; caches off (L1 expires at once, no Redis) so every GET reads Postgres.
+  # The harness creates everything for one merchant, so the per-merchant rate limit is off too
+  java -Xms1g -Xmx1g -jar "$JAR" $PROFILE \
+    --spring.datasource.hikari.maximum-pool-size="$POOL" \
+    --spring.datasource.hikari.minimum-idle="$POOL" \
+    --finflow.cache.redis.enabled=false \
+    --finflow.cache.local-ttl=PT0S \
+    --finflow.outbox.sink=memory \
+    --finflow.idempotency.store=memory \
+    --finflow.ratelimit.enabled=false \
+    > "$OUT/$MODE.log" 2>&1 &
+  PID=$!
+  trap 'kill $PID 2>/dev/null || true' EXIT
+
+  until curl -sf http://localhost:8080/actuator/health > /dev/null; do
+    kill -0 $PID 2>/dev/null || { echo "app failed to start, see $OUT/$MODE.log"; exit 1; }
+    sleep 1
+  done
+
+  for SCENARIO in create get; do
+    java loadtest/LoadHarness.java --label "$MODE" --scenario "$SCENARIO" \
+      --concurrency "$CONCURRENCY" --warmup "$WARMUP" --duration "$DURATION" --out "$OUT/results.csv"
+  done
+
+  kill $PID
+  wait $PID 2>/dev/null || true
+done
+
+echo
+column -s, -t "$OUT/results.csv" 2>/dev/null || cat "$OUT/results.csv"
@@ -0,0 +1,94 @@
+package com.sam.finflow.domain;
+
+import com.sam.finflow.domain.banklink.BankLink;
+import com.sam.finflow.domain.payout.MerchantPayout;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Guarded state transitions on the entities. Each op builds a fresh entity so every call runs the
+ * real transition, not the idempotent shortcut; the *New benchmarks give the construction cost to subtract.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransitionBenchmark {
+
+    private final UUID merchantId = UUID.randomUUID();
+    private final UUID accountId = UUID.randomUUID();
+    private final UUID customerId = UUID.randomUUID();
+    private final BigDecimal amount = new BigDecimal("250.00");
+    private final OffsetDateTime consentAt = OffsetDateTime.now();
+
+    private MerchantPayout failed;
+
+    @Setup
+    public void setup() {
+        failed = newPayout();
+        failed.markFailed();
+    }
+
+    // ----- MerchantPayout -----
+
+    @Benchmark
+    public MerchantPayout payoutNew() {
+        return newPayout();
+    }
+
+    @Benchmark
+    public MerchantPayout payoutProcessingSettled() {
+        MerchantPayout p = newPayout();
+        p.markProcessing();
+        p.markSettled();
+        return p;
+    }
+
+    @Benchmark
+    public MerchantPayout payoutProcessingFailed() {
+        MerchantPayout p = newPayout();
+        p.markProcessing();
+        p.markFailed();
+        return p;
+    }
+
+    @Benchmark
+    public MerchantPayout payoutFailedNoOp() {
+        failed.markFailed();
+        return failed;
+    }
+
+    // ----- BankLink -----
+
+    @Benchmark
+    public BankLink bankLinkNew() {
+        return newBankLink();
+    }
+
+    @Benchmark
+    public BankLink bankLinkActivatePrimary() {
+        BankLink bl = newBankLink();
+        bl.activate(consentAt);
+        bl.makePrimary();
+        return bl;
+    }
+
+    @Benchmark
+    public BankLink bankLinkActivateRevoke() {
+        BankLink bl = newBankLink();
+        bl.activate(consentAt);
+        bl.revoke();
+        return bl;
+    }
+
+    private MerchantPayout newPayout() {
+        return new MerchantPayout(merchantId, accountId, "cap-1", amount, "USD");
+    }
+
+    private BankLink newBankLink() {
+        return new BankLink(customerId, "plaid", "acc-1", null, null);
+    }
+}
@@ -0,0 +1,79 @@
+package com.sam.finflow.domain.payout;
+
+import com.sam.finflow.FinflowApplication;
+import com.sam.finflow.domain.payout.MerchantPayoutService.CreateOrGetResult;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link MerchantPayoutService#createOrGet} end to end (transaction, JPA, outbox insert) against in-memory H2.
+ * Absolute numbers are not Postgres numbers; use it to compare revisions of the service path.
+ *
+ * Boots the real application without web, with the background jobs and Redis off.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class CreateOrGetBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private MerchantPayoutService service;
+
+    private final UUID merchantId = UUID.randomUUID();
+    private final UUID accountId = UUID.randomUUID();
+    private final BigDecimal amount = new BigDecimal("99.95");
+    private final AtomicLong captures = new AtomicLong();
+    private static final String EXISTING_CAPTURE = "cap-existing";
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(FinflowApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:finflow-bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create",
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "spring.data.redis.repositories.enabled=false",
+                        "finflow.outbox.sink=memory",
+                        "finflow.outbox.relay.enabled=false", // outbox rows just accumulate
+                        "finflow.dispatcher.enabled=false",
+                        "finflow.payouts.archive.enabled=false", // partitioned archive table is Postgres-only
+                        "finflow.cache.redis.enabled=false",
+                        "finflow.idempotency.store=memory",
+                        "logging.level.root=WARN")
+                .run();
+        service = context.getBean(MerchantPayoutService.class);
+        service.createOrGet(merchantId, accountId, EXISTING_CAPTURE, amount, "USD");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /** New capture every call: lookup miss + insert + outbox row. */
+    @Benchmark
+    @Threads(4)
+    public CreateOrGetResult create() {
+        return service.createOrGet(merchantId, accountId, "cap-" + captures.incrementAndGet(), amount, "USD");
+    }
+
+    /** Replayed capture: the idempotent lookup only. */
+    @Benchmark
+    @Threads(4)
+    public CreateOrGetResult get() {
+        return service.createOrGet(merchantId, accountId, EXISTING_CAPTURE, amount, "USD");
+    }
+}
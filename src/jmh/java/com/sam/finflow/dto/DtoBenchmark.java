@@ -0,0 +1,107 @@
+package com.sam.finflow.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sam.finflow.domain.banklink.BankLink;
+import com.sam.finflow.domain.customer.Customer;
+import com.sam.finflow.domain.payout.MerchantPayout;
+import com.sam.finflow.domain.payout.PayoutChange;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity -> response record mapping and response -> JSON bytes, i.e. what every read endpoint pays per row.
+ * The ObjectMapper is set up the way Spring Boot configures it (java.time module, ISO dates).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DtoBenchmark {
+
+    private MerchantPayout payout;
+    private PayoutChange change;
+    private BankLink bankLink;
+    private Customer customer;
+
+    private MerchantPayoutDto.Response payoutResponse;
+    private BankLinkDto.BankLinkResponse bankLinkResponse;
+    private CustomerDto.Response customerResponse;
+
+    private ObjectMapper json;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        OffsetDateTime now = OffsetDateTime.now();
+
+        payout = new MerchantPayout(UUID.randomUUID(), UUID.randomUUID(), "cap-000123456", new BigDecimal("1234.56"), "USD");
+        set(payout, "id", UUID.randomUUID());
+        set(payout, "createdAt", now);
+        set(payout, "updatedAt", now);
+        change = PayoutChange.of(payout, MerchantPayout.Status.PENDING);
+
+        bankLink = new BankLink(UUID.randomUUID(), "plaid", "acc-987654321", "Chase", "6789");
+        set(bankLink, "id", UUID.randomUUID());
+        bankLink.activate(now);
+
+        customer = new Customer("Ada Lovelace", "ada@example.com");
+        set(customer, "id", UUID.randomUUID());
+
+        payoutResponse = MerchantPayoutDto.Response.from(payout);
+        bankLinkResponse = BankLinkDto.BankLinkResponse.from(bankLink);
+        customerResponse = CustomerDto.Response.from(customer);
+
+        json = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    // ----- Mapping -----
+
+    @Benchmark
+    public MerchantPayoutDto.Response payoutFromEntity() {
+        return MerchantPayoutDto.Response.from(payout);
+    }
+
+    @Benchmark
+    public MerchantPayoutDto.Response payoutFromChange() {
+        return MerchantPayoutDto.Response.from(change);
+    }
+
+    @Benchmark
+    public BankLinkDto.BankLinkResponse bankLinkFromEntity() {
+        return BankLinkDto.BankLinkResponse.from(bankLink);
+    }
+
+    @Benchmark
+    public CustomerDto.Response customerFromEntity() {
+        return CustomerDto.Response.from(customer);
+    }
+
+    // ----- Jackson -----
+
+    @Benchmark
+    public byte[] payoutToJson() throws Exception {
+        return json.writeValueAsBytes(payoutResponse);
+    }
+
+    @Benchmark
+    public byte[] bankLinkToJson() throws Exception {
+        return json.writeValueAsBytes(bankLinkResponse);
+    }
+
+    @Benchmark
+    public byte[] customerToJson() throws Exception {
+        return json.writeValueAsBytes(customerResponse);
+    }
+
+    // Entities have no id/timestamp setters; fill what JPA would
+    private static void set(Object target, String field, Object value) throws ReflectiveOperationException {
+        Field f = target.getClass().getDeclaredField(field);
+        f.setAccessible(true);
+        f.set(target, value);
+    }
+}
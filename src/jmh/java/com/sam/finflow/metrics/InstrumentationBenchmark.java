@@ -0,0 +1,97 @@
+package com.sam.finflow.metrics;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the hot-path instrumentation adds per call:
+ * - timedCall vs plainCall: the @Timed aspect around a service method (Spring AOP proxy + timer lookup + record)
+ * - proxyOnlyCall: the same proxy without the aspect, to separate proxy cost from metrics cost
+ * - countedPrepare vs plainPrepare: the statement-counting connection wrapper on a real (H2) prepareStatement
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InstrumentationBenchmark {
+
+    public static class Service {
+        public long work(long x) {
+            return x * 31 + 7;
+        }
+    }
+
+    @Timed("finflow.service")
+    public static class TimedService extends Service {}
+
+    private Service plain;
+    private Service proxyOnly;
+    private Service timed;
+    private long x;
+
+    private Connection plainConnection;
+    private Connection countedConnection;
+
+    @Setup
+    public void setup() throws SQLException {
+        MeterRegistry meters = new SimpleMeterRegistry();
+        plain = new Service();
+        proxyOnly = new AspectJProxyFactory(new Service()).getProxy();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new TimedService());
+        factory.addAspect(new TimedAspect(meters));
+        timed = factory.getProxy();
+
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:instr;DB_CLOSE_DELAY=-1");
+        DataSource counted = SqlStatementCounter.counting(h2);
+        plainConnection = h2.getConnection();
+        countedConnection = counted.getConnection();
+        SqlStatementCounter.start(); // count as a request thread would
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        SqlStatementCounter.stop();
+        plainConnection.close();
+        countedConnection.close();
+    }
+
+    @Benchmark
+    public long plainCall() {
+        return plain.work(x++);
+    }
+
+    @Benchmark
+    public long proxyOnlyCall() {
+        return proxyOnly.work(x++);
+    }
+
+    @Benchmark
+    public long timedCall() {
+        return timed.work(x++);
+    }
+
+    @Benchmark
+    public void plainPrepare() throws SQLException {
+        try (PreparedStatement ps = plainConnection.prepareStatement("SELECT 1")) {
+            ps.getMetaData();
+        }
+    }
+
+    @Benchmark
+    public void countedPrepare() throws SQLException {
+        try (PreparedStatement ps = countedConnection.prepareStatement("SELECT 1")) {
+            ps.getMetaData();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.sam.finflow.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row cost of the import's duplicate pre-filter, for a filter sized like production (10M emails, 1%).
+ * hit = email already in the filter (a duplicate), miss = new email (the common case, no DB lookup follows).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BloomFilterBenchmark {
+
+    private static final int KEYS = 1 << 20;
+
+    private BloomFilter filter;
+    private String[] present;
+    private String[] absent;
+    private int i;
+
+    @Setup
+    public void setup() {
+        filter = new BloomFilter(10_000_000, 0.01);
+        present = new String[KEYS];
+        absent = new String[KEYS];
+        for (int k = 0; k < KEYS; k++) {
+            present[k] = "customer" + k + "@example.com";
+            absent[k] = "new.customer" + k + "@partner.example";
+            filter.put(present[k]);
+        }
+    }
+
+    @Benchmark
+    public boolean mightContainHit() {
+        return filter.mightContain(present[i++ & (KEYS - 1)]);
+    }
+
+    @Benchmark
+    public boolean mightContainMiss() {
+        return filter.mightContain(absent[i++ & (KEYS - 1)]);
+    }
+
+    @Benchmark
+    public void put() {
+        filter.put(absent[i++ & (KEYS - 1)]);
+    }
+}
@@ -0,0 +1,80 @@
+package com.sam.finflow.util;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Money (long minor units) vs the BigDecimal + setScale(2) path MerchantPayout used before,
+ * for the three things we do with amounts in bulk: parse, sum, print.
+ * Run with -prof gc to see allocation per op.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(MoneyBenchmark.N)
+public class MoneyBenchmark {
+
+    static final int N = 10_000;
+
+    private String[] text;
+    private BigDecimal[] decimals;
+    private long[] minor;
+    private final StringBuilder out = new StringBuilder(32);
+
+    @Setup
+    public void setup() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        text = new String[N];
+        decimals = new BigDecimal[N];
+        minor = new long[N];
+        for (int i = 0; i < N; i++) {
+            long cents = rnd.nextLong(1, 10_000_000);
+            text[i] = Money.appendTo(new StringBuilder(), cents, 2).toString();
+            decimals[i] = new BigDecimal(text[i]).setScale(2, RoundingMode.UNNECESSARY);
+            minor[i] = cents;
+        }
+    }
+
+    @Benchmark
+    public void parseBigDecimal(Blackhole bh) {
+        for (String s : text) bh.consume(new BigDecimal(s).setScale(2));
+    }
+
+    @Benchmark
+    public void parseMoney(Blackhole bh) {
+        for (String s : text) bh.consume(Money.parseMinor(s, 0, s.length(), 2));
+    }
+
+    @Benchmark
+    public BigDecimal sumBigDecimal() {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (BigDecimal d : decimals) sum = sum.add(d);
+        return sum;
+    }
+
+    @Benchmark
+    public long sumMoney() {
+        return Money.sumMinor(minor, 0, N);
+    }
+
+    @Benchmark
+    public void serializeBigDecimal(Blackhole bh) {
+        for (BigDecimal d : decimals) {
+            out.setLength(0);
+            bh.consume(out.append(d.toPlainString()));
+        }
+    }
+
+    @Benchmark
+    public void serializeMoney(Blackhole bh) {
+        for (long m : minor) {
+            out.setLength(0);
+            bh.consume(Money.appendTo(out, m, 2));
+        }
+    }
+}
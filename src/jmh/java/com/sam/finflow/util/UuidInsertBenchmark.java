@@ -0,0 +1,82 @@
+package com.sam.finflow.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput into a uuid primary key that already holds {@code preload} rows, v4 vs v7.
+ * Random v4 keys touch a random leaf page per insert; v7 keys append to the rightmost one.
+ *
+ * The gap only shows once the index outgrows memory, so the meaningful run is against Postgres:
+ *   java -jar build/libs/*-jmh.jar UuidInsert -p jdbcUrl=jdbc:postgresql://127.0.0.1:5433/finflow
+ *        -p user=finflow -p password=finflow -p preload=5000000
+ * bench_ids is left in place after the last trial; run one kind at a time (-p kind=v4) to size its index with
+ *   SELECT pg_size_pretty(pg_relation_size('bench_ids_pkey'));
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(UuidInsertBenchmark.BATCH)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class UuidInsertBenchmark {
+
+    static final int BATCH = 1000;
+
+    @Param({"v4", "v7"})
+    public String kind;
+
+    @Param("jdbc:h2:mem:ids;DB_CLOSE_DELAY=-1")
+    public String jdbcUrl;
+
+    @Param("sa")
+    public String user;
+
+    @Param("")
+    public String password;
+
+    @Param("200000")
+    public int preload;
+
+    private Connection conn;
+    private PreparedStatement insert;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        conn = DriverManager.getConnection(jdbcUrl, user, password);
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS bench_ids");
+            st.execute("CREATE TABLE bench_ids (id uuid PRIMARY KEY, payload varchar(64) NOT NULL)");
+        }
+        conn.setAutoCommit(false);
+        insert = conn.prepareStatement("INSERT INTO bench_ids (id, payload) VALUES (?, ?)");
+        for (int done = 0; done < preload; done += BATCH) {
+            insertBatch();
+        }
+    }
+
+    @Benchmark
+    public void insertBatch() throws SQLException {
+        boolean v7 = "v7".equals(kind);
+        for (int i = 0; i < BATCH; i++) {
+            insert.setObject(1, v7 ? IdGenerator.newId() : UUID.randomUUID());
+            insert.setString(2, "capture-" + i);
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        conn.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        insert.close();
+        conn.close();
+    }
+}
@@ -0,0 +1,42 @@
+package com.sam.finflow.cache;
+
+import com.sam.finflow.cache.VersionedCache.Versioned;
+import com.sam.finflow.domain.customer.Customer;
+import com.sam.finflow.domain.customer.CustomerChangedEvent;
+import com.sam.finflow.dto.CustomerDto.Response;
+import com.sam.finflow.query.CustomerQueries;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Read-through cache for GET /customers/{id}, overwritten with the committed customer on every write.
+ */
+@Component
+public class CustomerCache {
+
+    private final VersionedCache<Response> cache;
+    private final CustomerQueries customers;
+
+    public CustomerCache(VersionedCache<Response> customerResponseCache, CustomerQueries customers) {
+        this.cache = customerResponseCache;
+        this.customers = customers;
+    }
+
+    public Optional<Response> get(UUID id) {
+        return Optional.ofNullable(cache.get(id, this::load));
+    }
+
+    private Versioned<Response> load(UUID id) {
+        return customers.findById(id).orElse(null); // projection, no managed entity
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void on(CustomerChangedEvent event) {
+        Customer c = event.customer();
+        cache.put(c.getId(), c.getVersion(), Response.from(c));
+    }
+}
@@ -0,0 +1,52 @@
+package com.sam.finflow.cache;
+
+import com.sam.finflow.cache.VersionedCache.Versioned;
+import com.sam.finflow.domain.payout.PayoutChange;
+import com.sam.finflow.domain.payout.PayoutChangedEvent;
+import com.sam.finflow.dto.MerchantPayoutDto.Response;
+import com.sam.finflow.query.MerchantPayoutQueries;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * Read-through cache for GET /merchant-payouts/{id}, overwritten with the committed row on every transition.
+ */
+@Component
+public class PayoutCache {
+
+    private final VersionedCache<Response> cache;
+    private final MerchantPayoutQueries payouts;
+
+    public PayoutCache(VersionedCache<Response> payoutResponseCache, MerchantPayoutQueries payouts) {
+        this.cache = payoutResponseCache;
+        this.payouts = payouts;
+    }
+
+    /** @throws java.util.NoSuchElementException if the payout does not exist */
+    public Response get(UUID id) {
+        return cache.get(id, this::load);
+    }
+
+    private Versioned<Response> load(UUID id) {
+        Response r = payouts.findById(id).orElseThrow(() -> new NoSuchElementException("payout not found: " + id));
+        return new Versioned<>(r.version(), r);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void on(PayoutChangedEvent event) {
+        Map<UUID, Versioned<Response>> updates = new HashMap<>();
+        for (PayoutChange c : event.changes()) {
+            // New payouts cannot be cached yet; warming them would cost a Redis write per bulk-created row
+            if (c.isCreation()) continue;
+            updates.merge(c.id(), new Versioned<>(c.version(), Response.from(c)),
+                    (a, b) -> a.version() >= b.version() ? a : b);
+        }
+        if (!updates.isEmpty()) cache.putAll(updates);
+    }
+}
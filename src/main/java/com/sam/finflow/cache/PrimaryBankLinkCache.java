@@ -0,0 +1,104 @@
+package com.sam.finflow.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sam.finflow.domain.banklink.BankLinkService;
+import com.sam.finflow.domain.banklink.PrimaryBankLinkChangedEvent;
+import com.sam.finflow.dto.BankLinkDto.BankLinkResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * customerId -> primary bank link, for routing lookups. In-process only (a few hundred bytes per customer);
+ * "no primary" is cached too.
+ *
+ * Invalidated after commit by makePrimary/revoke/fail and, through a Redis channel, on the other nodes.
+ * A fill that raced an invalidation is dropped: every invalidation bumps an epoch, and a fill only stays if the
+ * epoch did not move while it was loading. local-ttl bounds staleness if a broadcast is lost.
+ */
+@Component
+public class PrimaryBankLinkCache {
+
+    private static final Logger log = LoggerFactory.getLogger(PrimaryBankLinkCache.class);
+    private static final String CHANNEL = "finflow:cache:primary-links:changes";
+
+    private record Entry(@Nullable BankLinkResponse link) {}
+
+    private final Cache<UUID, Entry> local;
+    private final BankLinkService bankLinks;
+    @Nullable private final StringRedisTemplate redis;
+    private final AtomicLong epoch = new AtomicLong();
+
+    public PrimaryBankLinkCache(BankLinkService bankLinks,
+                                @Value("${finflow.cache.primary-links.max-size:100000}") long maxSize,
+                                @Value("${finflow.cache.local-ttl:PT10S}") Duration localTtl,
+                                @Value("${finflow.cache.redis.enabled:true}") boolean redisEnabled,
+                                ObjectProvider<StringRedisTemplate> redis,
+                                ObjectProvider<RedisMessageListenerContainer> listeners,
+                                MeterRegistry meters) {
+        this.bankLinks = bankLinks;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+        this.redis = redisEnabled ? redis.getIfAvailable() : null;
+        CaffeineCacheMetrics.monitor(meters, local, "primary-links", "tier", "l1");
+        listeners.ifAvailable(container -> container.addMessageListener(
+                (message, pattern) -> evict(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CHANNEL)));
+    }
+
+    public Optional<BankLinkResponse> get(UUID customerId) {
+        Entry e = local.getIfPresent(customerId);
+        if (e != null) return Optional.ofNullable(e.link());
+
+        long seen = epoch.get();
+        Entry loaded = new Entry(bankLinks.findPrimary(customerId).map(BankLinkResponse::from).orElse(null));
+        // Put, then re-check: an invalidation landing anywhere after 'seen' removes what we just put
+        local.asMap().putIfAbsent(customerId, loaded);
+        if (epoch.get() != seen) local.asMap().remove(customerId, loaded);
+        return Optional.ofNullable(loaded.link());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void on(PrimaryBankLinkChangedEvent event) {
+        invalidate(event.customerId());
+        if (redis == null) return;
+        try {
+            redis.convertAndSend(CHANNEL, event.customerId().toString());
+        } catch (Exception ex) {
+            log.debug("primary-links: broadcast failed for {}", event.customerId(), ex);
+        }
+    }
+
+    private void evict(String customerId) {
+        try {
+            invalidate(UUID.fromString(customerId.trim()));
+        } catch (IllegalArgumentException ex) {
+            log.debug("primary-links: ignoring bad message {}", customerId);
+        }
+    }
+
+    private void invalidate(UUID customerId) {
+        epoch.incrementAndGet();
+        local.invalidate(customerId);
+    }
+}
@@ -0,0 +1,235 @@
+package com.sam.finflow.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sam.finflow.datasource.ReadYourWrites;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.lang.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Two-tier read-through cache keyed by entity id: bounded in-process Caffeine (L1) in front of Redis (L2).
+ *
+ * Every entry carries the entity's @Version and both tiers only accept a write whose version is newer
+ * than what they hold, so a slow read-through fill can never overwrite a newer committed value.
+ * A tombstone (version known, value unknown) blocks older fills without holding data.
+ * Writes are broadcast on a Redis channel so other nodes drop older L1 entries.
+ *
+ * Redis is best-effort: any Redis error falls through to the loader.
+ */
+public class VersionedCache<V> {
+
+    private static final Logger log = LoggerFactory.getLogger(VersionedCache.class);
+
+    /** What a loader returns: the entity's current version and its cached form. */
+    public record Versioned<V>(long version, V value) {}
+
+    /** value == null marks a tombstone. */
+    private record Entry<V>(long version, @Nullable V value) {
+        boolean replaces(Entry<V> current) {
+            if (version != current.version) return version > current.version;
+            return value != null && current.value == null; // same version: value may fill a tombstone
+        }
+    }
+
+    // KEYS[1] entry hash; ARGV[1] version, ARGV[2] json ('' = tombstone), ARGV[3] ttl ms. Same rule as Entry.replaces
+    private static final byte[] PUT_IF_NEWER = """
+            local cur = redis.call('HGET', KEYS[1], 'v')
+            if cur then
+              local c, v = tonumber(cur), tonumber(ARGV[1])
+              if c > v then return 0 end
+              if c == v and (ARGV[2] == '' or redis.call('HGET', KEYS[1], 'd') ~= '') then return 0 end
+            end
+            redis.call('HSET', KEYS[1], 'v', ARGV[1], 'd', ARGV[2])
+            redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            return 1
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private final String name;
+    private final Class<V> type;
+    private final Cache<UUID, Entry<V>> local;
+    @Nullable private final StringRedisTemplate redis;
+    private final ObjectMapper json;
+    private final String keyPrefix;
+    private final String channel;
+    private final byte[] ttlMillis;
+
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+    private final Counter staleWrites;
+
+    public VersionedCache(String name,
+                          Class<V> type,
+                          long maxSize,
+                          Duration localTtl,
+                          Duration remoteTtl,
+                          @Nullable StringRedisTemplate redis,
+                          ObjectMapper json,
+                          MeterRegistry meters) {
+        this.name = name;
+        this.type = type;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(localTtl) // bounds staleness if an invalidation message is lost
+                .recordStats()
+                .build();
+        this.redis = redis;
+        this.json = json;
+        this.keyPrefix = "finflow:cache:" + name + ":";
+        this.channel = "finflow:cache:" + name + ":changes";
+        this.ttlMillis = Long.toString(remoteTtl.toMillis()).getBytes(StandardCharsets.UTF_8);
+
+        // L1 hits/misses/evictions/size as cache.* metrics
+        CaffeineCacheMetrics.monitor(meters, local, name, "tier", "l1");
+        this.l2Hits = Counter.builder("finflow.cache.l2.requests").tag("cache", name).tag("result", "hit").register(meters);
+        this.l2Misses = Counter.builder("finflow.cache.l2.requests").tag("cache", name).tag("result", "miss").register(meters);
+        this.staleWrites = Counter.builder("finflow.cache.stale.writes")
+                .description("L2 or loader reads rejected because a newer version was already cached")
+                .tag("cache", name).register(meters);
+    }
+
+    public String channel() { return channel; }
+
+    /**
+     * L1, then L2, then loader. A null from the loader means "not found" and is not cached.
+     * Never returns a value older than what L1 learned meanwhile (a racing put, invalidate or change message):
+     * the newer L1 value wins, and behind a tombstone the loader is run again on the primary.
+     */
+    @Nullable
+    public V get(UUID id, Function<UUID, Versioned<V>> loader) {
+        Entry<V> e = local.getIfPresent(id);
+        if (e != null && e.value() != null) return e.value();
+
+        Entry<V> remote = readRemote(id);
+        if (remote != null && remote.value() != null) {
+            Entry<V> held = mergeLocal(id, remote);
+            if (held == remote) return remote.value();
+            staleWrites.increment();
+            if (held.value() != null) return held.value();
+        }
+
+        Versioned<V> loaded = loader.apply(id);
+        if (loaded == null) return null;
+        Entry<V> fill = new Entry<>(loaded.version(), loaded.value());
+        Entry<V> held = mergeLocal(id, fill);
+        if (held != fill) {
+            staleWrites.increment();
+            if (held.value() != null) return held.value();
+            // Only a tombstone is newer: the loader may have read a lagging replica, ask the primary
+            loaded = ReadYourWrites.onPrimary(() -> loader.apply(id));
+            if (loaded == null) return null;
+            fill = new Entry<>(loaded.version(), loaded.value());
+            mergeLocal(id, fill);
+        }
+        writeRemote(Map.of(id, fill), false); // fills are local knowledge, no broadcast
+        return loaded.value();
+    }
+
+    /** Committed write: overwrite both tiers if newer and tell other nodes. */
+    public void put(UUID id, long version, V value) {
+        putAll(Map.of(id, new Versioned<>(version, value)));
+    }
+
+    public void putAll(Map<UUID, Versioned<V>> values) {
+        Map<UUID, Entry<V>> entries = new HashMap<>(values.size() * 2);
+        values.forEach((id, v) -> {
+            Entry<V> e = new Entry<>(v.version(), v.value());
+            mergeLocal(id, e);
+            entries.put(id, e);
+        });
+        writeRemote(entries, true);
+    }
+
+    /** Committed change whose new value we don't have: block anything older than version. */
+    public void invalidate(UUID id, long version) {
+        Entry<V> tomb = new Entry<>(version, null);
+        mergeLocal(id, tomb);
+        writeRemote(Map.of(id, tomb), true);
+    }
+
+    /** Message from another node: "id:version" per line. Drop older L1 entries; the next get reads L2. */
+    public void onChange(String message) {
+        for (String line : message.split("\n")) {
+            int sep = line.indexOf(':');
+            if (sep < 0) continue;
+            UUID id = UUID.fromString(line.substring(0, sep));
+            long version = Long.parseLong(line.substring(sep + 1));
+            local.asMap().computeIfPresent(id, (k, cur) -> cur.version() < version ? null : cur);
+        }
+    }
+
+    /** Keeps the newer of e and the current L1 entry; returns the one kept (e itself if it won). */
+    private Entry<V> mergeLocal(UUID id, Entry<V> e) {
+        return local.asMap().merge(id, e, (cur, neu) -> neu.replaces(cur) ? neu : cur);
+    }
+
+    @Nullable
+    private Entry<V> readRemote(UUID id) {
+        if (redis == null) return null;
+        try {
+            List<Object> vd = redis.<String, Object>opsForHash().multiGet(keyPrefix + id, List.of("v", "d"));
+            if (vd.get(0) == null) {
+                l2Misses.increment();
+                return null;
+            }
+            String data = (String) vd.get(1);
+            if (data == null || data.isEmpty()) {
+                l2Misses.increment(); // tombstone
+                return null;
+            }
+            l2Hits.increment();
+            return new Entry<>(Long.parseLong((String) vd.get(0)), json.readValue(data, type));
+        } catch (Exception ex) {
+            log.debug("cache {}: redis read failed for {}", name, id, ex);
+            return null;
+        }
+    }
+
+    private void writeRemote(Map<UUID, Entry<V>> entries, boolean broadcast) {
+        if (redis == null || entries.isEmpty()) return;
+        try {
+            StringBuilder changes = new StringBuilder(entries.size() * 40);
+            redis.executePipelined((RedisCallback<Object>) connection -> {
+                for (var en : entries.entrySet()) {
+                    Entry<V> e = en.getValue();
+                    byte[] key = (keyPrefix + en.getKey()).getBytes(StandardCharsets.UTF_8);
+                    byte[] version = Long.toString(e.version()).getBytes(StandardCharsets.UTF_8);
+                    byte[] data = e.value() == null ? new byte[0] : toJson(e.value());
+                    // Plain EVAL: EVALSHA's NOSCRIPT fallback does not work inside a pipeline
+                    connection.scriptingCommands().eval(PUT_IF_NEWER, ReturnType.INTEGER, 1, key, version, data, ttlMillis);
+                    if (broadcast) changes.append(en.getKey()).append(':').append(e.version()).append('\n');
+                }
+                if (broadcast) {
+                    connection.publish(channel.getBytes(StandardCharsets.UTF_8),
+                            changes.toString().getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+        } catch (Exception ex) {
+            log.debug("cache {}: redis write failed for {} entries", name, entries.size(), ex);
+        }
+    }
+
+    private byte[] toJson(V value) {
+        try {
+            return json.writeValueAsBytes(value);
+        } catch (Exception e) {
+            throw new IllegalStateException("cache " + name + ": cannot serialize " + type.getSimpleName(), e);
+        }
+    }
+}
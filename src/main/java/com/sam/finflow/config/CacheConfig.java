@@ -0,0 +1,74 @@
+package com.sam.finflow.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sam.finflow.cache.VersionedCache;
+import com.sam.finflow.dto.CustomerDto;
+import com.sam.finflow.dto.MerchantPayoutDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Two-tier (Caffeine + Redis) read caches. finflow.cache.redis.enabled=false runs them L1-only.
+ */
+@Configuration
+public class CacheConfig {
+
+    @Value("${finflow.cache.redis.enabled:true}")
+    private boolean redisEnabled;
+
+    @Value("${finflow.cache.local-ttl:PT10S}")
+    private Duration localTtl;
+
+    @Value("${finflow.cache.remote-ttl:PT10M}")
+    private Duration remoteTtl;
+
+    /** Shared subscriber for cache change broadcasts (and any other pub/sub listeners). */
+    @Bean
+    @ConditionalOnProperty(name = "finflow.cache.redis.enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    @Bean
+    public VersionedCache<MerchantPayoutDto.Response> payoutResponseCache(
+            @Value("${finflow.cache.payouts.max-size:100000}") long maxSize,
+            ObjectProvider<StringRedisTemplate> redis,
+            ObjectProvider<RedisMessageListenerContainer> listeners,
+            ObjectMapper json,
+            MeterRegistry meters) {
+        return subscribed(new VersionedCache<>("payouts", MerchantPayoutDto.Response.class, maxSize, localTtl, remoteTtl,
+                redisEnabled ? redis.getObject() : null, json, meters), listeners);
+    }
+
+    @Bean
+    public VersionedCache<CustomerDto.Response> customerResponseCache(
+            @Value("${finflow.cache.customers.max-size:50000}") long maxSize,
+            ObjectProvider<StringRedisTemplate> redis,
+            ObjectProvider<RedisMessageListenerContainer> listeners,
+            ObjectMapper json,
+            MeterRegistry meters) {
+        return subscribed(new VersionedCache<>("customers", CustomerDto.Response.class, maxSize, localTtl, remoteTtl,
+                redisEnabled ? redis.getObject() : null, json, meters), listeners);
+    }
+
+    private static <V> VersionedCache<V> subscribed(VersionedCache<V> cache,
+                                                    ObjectProvider<RedisMessageListenerContainer> listeners) {
+        listeners.ifAvailable(container -> container.addMessageListener(
+                (message, pattern) -> cache.onChange(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(cache.channel())));
+        return cache;
+    }
+}
@@ -0,0 +1,106 @@
+package com.sam.finflow.config;
+
+import com.sam.finflow.datasource.ReadYourWritesFilter;
+import com.sam.finflow.datasource.ReplicaLagMonitor;
+import com.sam.finflow.datasource.ReplicaPools;
+import com.sam.finflow.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read replicas: with finflow.datasource.replicas.enabled=true, the application DataSource routes read-only
+ * transactions to the replicas in finflow.datasource.replicas.urls (same credentials and pool settings as the
+ * primary unless overridden). Off by default: Boot's single DataSource is used as before.
+ */
+@Configuration
+@ConditionalOnProperty(name = "finflow.datasource.replicas.enabled", havingValue = "true")
+public class DataSourceConfig {
+
+    /** The spring.datasource pool, exactly what Boot would have built. */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaPools replicaPools(HikariDataSource primaryDataSource,
+                                                      DataSourceProperties properties,
+                                                      MeterRegistry meters,
+                                                      @Value("${finflow.datasource.replicas.urls}") List<String> urls,
+                                                      @Value("${finflow.datasource.replicas.username:}") String username,
+                                                      @Value("${finflow.datasource.replicas.password:}") String password,
+                                                      @Value("${finflow.datasource.replicas.maximum-pool-size:0}") int poolSize) {
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setJdbcUrl(urls.get(i).trim());
+            config.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            config.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+            config.setPoolName("replica-" + i);
+            config.setReadOnly(true);
+            if (poolSize > 0) {
+                config.setMaximumPoolSize(poolSize);
+                config.setMinimumIdle(poolSize);
+            }
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meters)); // hikaricp.* tagged pool=replica-i
+            replicas.put("replica-" + i, new HikariDataSource(config));
+        }
+        return new ReplicaPools(replicas);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaPools replicaPools,
+                                               MeterRegistry meters,
+                                               @Value("${finflow.datasource.replicas.lag-query:}") String lagQuery,
+                                               @Value("${finflow.datasource.replicas.max-lag-ms:2000}") long maxLagMs) {
+        return new ReplicaLagMonitor(replicaPools.byName(),
+                lagQuery.isBlank() ? ReplicaLagMonitor.POSTGRES_LAG_QUERY : lagQuery, maxLagMs, meters);
+    }
+
+    /** What JPA, JdbcTemplate and the transaction managers use. */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 ReplicaPools replicaPools,
+                                 ReplicaLagMonitor replicaLagMonitor,
+                                 @Value("${finflow.datasource.replicas.max-lag-ms:2000}") long maxLagMs,
+                                 @Value("${finflow.datasource.replicas.check-interval-ms:1000}") long checkIntervalMs) {
+        // A replica in rotation is at most maxLag behind as of its last check, so that long after a write is enough
+        var routing = new ReplicaRoutingDataSource(primaryDataSource, replicaPools.byName(), replicaLagMonitor,
+                maxLagMs + checkIntervalMs);
+        LazyConnectionDataSourceProxy lazy = new LazyConnectionDataSourceProxy();
+        lazy.setTargetDataSource(routing);
+        // Known defaults, so the proxy does not borrow a connection at startup to find out
+        lazy.setDefaultAutoCommit(true);
+        lazy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        lazy.afterPropertiesSet();
+        return lazy;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter() {
+        FilterRegistrationBean<ReadYourWritesFilter> reg = new FilterRegistrationBean<>(new ReadYourWritesFilter());
+        reg.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return reg;
+    }
+}
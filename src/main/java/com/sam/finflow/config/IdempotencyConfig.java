@@ -0,0 +1,29 @@
+package com.sam.finflow.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sam.finflow.idempotency.IdempotencyStore;
+import com.sam.finflow.idempotency.InMemoryIdempotencyStore;
+import com.sam.finflow.idempotency.RedisIdempotencyStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Where Idempotency-Key responses live: Redis (default, shared by all nodes) or in-process.
+ */
+@Configuration
+public class IdempotencyConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "finflow.idempotency.store", havingValue = "redis", matchIfMissing = true)
+    public IdempotencyStore redisIdempotencyStore(StringRedisTemplate redis, ObjectMapper json) {
+        return new RedisIdempotencyStore(redis, json);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "finflow.idempotency.store", havingValue = "memory")
+    public IdempotencyStore inMemoryIdempotencyStore() {
+        return new InMemoryIdempotencyStore();
+    }
+}
@@ -0,0 +1,45 @@
+package com.sam.finflow.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sam.finflow.domain.banklink.BankLinkService;
+import com.sam.finflow.integration.BankLinkEnricher;
+import com.sam.finflow.integration.PlaidClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Bank data provider client and the bank link enrichment that uses it. Off unless finflow.plaid.enabled=true;
+ * links are then created with whatever institution name / last4 the client sent.
+ */
+@Configuration
+@ConditionalOnProperty(name = "finflow.plaid.enabled", havingValue = "true")
+public class IntegrationConfig {
+
+    @Bean
+    public PlaidClient plaidClient(@Value("${finflow.plaid.base-url}") URI baseUrl,
+                                   @Value("${finflow.plaid.client-id:}") String clientId,
+                                   @Value("${finflow.plaid.secret:}") String secret,
+                                   @Value("${finflow.plaid.connect-timeout:PT2S}") Duration connectTimeout,
+                                   @Value("${finflow.plaid.request-timeout:PT5S}") Duration requestTimeout,
+                                   @Value("${finflow.plaid.rate.per-second:20}") double ratePerSecond,
+                                   @Value("${finflow.plaid.rate.burst:40}") int burst,
+                                   @Value("${finflow.plaid.rate.max-queue-wait:PT30S}") Duration maxQueueWait,
+                                   @Value("${finflow.plaid.breaker.failure-threshold:5}") int failureThreshold,
+                                   @Value("${finflow.plaid.breaker.open-for:PT30S}") Duration openFor,
+                                   ObjectMapper json) {
+        // resolve() drops the last path segment unless the base ends with '/'
+        URI base = baseUrl.toString().endsWith("/") ? baseUrl : URI.create(baseUrl + "/");
+        return new PlaidClient(base, clientId, secret, connectTimeout, requestTimeout, ratePerSecond, burst,
+                maxQueueWait, failureThreshold, openFor, json);
+    }
+
+    @Bean
+    public BankLinkEnricher bankLinkEnricher(PlaidClient plaidClient, BankLinkService bankLinkService) {
+        return new BankLinkEnricher(plaidClient, bankLinkService);
+    }
+}
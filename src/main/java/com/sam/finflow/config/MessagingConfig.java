@@ -0,0 +1,31 @@
+package com.sam.finflow.config;
+
+import com.sam.finflow.messaging.EventStreamSink;
+import com.sam.finflow.messaging.InMemoryStreamSink;
+import com.sam.finflow.messaging.RedisStreamSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Picks where the outbox relay publishes: Redis Streams (default) or an in-memory stand-in.
+ */
+@Configuration
+public class MessagingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "finflow.outbox.sink", havingValue = "redis", matchIfMissing = true)
+    public EventStreamSink redisStreamSink(StringRedisTemplate redis,
+                                           @Value("${finflow.outbox.stream-key:finflow:payout-events}") String streamKey,
+                                           @Value("${finflow.outbox.stream-max-len:1000000}") long maxLen) {
+        return new RedisStreamSink(redis, streamKey, maxLen);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "finflow.outbox.sink", havingValue = "memory")
+    public EventStreamSink inMemoryStreamSink(@Value("${finflow.outbox.stream-max-len:1000000}") int maxLen) {
+        return new InMemoryStreamSink(maxLen);
+    }
+}
@@ -0,0 +1,48 @@
+package com.sam.finflow.config;
+
+import com.sam.finflow.metrics.SqlStatementCounter;
+import com.sam.finflow.metrics.SqlStatementsFilter;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Hot-path instrumentation, all scraped from /actuator/prometheus:
+ * finflow.service timers (@Timed services), payout transition counters, SQL statements per request.
+ * Hibernate statistics and Hikari pool metrics (hikaricp.connections.acquire = pool wait) come from Boot.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /** Makes @Timed work on Spring beans; tags every timer with class and method. */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meters) {
+        return new TimedAspect(meters);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "finflow.metrics.sql-statements.enabled", havingValue = "true", matchIfMissing = true)
+    public static BeanPostProcessor sqlStatementCountingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource ds && "dataSource".equals(beanName) ? SqlStatementCounter.counting(ds) : bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "finflow.metrics.sql-statements.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<SqlStatementsFilter> sqlStatementsFilter(MeterRegistry meters) {
+        FilterRegistrationBean<SqlStatementsFilter> reg = new FilterRegistrationBean<>(new SqlStatementsFilter(meters));
+        reg.setOrder(Ordered.HIGHEST_PRECEDENCE + 10); // outside the idempotency filter: replays count as 0
+        return reg;
+    }
+}
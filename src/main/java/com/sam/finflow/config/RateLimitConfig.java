@@ -0,0 +1,53 @@
+package com.sam.finflow.config;
+
+import com.sam.finflow.ratelimit.InMemoryRateLimitStore;
+import com.sam.finflow.ratelimit.RateLimitStore;
+import com.sam.finflow.ratelimit.RateLimiter;
+import com.sam.finflow.ratelimit.RateLimiter.Limit;
+import com.sam.finflow.ratelimit.RateLimiter.Scope;
+import com.sam.finflow.ratelimit.RedisRateLimitStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Create-endpoint rate limits (per merchant for payouts, per customer for bank links) and where their
+ * buckets and quota counters live: Redis (default, shared by all nodes) or in-process.
+ */
+@Configuration
+public class RateLimitConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "finflow.ratelimit.store", havingValue = "redis", matchIfMissing = true)
+    public RateLimitStore redisRateLimitStore(StringRedisTemplate redis) {
+        return new RedisRateLimitStore(redis);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "finflow.ratelimit.store", havingValue = "memory")
+    public RateLimitStore inMemoryRateLimitStore() {
+        return new InMemoryRateLimitStore();
+    }
+
+    @Bean
+    public RateLimiter rateLimiter(RateLimitStore store,
+                                   MeterRegistry meters,
+                                   @Value("${finflow.ratelimit.enabled:true}") boolean enabled,
+                                   @Value("${finflow.ratelimit.lease-ttl:PT1S}") Duration leaseTtl,
+                                   @Value("${finflow.ratelimit.payouts.per-second:50}") double payoutsPerSecond,
+                                   @Value("${finflow.ratelimit.payouts.burst:1000}") int payoutsBurst,
+                                   @Value("${finflow.ratelimit.payouts.lease:10}") int payoutsLease,
+                                   @Value("${finflow.ratelimit.bank-links.per-second:1}") double bankLinksPerSecond,
+                                   @Value("${finflow.ratelimit.bank-links.burst:10}") int bankLinksBurst,
+                                   @Value("${finflow.ratelimit.bank-links.lease:1}") int bankLinksLease) {
+        return new RateLimiter(store, meters, enabled, leaseTtl, Map.of(
+                Scope.PAYOUTS, new Limit(payoutsPerSecond, payoutsBurst, payoutsLease),
+                Scope.BANK_LINKS, new Limit(bankLinksPerSecond, bankLinksBurst, bankLinksLease)));
+    }
+}
@@ -0,0 +1,27 @@
+package com.sam.finflow.config;
+
+import com.sam.finflow.integration.BankConnector;
+import com.sam.finflow.integration.SimulatedBankConnector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Duration;
+
+/**
+ * Background jobs (payout dispatcher, ...) run on Spring's scheduler.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    // Off by property rather than @ConditionalOnMissingBean, which is order-dependent outside auto-configuration
+    @Bean
+    @ConditionalOnProperty(name = "finflow.bank.simulated.enabled", havingValue = "true", matchIfMissing = true)
+    public BankConnector bankConnector(@Value("${finflow.bank.simulated.latency-ms:50}") long latencyMs,
+                                       @Value("${finflow.bank.simulated.failure-rate:0.0}") double failureRate) {
+        return new SimulatedBankConnector(Duration.ofMillis(latencyMs), failureRate);
+    }
+}
@@ -1,37 +1,68 @@
 package com.sam.finflow.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sam.finflow.cache.PrimaryBankLinkCache;
+import com.sam.finflow.dto.BankLinkDto.BankLinkPage;
 import com.sam.finflow.dto.BankLinkDto.CreateBankLinkRequest;
 import com.sam.finflow.dto.BankLinkDto.BankLinkResponse;
 import com.sam.finflow.domain.banklink.BankLink;
 import com.sam.finflow.domain.banklink.BankLinkService;
+import com.sam.finflow.query.BankLinkQueries;
+import com.sam.finflow.ratelimit.RateLimiter;
+import com.sam.finflow.util.KeysetCursor;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.UUID;
 
 @RestController
 @RequestMapping
 public class BankLinkController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private static final int EXPORT_FETCH_SIZE = 500;
+
     private final BankLinkService bankLinks;
+    private final BankLinkQueries queries;
+    private final PrimaryBankLinkCache primaryLinks;
+    private final RateLimiter limiter;
+    private final ObjectMapper json;
 
-    public BankLinkController(BankLinkService bankLinks) {
+    public BankLinkController(BankLinkService bankLinks, BankLinkQueries queries,
+                              PrimaryBankLinkCache primaryLinks, RateLimiter limiter, ObjectMapper json) {
         this.bankLinks = bankLinks;
+        this.queries = queries;
+        this.primaryLinks = primaryLinks;
+        this.limiter = limiter;
+        this.json = json;
     }
 
 
-    // POST /bank-links
+    // POST /bank-links (429 + Retry-After past the customer's rate limit)
     @PostMapping("/bank-links")
     public ResponseEntity<BankLinkResponse> create(@Valid @RequestBody CreateBankLinkRequest req) {
+        limiter.acquire(RateLimiter.Scope.BANK_LINKS, req.customerId());
         var res = bankLinks.createOrGet(req.customerId(), req.provider(), req.providerAccountId(),
-                /* institutionName */ null, /* last4 */ null); // null -> MVP
+                /* institutionName */ null, /* last4 */ null); // filled in after commit by BankLinkEnricher when finflow.plaid is on
         //BankLinkResponse.from(...) converts the domain object into a DTO (your public API shape).
         BankLinkResponse body = BankLinkResponse.from(res.link()); //res.link() → the domain entity BankLink
         if (res.created()) { //res.created() → a boolean telling you if a new row was created
@@ -44,23 +75,64 @@ public class BankLinkController {
     }
 
 
-    // GET /customers/{customerId}/bank-links
+    // GET /customers/{customerId}/bank-links?limit=50&cursor=...
     @GetMapping("/customers/{customerId}/bank-links")
-    public List<BankLinkResponse> listByCustomer(@PathVariable UUID customerId) {
-        return bankLinks.listByCustomer(customerId).stream()
-                .map(BankLinkResponse::from)
-                .toList();
+    public BankLinkPage listByCustomer(@PathVariable UUID customerId,
+                                       @RequestParam(required = false) String cursor,
+                                       @RequestParam(defaultValue = "50") int limit) {
+        KeysetCursor after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                after = KeysetCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+        }
+        return queries.findPage(customerId, after, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
     }
 
-    // PATCH /bank-links/{bankLinkId}/primary?customerId=...
+    // GET /customers/{customerId}/bank-links/export -> NDJSON streamed from a DB cursor
+    @GetMapping(value = "/customers/{customerId}/bank-links/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportByCustomer(@PathVariable UUID customerId) {
+        ObjectWriter lineWriter = json.writerFor(BankLinkResponse.class);
+        StreamingResponseBody body = raw -> {
+            OutputStream out = new BufferedOutputStream(raw, 64 * 1024);
+            queries.forEach(customerId, EXPORT_FETCH_SIZE, r -> {
+                try {
+                    out.write(lineWriter.writeValueAsBytes(r));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    // GET /customers/{customerId}/bank-links/primary -> 404 if the customer has none
+    @GetMapping("/customers/{customerId}/bank-links/primary")
+    public BankLinkResponse primary(@PathVariable UUID customerId) {
+        return primaryLinks.get(customerId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "no primary bank link"));
+    }
+
+    // PATCH /bank-links/{bankLinkId}/primary?customerId=... -> all the customer's links, the new primary among them
     @PatchMapping("/bank-links/{bankLinkId}/primary")
     public ResponseEntity<List<BankLinkResponse>> makePrimary(
             @PathVariable UUID bankLinkId,
             @RequestParam UUID customerId
     ) {
-        bankLinks.makePrimary(customerId, bankLinkId);
-        var list = bankLinks.listByCustomer(customerId).stream().map(BankLinkResponse::from).toList();
-        return ResponseEntity.ok(list);
+        try {
+            bankLinks.makePrimary(customerId, bankLinkId);
+        } catch (NoSuchElementException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+        return ResponseEntity.ok(queries.findAll(customerId));
     }
 
     // PATCH /bank-links/{bankLinkId}/activate?consentAt=2025-10-10T12:34:56Z
@@ -74,6 +146,13 @@ public class BankLinkController {
         return ResponseEntity.ok(BankLinkResponse.from(bl));
     }
 
+    // PATCH /bank-links/{bankLinkId}/fail
+    @PatchMapping("/bank-links/{bankLinkId}/fail")
+    public ResponseEntity<BankLinkResponse> fail(@PathVariable UUID bankLinkId) {
+        BankLink bl = bankLinks.fail(bankLinkId);
+        return ResponseEntity.ok(BankLinkResponse.from(bl));
+    }
+
     // PATCH /bank-links/{bankLinkId}/revoke
     @PatchMapping("/bank-links/{bankLinkId}/revoke")
     public ResponseEntity<BankLinkResponse> revoke(@PathVariable UUID bankLinkId) {
@@ -1,27 +1,69 @@
 package com.sam.finflow.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import com.sam.finflow.cache.CustomerCache;
 import com.sam.finflow.domain.customer.Customer;
+import com.sam.finflow.domain.customer.CustomerImportService;
+import com.sam.finflow.domain.customer.CustomerImportService.ImportResult;
+import com.sam.finflow.domain.customer.CustomerImportService.NewCustomer;
 import com.sam.finflow.domain.customer.CustomerService;
+import com.sam.finflow.dto.CustomerDto.ImportItemResult;
 import com.sam.finflow.dto.CustomerDto.Response;
 import com.sam.finflow.dto.CustomerDto.CreateRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/customers")
 public class CustomerController {
 
+    static final String NDJSON = "application/x-ndjson";
+    static final String CSV = "text/csv";
+
     private final CustomerService customers;
+    private final CustomerImportService importer;
+    private final CustomerCache cache;
+    private final ObjectMapper json;
+    private final Validator validator;
+    private final int importChunkSize;
 
-    public CustomerController(CustomerService customers) {
+    public CustomerController(CustomerService customers,
+                              CustomerImportService importer,
+                              CustomerCache cache,
+                              ObjectMapper json,
+                              Validator validator,
+                              @Value("${finflow.customers.import.chunk-size:5000}") int importChunkSize) {
         this.customers = customers;
+        this.importer = importer;
+        this.cache = cache;
+        this.json = json;
+        this.validator = validator;
+        this.importChunkSize = importChunkSize;
     }
 
     @PostMapping
@@ -40,8 +82,128 @@ public class CustomerController {
 
     @GetMapping("/{id}")
     public ResponseEntity<Response> get(@PathVariable UUID id) {
-        return customers.getCustomer(id)
-                .map(c -> ResponseEntity.ok(Response.from(c)))
+        return cache.get(id)
+                .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
+
+    // --- Bulk import (NDJSON of {"email","fullName"}): streamed in, one report line per row streamed out ---
+    @PostMapping(value = "/import", consumes = NDJSON, produces = NDJSON)
+    public void importNdjson(InputStream body, HttpServletResponse response) throws IOException {
+        ImportWriter out = new ImportWriter(response);
+        try (MappingIterator<CreateRequest> it = json.readerFor(CreateRequest.class).readValues(body)) {
+            while (it.hasNextValue()) out.add(it.nextValue());
+        }
+        out.finish();
+    }
+
+    // --- Bulk import (CSV with an email,full_name header; quoted fields allowed, no line breaks inside them) ---
+    @PostMapping(value = "/import", consumes = CSV, produces = NDJSON)
+    public void importCsv(InputStream body, HttpServletResponse response) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024);
+        String header = in.readLine();
+        if (header == null) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "empty CSV");
+        List<String> columns = splitCsv(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        int emailCol = columns.indexOf("email");
+        int nameCol = columns.contains("full_name") ? columns.indexOf("full_name") : columns.indexOf("fullName");
+        if (emailCol < 0 || nameCol < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV header needs email and full_name columns");
+        }
+
+        ImportWriter out = new ImportWriter(response);
+        for (String line; (line = in.readLine()) != null; ) {
+            if (line.isEmpty()) continue;
+            List<String> f = splitCsv(line);
+            out.add(new CreateRequest(emailCol < f.size() ? f.get(emailCol) : null, nameCol < f.size() ? f.get(nameCol) : null));
+        }
+        out.finish();
+    }
+
+    // Collects rows into chunks, validates them like @Valid would, imports each chunk and writes its report lines
+    private final class ImportWriter {
+        private final ObjectWriter lineWriter = json.writerFor(ImportItemResult.class);
+        private final OutputStream out;
+        private final List<CreateRequest> chunk = new ArrayList<>(importChunkSize);
+        private long base;
+
+        ImportWriter(HttpServletResponse response) throws IOException {
+            response.setContentType(NDJSON);
+            this.out = new BufferedOutputStream(response.getOutputStream(), 64 * 1024);
+        }
+
+        void add(CreateRequest r) throws IOException {
+            chunk.add(r);
+            if (chunk.size() == importChunkSize) flushChunk();
+        }
+
+        void finish() throws IOException {
+            if (!chunk.isEmpty()) flushChunk();
+            out.flush();
+        }
+
+        private void flushChunk() throws IOException {
+            ImportItemResult[] lines = new ImportItemResult[chunk.size()];
+            List<NewCustomer> valid = new ArrayList<>(chunk.size());
+            List<Integer> validIndex = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                CreateRequest r = chunk.get(i);
+                if (r == null) {
+                    lines[i] = new ImportItemResult(base + i, null, null, "REJECTED", "item required");
+                    continue;
+                }
+                Set<ConstraintViolation<CreateRequest>> violations = validator.validate(r);
+                if (!violations.isEmpty()) {
+                    String error = violations.stream()
+                            .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                            .sorted()
+                            .collect(Collectors.joining("; "));
+                    lines[i] = new ImportItemResult(base + i, null, r.email(), "REJECTED", error);
+                    continue;
+                }
+                valid.add(new NewCustomer(r.email(), r.fullName()));
+                validIndex.add(i);
+            }
+            List<ImportResult> imported = importer.importChunk(valid);
+            for (int k = 0; k < imported.size(); k++) {
+                ImportResult r = imported.get(k);
+                int i = validIndex.get(k);
+                lines[i] = new ImportItemResult(base + i, r.id(), r.email(), r.outcome().name(), r.error());
+            }
+            for (ImportItemResult line : lines) {
+                out.write(lineWriter.writeValueAsBytes(line));
+                out.write('\n');
+            }
+            out.flush(); // let the client see progress per chunk
+            base += chunk.size();
+            chunk.clear();
+        }
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder cur = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cur.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cur.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(cur.toString());
+                cur.setLength(0);
+            } else {
+                cur.append(c);
+            }
+        }
+        fields.add(cur.toString());
+        return fields;
+    }
 }
@@ -0,0 +1,56 @@
+package com.sam.finflow.controller;
+
+import com.sam.finflow.domain.payout.DisbursementBatch;
+import com.sam.finflow.domain.payout.PayoutNettingService;
+import com.sam.finflow.dto.DisbursementBatchDto.Response;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Netted disbursement batches. The PATCH endpoints close a batch whose transfer outcome the netter could not
+ * record (it stays PROCESSING): the batch and its PROCESSING payouts move together.
+ */
+@RestController
+@RequestMapping("/disbursement-batches")
+public class DisbursementBatchController {
+
+    private final PayoutNettingService netting;
+
+    public DisbursementBatchController(PayoutNettingService netting) {
+        this.netting = netting;
+    }
+
+    @GetMapping("/{id}")
+    public Response get(@PathVariable UUID id) {
+        return call(() -> netting.getOrThrow(id));
+    }
+
+    // Repeating the batch's status is a 200 no-op; 409 when it already ended the other way
+    @PatchMapping("/{id}/settled")
+    public Response markSettled(@PathVariable UUID id) {
+        return call(() -> netting.finish(id, DisbursementBatch.Status.SETTLED));
+    }
+
+    @PatchMapping("/{id}/failed")
+    public Response markFailed(@PathVariable UUID id) {
+        return call(() -> netting.finish(id, DisbursementBatch.Status.FAILED));
+    }
+
+    private static Response call(Supplier<DisbursementBatch> action) {
+        try {
+            return Response.from(action.get());
+        } catch (NoSuchElementException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "batch is being changed concurrently, retry");
+        }
+    }
+}
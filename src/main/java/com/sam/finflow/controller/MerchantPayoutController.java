@@ -1,17 +1,64 @@
 package com.sam.finflow.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sam.finflow.cache.PayoutCache;
 import com.sam.finflow.domain.payout.MerchantPayout;
 import com.sam.finflow.domain.payout.MerchantPayoutService;
+import com.sam.finflow.domain.payout.PayoutBalanceService;
+import com.sam.finflow.domain.payout.MerchantPayoutService.BatchOutcome;
+import com.sam.finflow.domain.payout.MerchantPayoutService.BatchResult;
+import com.sam.finflow.domain.payout.MerchantPayoutService.CreateOrGetResult;
+import com.sam.finflow.domain.payout.MerchantPayoutService.NewPayout;
+import com.sam.finflow.domain.payout.MerchantPayoutService.TransitionResult;
+import com.sam.finflow.domain.payout.PayoutListFilter;
+import com.sam.finflow.dto.MerchantPayoutDto.BatchItemResult;
+import com.sam.finflow.dto.MerchantPayoutDto.BatchResponse;
+import com.sam.finflow.dto.MerchantPayoutDto.Page;
 import com.sam.finflow.dto.MerchantPayoutDto.Response;
+import com.sam.finflow.dto.MerchantPayoutDto.Summary;
+import com.sam.finflow.dto.MerchantPayoutDto.SummaryLine;
 import com.sam.finflow.dto.MerchantPayoutDto.CreateRequest;
+import com.sam.finflow.dto.MerchantPayoutDto.TransitionItemResult;
+import com.sam.finflow.dto.MerchantPayoutDto.TransitionRequest;
+import com.sam.finflow.dto.MerchantPayoutDto.TransitionResponse;
+import com.sam.finflow.query.MerchantPayoutQueries;
+import com.sam.finflow.ratelimit.PayoutQuota;
+import com.sam.finflow.ratelimit.PayoutQuota.Reservation;
+import com.sam.finflow.ratelimit.RateLimiter;
+import com.sam.finflow.util.KeysetCursor;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.validation.constraints.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Minimal REST controller. Uses small request/response records to avoid extra DTO files.
@@ -20,51 +67,308 @@ import java.util.UUID;
 @RequestMapping("/merchant-payouts")
 public class MerchantPayoutController {
 
+    static final String NDJSON = "application/x-ndjson";
+    static final int MAX_PAGE_SIZE = 1000;
+
     private final MerchantPayoutService service;
+    private final MerchantPayoutQueries queries;
+    private final PayoutCache cache;
+    private final PayoutBalanceService balances;
+    private final RateLimiter limiter;
+    private final PayoutQuota quota;
+    private final Validator validator;
+    private final ObjectMapper json;
+    private final int batchMaxItems;
+    private final int batchChunkSize;
 
-    public MerchantPayoutController(MerchantPayoutService service) {
+    public MerchantPayoutController(MerchantPayoutService service,
+                                    MerchantPayoutQueries queries,
+                                    PayoutCache cache,
+                                    PayoutBalanceService balances,
+                                    RateLimiter limiter,
+                                    PayoutQuota quota,
+                                    Validator validator,
+                                    ObjectMapper json,
+                                    @Value("${finflow.payouts.batch.max-items:10000}") int batchMaxItems,
+                                    @Value("${finflow.payouts.batch.chunk-size:1000}") int batchChunkSize) {
         this.service = service;
+        this.queries = queries;
+        this.cache = cache;
+        this.balances = balances;
+        this.limiter = limiter;
+        this.quota = quota;
+        this.validator = validator;
+        this.json = json;
+        this.batchMaxItems = batchMaxItems;
+        this.batchChunkSize = batchChunkSize;
     }
 
     // --- Create (idempotent by merchantId+captureId) ---
+    // 429 + Retry-After when the merchant is over its rate limit or today's quota for the currency
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public Response create(@Valid @RequestBody CreateRequest req) {
-        MerchantPayout p = service.createOrGet(
-                req.merchantId(),
-                req.merchantSettlementAccountId(),
-                req.captureId(),
-                req.amount(),
-                req.currency()
-        );
-        return Response.from(p);
+        limiter.acquire(RateLimiter.Scope.PAYOUTS, req.merchantId());
+        Reservation reserved = quota.reserve(req.merchantId(), req.currency(), req.amount());
+        CreateOrGetResult res;
+        try {
+            res = service.createOrGet(
+                    req.merchantId(),
+                    req.merchantSettlementAccountId(),
+                    req.captureId(),
+                    req.amount(),
+                    req.currency()
+            );
+        } catch (RuntimeException e) {
+            quota.release(reserved);
+            throw e;
+        }
+        if (!res.created()) quota.release(reserved); // replayed capture: nothing new to count
+        return Response.from(res.payout());
+    }
+
+    // --- Batch create (JSON array): one transaction, per-item outcome ---
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BatchResponse createBatch(@RequestBody List<CreateRequest> reqs) {
+        if (reqs.size() > batchMaxItems) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "batch exceeds " + batchMaxItems + " items; use " + NDJSON + " for larger feeds");
+        }
+        List<BatchItemResult> items = createChunk(reqs, 0);
+        int created = 0, existing = 0, rejected = 0;
+        for (BatchItemResult r : items) {
+            switch (r.outcome()) {
+                case "CREATED" -> created++;
+                case "EXISTING" -> existing++;
+                default -> rejected++;
+            }
+        }
+        return new BatchResponse(created, existing, rejected, items);
+    }
+
+    // --- Batch create (NDJSON stream): read, upsert and answer chunk by chunk, one transaction per chunk ---
+    @PostMapping(value = "/batch", consumes = NDJSON, produces = NDJSON)
+    public void createBatchStream(InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        ObjectWriter lineWriter = json.writerFor(BatchItemResult.class);
+        OutputStream out = new BufferedOutputStream(response.getOutputStream(), 64 * 1024);
+
+        try (MappingIterator<CreateRequest> it = json.readerFor(CreateRequest.class).readValues(body)) {
+            List<CreateRequest> chunk = new ArrayList<>(batchChunkSize);
+            int base = 0;
+            while (it.hasNextValue()) {
+                chunk.add(it.nextValue());
+                if (chunk.size() == batchChunkSize) {
+                    writeLines(lineWriter, out, createChunk(chunk, base));
+                    base += chunk.size();
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) writeLines(lineWriter, out, createChunk(chunk, base));
+        }
+        out.flush();
+    }
+
+    private void writeLines(ObjectWriter writer, OutputStream out, List<BatchItemResult> items) throws IOException {
+        for (BatchItemResult r : items) {
+            out.write(writer.writeValueAsBytes(r));
+            out.write('\n');
+        }
+        out.flush(); // let the client see progress per chunk
+    }
+
+    /**
+     * Bean-validates each item like @Valid would, takes rate-limit tokens and quota per merchant, then upserts
+     * the admitted ones in one service call. Items over a limit are REJECTED, not the whole chunk.
+     */
+    private List<BatchItemResult> createChunk(List<CreateRequest> reqs, int baseIndex) {
+        BatchItemResult[] results = new BatchItemResult[reqs.size()];
+        List<NewPayout> valid = new ArrayList<>(reqs.size());
+        List<Integer> validIndex = new ArrayList<>(reqs.size());
+
+        for (int i = 0; i < reqs.size(); i++) {
+            CreateRequest r = reqs.get(i);
+            if (r == null) {
+                results[i] = new BatchItemResult(baseIndex + i, null, null, "REJECTED", "item required");
+                continue;
+            }
+            Set<ConstraintViolation<CreateRequest>> violations = validator.validate(r);
+            if (!violations.isEmpty()) {
+                String error = violations.stream()
+                        .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+                results[i] = new BatchItemResult(baseIndex + i, null, r.captureId(), "REJECTED", error);
+                continue;
+            }
+            valid.add(new NewPayout(r.merchantId(), r.merchantSettlementAccountId(), r.captureId(), r.amount(), r.currency()));
+            validIndex.add(i);
+        }
+
+        if (!valid.isEmpty()) {
+            // Rate limit, then quota; items over either are REJECTED instead of failing the chunk
+            String[] refused = admit(valid);
+            Reservation[] held = quota.reserveAll(valid, refused);
+            List<NewPayout> admitted = new ArrayList<>(valid.size());
+            List<Integer> admittedIndex = new ArrayList<>(valid.size());
+            for (int j = 0; j < valid.size(); j++) {
+                int i = validIndex.get(j);
+                if (refused[j] != null) {
+                    results[i] = new BatchItemResult(baseIndex + i, null, reqs.get(i).captureId(), "REJECTED", refused[j]);
+                } else {
+                    admitted.add(valid.get(j));
+                    admittedIndex.add(j);
+                }
+            }
+            List<BatchResult> done;
+            try {
+                done = admitted.isEmpty() ? List.of() : service.createOrGetAll(admitted);
+            } catch (RuntimeException e) {
+                quota.releaseAll(List.of(held));
+                throw e;
+            }
+            List<Reservation> unused = new ArrayList<>();
+            for (int k = 0; k < done.size(); k++) {
+                int j = admittedIndex.get(k);
+                int i = validIndex.get(j);
+                BatchResult b = done.get(k);
+                if (b.outcome() != BatchOutcome.CREATED) unused.add(held[j]); // existing capture or rejected by the service
+                results[i] = new BatchItemResult(baseIndex + i, b.id(), reqs.get(i).captureId(), b.outcome().name(), b.error());
+            }
+            quota.releaseAll(unused);
+        }
+        return List.of(results);
     }
 
-    // --- Read ---
+    // One rate-limit call per merchant for all of its items; the ones past the granted tokens are refused
+    private String[] admit(List<NewPayout> items) {
+        String[] refused = new String[items.size()];
+        Map<UUID, List<Integer>> byMerchant = new LinkedHashMap<>();
+        for (int j = 0; j < items.size(); j++) {
+            byMerchant.computeIfAbsent(items.get(j).merchantId(), m -> new ArrayList<>()).add(j);
+        }
+        byMerchant.forEach((merchantId, js) -> {
+            int granted = limiter.take(RateLimiter.Scope.PAYOUTS, merchantId.toString(), js.size());
+            for (int k = granted; k < js.size(); k++) refused[js.get(k)] = "payouts rate limit exceeded";
+        });
+        return refused;
+    }
+
+    // --- Read (cached: clients poll this for status) ---
     @GetMapping("/{id}")
     public Response get(@PathVariable UUID id) {
-        return Response.from(service.getOrThrow(id));
+        return cache.get(id);
     }
 
-    // --- List by merchant ---
+    // --- List by merchant: keyset pages, newest first ---
+    // GET /merchant-payouts/merchant/{merchantId}?status=SETTLED&from=...&to=...&limit=100&cursor=...
     @GetMapping("/merchant/{merchantId}")
-    public List<Response> listByMerchant(@PathVariable UUID merchantId) {
-        return service.listForMerchant(merchantId).stream().map(Response::from).toList();
+    public Page listByMerchant(
+            @PathVariable UUID merchantId,
+            @RequestParam(required = false) MerchantPayout.Status status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return queries.findPage(merchantId, new PayoutListFilter(status, from, to), parseCursor(cursor), size);
+    }
+
+    // --- Totals by currency and status, read from the balance projection (no payout scan) ---
+    @GetMapping("/merchant/{merchantId}/summary")
+    public Summary summaryByMerchant(@PathVariable UUID merchantId) {
+        List<SummaryLine> totals = balances.summaryForMerchant(merchantId).stream()
+                .map(b -> new SummaryLine(b.key().currency(), b.key().status().name(), b.count(), b.amount()))
+                .toList();
+        return new Summary(merchantId, totals);
+    }
+
+    // --- Full export by merchant as NDJSON, streamed from a DB cursor (flat memory) ---
+    @GetMapping(value = "/merchant/{merchantId}/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportByMerchant(
+            @PathVariable UUID merchantId,
+            @RequestParam(required = false) MerchantPayout.Status status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to
+    ) {
+        PayoutListFilter filter = new PayoutListFilter(status, from, to);
+        ObjectWriter lineWriter = json.writerFor(Response.class);
+        StreamingResponseBody body = raw -> {
+            OutputStream out = new BufferedOutputStream(raw, 64 * 1024);
+            queries.forEach(merchantId, filter, r -> {
+                try {
+                    out.write(lineWriter.writeValueAsBytes(r));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // client went away: abort the cursor
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    private static KeysetCursor parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            return KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     // --- State transitions (simple POST endpoints) ---
+    // Repeating the current status is a 200 no-op; 404 unknown id, 409 illegal move or a conflict that outlived the retries
     @PatchMapping("/{id}/processing")
     public Response markProcessing(@PathVariable UUID id) {
-        return Response.from(service.markProcessing(id));
+        return transition(() -> service.markProcessing(id));
     }
 
     @PatchMapping("/{id}/settled")
     public Response markSettled(@PathVariable UUID id) {
-        return Response.from(service.markSettled(id));
+        return transition(() -> service.markSettled(id));
     }
 
     @PatchMapping("/{id}/failed")
     public Response markFailed(@PathVariable UUID id) {
-        return Response.from(service.markFailed(id));
+        return transition(() -> service.markFailed(id));
+    }
+
+    private static Response transition(Supplier<MerchantPayout> call) {
+        try {
+            return Response.from(call.get());
+        } catch (NoSuchElementException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "payout is being changed concurrently, retry");
+        }
+    }
+
+    // --- Bulk transition: same rules as above, set-based; per-id outcome instead of an error ---
+    // POST /merchant-payouts/transitions {"ids": [...], "status": "SETTLED"}
+    @PostMapping("/transitions")
+    public TransitionResponse transitionAll(@Valid @RequestBody TransitionRequest req) {
+        if (req.ids().size() > batchMaxItems) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "transition exceeds " + batchMaxItems + " ids");
+        }
+        if (req.status() == MerchantPayout.Status.PENDING) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "status must be PROCESSING, SETTLED or FAILED");
+        }
+        List<TransitionResult> done = service.transitionAll(req.ids(), req.status());
+        int applied = 0, noOp = 0, illegal = 0, notFound = 0;
+        List<TransitionItemResult> items = new ArrayList<>(done.size());
+        for (TransitionResult r : done) {
+            switch (r.outcome()) {
+                case APPLIED -> applied++;
+                case NO_OP -> noOp++;
+                case ILLEGAL_TRANSITION, IN_OPEN_BATCH -> illegal++;
+                case NOT_FOUND -> notFound++;
+            }
+            items.add(new TransitionItemResult(r.id(), r.outcome().name(), r.status() != null ? r.status().name() : null));
+        }
+        return new TransitionResponse(applied, noOp, illegal, notFound, items);
     }
 }
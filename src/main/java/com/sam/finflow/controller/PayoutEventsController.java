@@ -0,0 +1,56 @@
+package com.sam.finflow.controller;
+
+import com.sam.finflow.cache.PayoutCache;
+import com.sam.finflow.sse.PayoutEventHub;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Payout status as Server-Sent Events, instead of polling GET /merchant-payouts/{id}.
+ * Every event is "payout" with the same JSON as GET; reconnects send Last-Event-ID (EventSource does) to continue.
+ */
+@RestController
+@RequestMapping("/merchant-payouts")
+public class PayoutEventsController {
+
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    private final PayoutEventHub hub;
+    private final PayoutCache cache;
+
+    public PayoutEventsController(PayoutEventHub hub, PayoutCache cache) {
+        this.hub = hub;
+        this.cache = cache;
+    }
+
+    // GET /merchant-payouts/{id}/events -> current state, then each transition; closes after SETTLED/FAILED
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter payoutEvents(@PathVariable UUID id,
+                                   @RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
+        return open(() -> hub.subscribePayout(id, lastEventId, () -> cache.get(id)));
+    }
+
+    // GET /merchant-payouts/merchant/{merchantId}/events -> transitions of all the merchant's payouts
+    @GetMapping(value = "/merchant/{merchantId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter merchantEvents(@PathVariable UUID merchantId,
+                                     @RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
+        return open(() -> hub.subscribeMerchant(merchantId, lastEventId));
+    }
+
+    private static SseEmitter open(Supplier<SseEmitter> subscribe) {
+        try {
+            return subscribe.get();
+        } catch (NoSuchElementException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+}
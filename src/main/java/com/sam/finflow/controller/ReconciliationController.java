@@ -0,0 +1,61 @@
+package com.sam.finflow.controller;
+
+import com.sam.finflow.dto.ReconciliationDto.RunResponse;
+import com.sam.finflow.reconciliation.ReconciliationEngine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+@RestController
+@RequestMapping("/reconciliations")
+public class ReconciliationController {
+
+    private static final Pattern REPORT_NAME = Pattern.compile("recon-[0-9a-f-]{36}\\.report\\.csv");
+
+    private final ReconciliationEngine engine;
+    private final Path dir;
+
+    public ReconciliationController(ReconciliationEngine engine,
+                                    @Value("${finflow.reconciliation.dir:reconciliations}") Path dir) {
+        this.engine = engine;
+        this.dir = dir;
+    }
+
+    // POST /reconciliations (body: the bank file) -> spooled to disk, mapped, reconciled; mismatches in the report
+    @PostMapping(consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public RunResponse reconcile(InputStream body) throws IOException {
+        Files.createDirectories(dir);
+        String run = "recon-" + UUID.randomUUID();
+        Path input = dir.resolve(run + ".csv");
+        Files.copy(body, input, StandardCopyOption.REPLACE_EXISTING);
+        try {
+            var r = engine.reconcile(input, dir.resolve(run + ".report.csv"));
+            return new RunResponse(r.lines(), r.indexed(), r.settled(), r.failed(), r.mismatches(),
+                    r.report().getFileName().toString(), r.elapsed().toMillis());
+        } finally {
+            Files.deleteIfExists(input);
+        }
+    }
+
+    // GET /reconciliations/reports/recon-<uuid>.report.csv
+    @GetMapping(value = "/reports/{name}", produces = "text/csv")
+    public ResponseEntity<Resource> report(@PathVariable String name) {
+        if (!REPORT_NAME.matcher(name).matches()) throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        Path file = dir.resolve(name);
+        if (!Files.exists(file)) throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        return ResponseEntity.ok(new FileSystemResource(file)); // streamed from disk by the resource converter
+    }
+}
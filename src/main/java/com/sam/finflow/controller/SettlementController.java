@@ -0,0 +1,76 @@
+package com.sam.finflow.controller;
+
+import com.sam.finflow.dto.SettlementDto.ExportResponse;
+import com.sam.finflow.settlement.SettlementExportJob;
+import com.sam.finflow.settlement.SettlementFormat;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/settlements")
+public class SettlementController {
+
+    private final SettlementExportJob exports;
+
+    public SettlementController(SettlementExportJob exports) {
+        this.exports = exports;
+    }
+
+    // POST /settlements/2026-10-17?format=CSV -> builds (or resumes) the file; no-op if it already exists
+    // 400 for today or a later UTC day: payouts can still settle on it
+    @PostMapping("/{day}")
+    public ExportResponse export(@PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day,
+                                 @RequestParam(defaultValue = "CSV") SettlementFormat format) throws IOException {
+        try {
+            var r = exports.export(day, format);
+            return new ExportResponse(day, format.name(), r.file().getFileName().toString(),
+                    r.rows(), r.groups(), r.bytes(), r.resumed());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()); // day not over yet
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage()); // already running
+        }
+    }
+
+    // GET /settlements/2026-10-17?format=CSV -> the finished file, streamed from disk (transferTo, no heap copy)
+    @GetMapping("/{day}")
+    public ResponseEntity<StreamingResponseBody> download(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day,
+            @RequestParam(defaultValue = "CSV") SettlementFormat format) throws IOException {
+        Path file = exports.fileFor(day, format);
+        if (!Files.exists(file)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "no settlement file for " + day + "; POST to build it");
+        }
+        long size = Files.size(file);
+        StreamingResponseBody body = out -> {
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(out);
+                for (long pos = 0; pos < size; ) {
+                    pos += in.transferTo(pos, size - pos, target);
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(format == SettlementFormat.CSV ? MediaType.parseMediaType("text/csv") : MediaType.TEXT_PLAIN)
+                .contentLength(size)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(file.getFileName().toString()).build().toString())
+                .body(body);
+    }
+}
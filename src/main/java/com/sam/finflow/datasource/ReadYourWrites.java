@@ -0,0 +1,81 @@
+package com.sam.finflow.datasource;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.function.Supplier;
+
+/**
+ * Read-your-writes for replica routing: after a caller wrote, its reads stay on the primary until every replica
+ * that is still in rotation must have caught up (max lag + one lag check interval).
+ *
+ * "Caller" is the current thread (so a request that wrote reads its own writes) plus, across requests, whatever
+ * the client echoes back in {@link #HEADER}: every response of a request that committed a write carries it.
+ */
+public final class ReadYourWrites {
+
+    /** Epoch millis of the caller's last committed write. Sent on responses, accepted on requests. */
+    public static final String HEADER = "FinFlow-Last-Write";
+
+    private static final ThreadLocal<long[]> LAST_WRITE = ThreadLocal.withInitial(() -> new long[1]);
+    private static final ThreadLocal<Boolean> FORCED = new ThreadLocal<>();
+    private static final Object TRACKED = new Object(); // tx resource key: synchronization already registered
+
+    private ReadYourWrites() {}
+
+    /** The current read-write transaction will count as a write once it commits. Cheap to call repeatedly. */
+    static void trackCurrentTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(TRACKED)) return;
+        TransactionSynchronizationManager.bindResource(TRACKED, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TRACKED);
+                if (status == STATUS_COMMITTED) wrote(System.currentTimeMillis());
+            }
+        });
+    }
+
+    static boolean mustReadPrimary(long windowMillis) {
+        if (FORCED.get() != null) return true;
+        long last = LAST_WRITE.get()[0];
+        return last != 0 && System.currentTimeMillis() - last < windowMillis;
+    }
+
+    /** Start of a request: adopt the client's last write time (0 = none / unknown). */
+    public static void begin(long lastWriteMillis) {
+        LAST_WRITE.get()[0] = Math.min(lastWriteMillis, System.currentTimeMillis());
+    }
+
+    /**
+     * Runs work with its read-only transactions on the primary, e.g. to re-read a row a replica returned older
+     * than what the caller already knows. A transaction already open keeps the connection it has.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        boolean outer = FORCED.get() != null;
+        FORCED.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (!outer) FORCED.remove();
+        }
+    }
+
+    public static void end() {
+        LAST_WRITE.remove();
+    }
+
+    private static void wrote(long now) {
+        long[] last = LAST_WRITE.get();
+        last[0] = Math.max(last[0], now);
+        // Hand the time to the client so its next request reads its write too (if the response is still open)
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attrs) {
+            HttpServletResponse response = attrs.getResponse();
+            if (response != null && !response.isCommitted()) response.setHeader(HEADER, Long.toString(last[0]));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.sam.finflow.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Measures each replica's replay lag on a fixed delay and takes a replica out of rotation while its lag is
+ * above maxLagMillis or it does not answer. Replicas start out of rotation until their first check passes.
+ * Lag per replica is exported as finflow.datasource.replica.lag (ms, -1 = unreachable).
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    /**
+     * Milliseconds of WAL the standby has received but not replayed yet; 0 when fully replayed (also when the
+     * primary is idle, where pg_last_xact_replay_timestamp() alone would grow without bound).
+     */
+    public static final String POSTGRES_LAG_QUERY = """
+            SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END
+            """;
+
+    private final Map<String, JdbcTemplate> replicas = new LinkedHashMap<>();
+    private final Map<String, Long> lagMillis = new ConcurrentHashMap<>();
+    private final String lagQuery;
+    private final long maxLagMillis;
+
+    public ReplicaLagMonitor(Map<String, DataSource> replicas, String lagQuery, long maxLagMillis, MeterRegistry meters) {
+        this.lagQuery = lagQuery;
+        this.maxLagMillis = maxLagMillis;
+        replicas.forEach((name, ds) -> {
+            JdbcTemplate jdbc = new JdbcTemplate(ds);
+            jdbc.setQueryTimeout(Math.max(1, (int) (maxLagMillis / 1000)));
+            this.replicas.put(name, jdbc);
+            lagMillis.put(name, -1L);
+            Gauge.builder("finflow.datasource.replica.lag", lagMillis, m -> m.getOrDefault(name, -1L))
+                    .tag("replica", name).baseUnit("milliseconds").register(meters);
+        });
+    }
+
+    public boolean inRotation(String replica) {
+        long lag = lagMillis.getOrDefault(replica, -1L);
+        return lag >= 0 && lag <= maxLagMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${finflow.datasource.replicas.check-interval-ms:1000}")
+    public void check() {
+        replicas.forEach((name, jdbc) -> {
+            boolean was = inRotation(name);
+            long lag;
+            try {
+                Number n = jdbc.queryForObject(lagQuery, Number.class);
+                lag = n == null ? 0 : Math.max(0, n.longValue());
+            } catch (RuntimeException e) {
+                log.debug("replica {} lag check failed", name, e);
+                lag = -1;
+            }
+            lagMillis.put(name, lag);
+            boolean now = inRotation(name);
+            if (was != now) {
+                if (now) log.info("replica {} back in rotation (lag {} ms)", name, lag);
+                else log.warn("replica {} out of rotation (lag {} ms, max {} ms)", name, lag, maxLagMillis);
+            }
+        });
+    }
+}
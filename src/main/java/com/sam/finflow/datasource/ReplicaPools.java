@@ -0,0 +1,27 @@
+package com.sam.finflow.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** The replica connection pools by name (replica-0, replica-1, ...), closed with the context. */
+public final class ReplicaPools implements AutoCloseable {
+
+    private final Map<String, HikariDataSource> pools;
+
+    public ReplicaPools(Map<String, HikariDataSource> pools) {
+        this.pools = new LinkedHashMap<>(pools);
+    }
+
+    public Map<String, DataSource> byName() {
+        return Collections.unmodifiableMap(pools);
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,57 @@
+package com.sam.finflow.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends @Transactional(readOnly = true) work to a replica (round robin over those in rotation) and everything
+ * else to the primary. Reads fall back to the primary when no replica is in rotation or the caller must see its
+ * own recent write ({@link ReadYourWrites}).
+ *
+ * Must sit behind a LazyConnectionDataSourceProxy: the transaction managers take the connection before they
+ * publish the read-only flag, the lazy proxy delays the lookup until the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final List<String> replicas;
+    private final ReplicaLagMonitor lag;
+    private final long readYourWritesMillis;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, ReplicaLagMonitor lag,
+                                    long readYourWritesMillis) {
+        this.replicas = List.copyOf(replicas.keySet());
+        this.lag = lag;
+        this.readYourWritesMillis = readYourWritesMillis;
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            ReadYourWrites.trackCurrentTransaction();
+            return PRIMARY;
+        }
+        if (ReadYourWrites.mustReadPrimary(readYourWritesMillis)) return PRIMARY;
+        int n = replicas.size();
+        int start = next.getAndIncrement();
+        for (int i = 0; i < n; i++) {
+            String replica = replicas.get(Math.floorMod(start + i, n));
+            if (lag.inRotation(replica)) return replica;
+        }
+        return PRIMARY;
+    }
+}
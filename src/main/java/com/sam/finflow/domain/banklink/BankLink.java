@@ -1,5 +1,6 @@
 package com.sam.finflow.domain.banklink;
 
+import com.sam.finflow.util.UuidV7;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -19,7 +20,7 @@ import java.util.UUID;
                 )
         },
         indexes = {
-                @Index(name = "idx_bank_links_customer", columnList = "customer_id"),
+                @Index(name = "idx_bank_links_customer", columnList = "customer_id, created_at, id"), // keyset listing order
                 @Index(name = "idx_bank_links_customer_status", columnList = "customer_id, status")
                 // The partial unique index for one active method is created by SQL migration, not JPA
         }
@@ -29,7 +30,7 @@ public class BankLink {
     public enum Status { PENDING, ACTIVE, REVOKED, FAILED }
 
     @Id
-    @GeneratedValue
+    @UuidV7
     private UUID id;
 
     @NotNull
@@ -143,4 +144,9 @@ public class BankLink {
     public void setInstitutionName(String institutionName) {
         this.institutionName = institutionName;
     }
+
+    public void setLast4(String last4) {
+        if (last4 != null && !last4.matches("\\d{4}")) throw new IllegalArgumentException("last4 must be 4 digits");
+        this.last4 = last4;
+    }
 }
@@ -0,0 +1,20 @@
+package com.sam.finflow.domain.banklink;
+
+import java.util.UUID;
+
+/**
+ * Published by {@link BankLinkService} inside the creating transaction. Listen with
+ * @TransactionalEventListener(AFTER_COMMIT) to act on the link (e.g. enrich it) only once it is visible.
+ */
+public record BankLinkCreatedEvent(UUID id, String provider, String providerAccountId,
+                                   boolean hasInstitutionName, boolean hasLast4) {
+
+    public static BankLinkCreatedEvent of(BankLink bl) {
+        return new BankLinkCreatedEvent(bl.getId(), bl.getProvider(), bl.getProviderAccountId(),
+                bl.getInstitutionName() != null, bl.getLast4() != null);
+    }
+
+    public boolean needsEnrichment() {
+        return !hasInstitutionName || !hasLast4;
+    }
+}
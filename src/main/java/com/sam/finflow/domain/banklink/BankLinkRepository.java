@@ -1,8 +1,11 @@
 package com.sam.finflow.domain.banklink;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 import java.util.Optional;
@@ -17,6 +20,7 @@ public interface BankLinkRepository extends JpaRepository<BankLink, UUID> {
     Optional<BankLink> findByCustomerIdAndProviderAndProviderAccountId(
             UUID customerId, String provider, String providerAccountId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     Optional<BankLink> findByCustomerIdAndPrimaryTrue(UUID customerId);
 
     boolean existsByCustomerIdAndProviderAndProviderAccountId(UUID customerId, String provider, String providerAccountId);
@@ -25,4 +29,30 @@ public interface BankLinkRepository extends JpaRepository<BankLink, UUID> {
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query("UPDATE BankLink bl SET bl.primary = false WHERE bl.customerId = :customerId AND bl.primary = true")
     int clearPrimaryForCustomer(UUID customerId); //called when switching primary bank link
+
+    /**
+     * Moves the customer's primary flag to bankLinkId in one round trip, only if that link belongs to the customer
+     * and is ACTIVE. The other links are cleared first and the target set after (the count(*) makes the outer
+     * UPDATE wait for the CTE), so the one-primary-per-customer partial unique index, checked row by row, never
+     * sees two primaries. The CTE rewrites every other link of the customer on purpose: the row locks make two
+     * concurrent switches queue up, and the second one then clears the first one's primary as well.
+     * Returns 1 if the target became primary, 0 otherwise (a revoke that won the row lock included): callers must
+     * roll back then, since the others may already be cleared (BankLinkService.makePrimary throws).
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = """
+            WITH cleared AS (
+                UPDATE bank_links
+                SET is_primary = false
+                WHERE customer_id = :customerId AND id <> :bankLinkId
+                  AND EXISTS (SELECT 1 FROM bank_links t
+                              WHERE t.id = :bankLinkId AND t.customer_id = :customerId AND t.status = 'ACTIVE')
+                RETURNING 1
+            )
+            UPDATE bank_links
+            SET is_primary = true
+            WHERE id = :bankLinkId AND customer_id = :customerId AND status = 'ACTIVE'
+              AND (SELECT count(*) FROM cleared) >= 0
+            """, nativeQuery = true)
+    int switchPrimary(UUID customerId, UUID bankLinkId);
 }
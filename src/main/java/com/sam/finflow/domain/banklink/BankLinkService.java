@@ -1,19 +1,26 @@
 package com.sam.finflow.domain.banklink;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.lang.Nullable;     // <- for @Nullable
 import java.time.OffsetDateTime;            // <- for OffsetDateTime
+import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.List;
 
 @Service
+@Timed("finflow.service")
 public class BankLinkService {
     private final BankLinkRepository repo;
+    private final ApplicationEventPublisher events;
 
     public record CreateOrGetResult(BankLink link, boolean created) {}
 
-    public BankLinkService(BankLinkRepository repo) {
+    public BankLinkService(BankLinkRepository repo, ApplicationEventPublisher events) {
         this.repo = repo;
+        this.events = events;
     }
 
     //Checking if a customer already linked the same bank account
@@ -26,6 +33,7 @@ public class BankLinkService {
         try {
             BankLink bl = new BankLink(customerId, provider, providerAccountId, institutionName, last4);
             BankLink saved = repo.save(bl);
+            events.publishEvent(BankLinkCreatedEvent.of(saved));
             return new CreateOrGetResult(saved, true);
         } catch (org.springframework.dao.DataIntegrityViolationException e) {
             // someone created it concurrently or it already existed
@@ -36,13 +44,43 @@ public class BankLinkService {
         }
     }
 
+    /**
+     * Fills in provider details that were unknown at creation. Only empty fields are set, so a value the
+     * client sent (or an earlier enrichment) is never overwritten. Returns false if the link is gone.
+     */
     @Transactional
-    public void makePrimary(UUID customerId, UUID bankLinkId) {
-        repo.clearPrimaryForCustomer(customerId);     // set existing primary -> false
-        BankLink bl = repo.findById(bankLinkId).orElseThrow(); //findById: JPA built in method
-        if (!bl.getCustomerId().equals(customerId)) throw new IllegalArgumentException("not owner");
-        bl.makePrimary();                             // requires status ACTIVE
-        repo.save(bl);                                // DB partial unique index guarantees only one true
+    public boolean enrich(UUID bankLinkId, @Nullable String institutionName, @Nullable String last4) {
+        BankLink bl = repo.findById(bankLinkId).orElse(null);
+        if (bl == null) return false;
+        if (bl.getInstitutionName() == null && institutionName != null) bl.setInstitutionName(institutionName);
+        if (bl.getLast4() == null && last4 != null) bl.setLast4(last4);
+        return true;
+    }
+
+    //One guarded UPDATE switches the primary; the link is then reloaded to check it really is the primary now
+    @Transactional
+    public BankLink makePrimary(UUID customerId, UUID bankLinkId) {
+        int switched = repo.switchPrimary(customerId, bankLinkId);
+        BankLink bl = repo.findById(bankLinkId)
+                .orElseThrow(() -> new NoSuchElementException("bank link not found: " + bankLinkId));
+        if (switched == 0) {
+            // Not the owner, not ACTIVE, or revoked while we waited on its row lock: the throw rolls back the
+            // other links the statement may already have cleared
+            if (!bl.getCustomerId().equals(customerId)) throw new IllegalArgumentException("not owner");
+            bl.makePrimary(); // same rule as before: throws unless ACTIVE
+            throw new IllegalStateException("bank link " + bankLinkId + " could not become primary");
+        }
+        if (!bl.isPrimary() || bl.getStatus() != BankLink.Status.ACTIVE) {
+            throw new IllegalStateException("bank link " + bankLinkId + " is " + bl.getStatus() + ", cannot be primary");
+        }
+        events.publishEvent(new PrimaryBankLinkChangedEvent(customerId));
+        return bl;
+    }
+
+    //Primary link used to route money to the customer, empty if none
+    @Transactional(readOnly = true)
+    public Optional<BankLink> findPrimary(UUID customerId) {
+        return repo.findByCustomerIdAndPrimaryTrue(customerId);
     }
 
     @Transactional(readOnly = true)
@@ -63,7 +101,18 @@ public class BankLinkService {
     @Transactional
     public BankLink revoke(UUID bankLinkId) {
         BankLink bl = repo.findById(bankLinkId).orElseThrow();
+        boolean wasPrimary = bl.isPrimary();
         bl.revoke();              // domain rules enforce idempotence
+        if (wasPrimary) events.publishEvent(new PrimaryBankLinkChangedEvent(bl.getCustomerId()));
+        return repo.save(bl);
+    }
+
+    @Transactional
+    public BankLink fail(UUID bankLinkId) {
+        BankLink bl = repo.findById(bankLinkId).orElseThrow();
+        boolean wasPrimary = bl.isPrimary();
+        bl.fail();
+        if (wasPrimary) events.publishEvent(new PrimaryBankLinkChangedEvent(bl.getCustomerId()));
         return repo.save(bl);
     }
 
@@ -0,0 +1,9 @@
+package com.sam.finflow.domain.banklink;
+
+import java.util.UUID;
+
+/**
+ * Published by {@link BankLinkService} inside the writing transaction when a customer's primary link moved or went
+ * away (makePrimary, revoke/fail of the primary).
+ */
+public record PrimaryBankLinkChangedEvent(UUID customerId) {}
@@ -1,5 +1,6 @@
 package com.sam.finflow.domain.customer;
 
+import com.sam.finflow.util.UuidV7;
 import jakarta.persistence.*;
 import java.time.OffsetDateTime;
 import java.util.*;
@@ -8,7 +9,7 @@ import java.util.*;
 @Table(name = "customers")
 public class Customer {
     @Id
-    @GeneratedValue //Automatically generate the ID
+    @UuidV7 //Automatically generate a time-ordered ID
     private UUID id; //Universally Unique Identifier
 
     @Column(nullable = false)
@@ -25,6 +26,9 @@ public class Customer {
     @Column(nullable = false)
     private OffsetDateTime updatedAt = OffsetDateTime.now();
 
+    @Version
+    private long version; //lets caches tell a newer copy from an older one
+
     //updates the “Last Edited” timestamp
     @PreUpdate
     public void onUpdate() { updatedAt = OffsetDateTime.now(); }
@@ -41,6 +45,7 @@ public class Customer {
     public String getEmail() { return email; }
     public OffsetDateTime getCreatedAt() { return createdAt; }
     public OffsetDateTime getUpdatedAt() { return updatedAt; }
+    public long getVersion() { return version; }
 
     public void setFullName(String fullName) { this.fullName = fullName; }
     public void setEmail(String email) { this.email = email.trim().toLowerCase(); }
@@ -0,0 +1,67 @@
+package com.sam.finflow.domain.customer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Set-based writes for customers (bulk import). Postgres-specific SQL; callers own the transaction.
+ */
+@Repository
+public class CustomerBatchRepository {
+
+    /** 3 bind params per row, well under Postgres' 32767 per statement. */
+    static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private final JdbcTemplate jdbc;
+
+    public CustomerBatchRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** A validated row with a normalized, unique-within-the-call email. */
+    public record Row(UUID id, String email, String fullName) {}
+
+    /**
+     * Inserts every row whose email is not taken yet; ON CONFLICT (email) DO NOTHING skips the rest without
+     * failing the statement. Returns email -> id for the rows this call inserted.
+     */
+    public Map<String, UUID> insertNew(List<Row> rows) {
+        Map<String, UUID> inserted = new HashMap<>(rows.size() * 2);
+        for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<Row> chunk = rows.subList(from, Math.min(rows.size(), from + MAX_ROWS_PER_STATEMENT));
+            Map<String, UUID> ids = new HashMap<>(chunk.size() * 2);
+            StringBuilder sql = new StringBuilder(128 + chunk.size() * 48);
+            sql.append("INSERT INTO customers (id, email, full_name, created_at, updated_at, version) VALUES ");
+            Object[] args = new Object[chunk.size() * 3];
+            int a = 0;
+            for (int i = 0; i < chunk.size(); i++) {
+                if (i > 0) sql.append(',');
+                sql.append("(CAST(? AS uuid), ?, ?, now(), now(), 0)");
+                Row r = chunk.get(i);
+                args[a++] = r.id();
+                args[a++] = r.email();
+                args[a++] = r.fullName();
+                ids.put(r.email(), r.id());
+            }
+            sql.append(" ON CONFLICT (email) DO NOTHING RETURNING email");
+            jdbc.query(sql.toString(), rs -> { inserted.put(rs.getString(1), ids.get(rs.getString(1))); }, args);
+        }
+        return inserted;
+    }
+
+    /** Which of these emails already belong to a customer. */
+    public Set<String> findExisting(Collection<String> emails) {
+        if (emails.isEmpty()) return Set.of();
+        // One text[] parameter whatever the count; uses the unique index on email
+        return new HashSet<>(jdbc.queryForList("SELECT email FROM customers WHERE email = ANY(?)", String.class,
+                (Object) emails.toArray(new String[0])));
+    }
+}
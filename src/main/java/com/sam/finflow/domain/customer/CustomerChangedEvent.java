@@ -0,0 +1,6 @@
+package com.sam.finflow.domain.customer;
+
+/**
+ * Published by {@link CustomerService} inside the writing transaction after the customer was flushed.
+ */
+public record CustomerChangedEvent(Customer customer) {}
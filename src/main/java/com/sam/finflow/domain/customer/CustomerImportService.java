@@ -0,0 +1,144 @@
+package com.sam.finflow.domain.customer;
+
+import com.sam.finflow.util.BloomFilter;
+import com.sam.finflow.util.IdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bulk customer import, one chunk (one transaction) at a time.
+ *
+ * Emails are normalized like {@link CustomerService#createCustomer}. A Bloom filter of all existing emails, built
+ * on the first import, splits each chunk: emails it has never seen are inserted straight away, and only the
+ * "maybe seen" ones (real duplicates plus ~1% false positives) are checked with one batched lookup.
+ * The insert is ON CONFLICT (email) DO NOTHING, so anything the filter missed (customers created through the API
+ * since it was built, concurrent imports) still ends up reported as DUPLICATE, never as an error.
+ */
+@Service
+public class CustomerImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerImportService.class);
+
+    public record NewCustomer(String email, String fullName) {}
+
+    public enum Outcome { CREATED, DUPLICATE, REJECTED }
+
+    /** One result per input row, in input order. id is set for CREATED, and for repeats of a row created here. */
+    public record ImportResult(UUID id, String email, Outcome outcome, String error) {}
+
+    private final CustomerBatchRepository batchRepo;
+    private final JdbcTemplate streaming;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate readOnlyTx;
+    private final long bloomExpected;
+    private final double bloomFalsePositiveRate;
+    private final ReentrantLock buildLock = new ReentrantLock();
+    private volatile BloomFilter known;
+
+    public CustomerImportService(CustomerBatchRepository batchRepo,
+                                 DataSource dataSource,
+                                 PlatformTransactionManager txManager,
+                                 @Value("${finflow.customers.import.fetch-size:10000}") int fetchSize,
+                                 @Value("${finflow.customers.import.bloom.expected:10000000}") long bloomExpected,
+                                 @Value("${finflow.customers.import.bloom.false-positive-rate:0.01}") double bloomFalsePositiveRate) {
+        this.batchRepo = batchRepo;
+        // Own template: Postgres only streams with a fetch size inside a transaction (autocommit off)
+        this.streaming = new JdbcTemplate(dataSource);
+        this.streaming.setFetchSize(fetchSize);
+        this.tx = new TransactionTemplate(txManager);
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.bloomExpected = bloomExpected;
+        this.bloomFalsePositiveRate = bloomFalsePositiveRate;
+    }
+
+    public List<ImportResult> importChunk(List<NewCustomer> rows) {
+        BloomFilter seen = knownEmails(); // outside the chunk transaction: the first build scans the whole table
+        ImportResult[] results = new ImportResult[rows.size()];
+        Map<String, Integer> firstIndex = new HashMap<>(rows.size() * 2);
+        List<CustomerBatchRepository.Row> fresh = new ArrayList<>(rows.size());
+        List<CustomerBatchRepository.Row> maybe = new ArrayList<>();
+
+        for (int i = 0; i < rows.size(); i++) {
+            NewCustomer n = rows.get(i);
+            String email = CustomerService.normalizeEmail(n.email());
+            if (email == null || email.isEmpty()) {
+                results[i] = new ImportResult(null, email, Outcome.REJECTED, "email required");
+                continue;
+            }
+            if (n.fullName() == null || n.fullName().isBlank()) {
+                results[i] = new ImportResult(null, email, Outcome.REJECTED, "fullName required");
+                continue;
+            }
+            if (firstIndex.putIfAbsent(email, i) != null) continue; // repeat inside the chunk, resolved below
+            var row = new CustomerBatchRepository.Row(IdGenerator.newId(), email, n.fullName().trim());
+            (seen.mightContain(email) ? maybe : fresh).add(row);
+        }
+
+        Map<String, UUID> created = tx.execute(s -> {
+            Set<String> existing = batchRepo.findExisting(maybe.stream().map(CustomerBatchRepository.Row::email).toList());
+            List<CustomerBatchRepository.Row> insert = new ArrayList<>(fresh.size() + maybe.size());
+            insert.addAll(fresh);
+            for (var r : maybe) if (!existing.contains(r.email())) insert.add(r);
+            return batchRepo.insertNew(insert);
+        });
+        created.keySet().forEach(seen::put); // committed: later chunks and imports skip them
+
+        for (var e : firstIndex.entrySet()) {
+            UUID id = created.get(e.getKey());
+            results[e.getValue()] = id != null
+                    ? new ImportResult(id, e.getKey(), Outcome.CREATED, null)
+                    : new ImportResult(null, e.getKey(), Outcome.DUPLICATE, "email already exists");
+        }
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null) continue;
+            String email = CustomerService.normalizeEmail(rows.get(i).email());
+            results[i] = new ImportResult(created.get(email), email, Outcome.DUPLICATE, "repeated in this import");
+        }
+        log.debug("customer import chunk: {} rows, {} new by filter, {} looked up, {} created",
+                rows.size(), fresh.size(), maybe.size(), created.size());
+        return List.of(results);
+    }
+
+    private BloomFilter knownEmails() {
+        BloomFilter f = known;
+        if (f != null) return f;
+        buildLock.lock();
+        try {
+            if (known == null) known = build();
+            return known;
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    private BloomFilter build() {
+        long started = System.nanoTime();
+        // Planner estimate, free to read; the filter is sized for at least twice today's table
+        Long estimate = streaming.queryForObject(
+                "SELECT GREATEST(reltuples, 0)::bigint FROM pg_class WHERE oid = 'customers'::regclass", Long.class);
+        BloomFilter f = new BloomFilter(Math.max(bloomExpected, 2 * (estimate == null ? 0 : estimate)), bloomFalsePositiveRate);
+        long[] n = {0};
+        readOnlyTx.executeWithoutResult(s -> streaming.query("SELECT email FROM customers", rs -> {
+            f.put(rs.getString(1));
+            n[0]++;
+        }));
+        log.info("customer import: bloom filter of {} emails ({} KB, {} hashes) built in {} ms",
+                n[0], f.bitSize() / 8 / 1024, f.hashCount(), (System.nanoTime() - started) / 1_000_000);
+        return f;
+    }
+}
@@ -1,5 +1,7 @@
 package com.sam.finflow.domain.customer;
 
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -10,16 +12,20 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Service
+@Timed("finflow.service")
 @Validated
 public class CustomerService {
 
     private final CustomerRepository customers;
+    private final ApplicationEventPublisher events;
 
-    public CustomerService(CustomerRepository customers) {
+    public CustomerService(CustomerRepository customers, ApplicationEventPublisher events) {
         this.customers = customers;
+        this.events = events;
     }
 
-    private static String normalizeEmail(String raw) {
+    //Shared with CustomerImportService so imported and API-created emails compare equal
+    static String normalizeEmail(String raw) {
         return raw == null ? null : raw.trim().toLowerCase();
     }
 
@@ -40,7 +46,9 @@ public class CustomerService {
         c.setFullName(fullName.trim());
 
         try {
-            return customers.save(c);
+            Customer saved = customers.saveAndFlush(c);
+            events.publishEvent(new CustomerChangedEvent(saved));
+            return saved;
         } catch (DataIntegrityViolationException dup) {
             // Handles concurrent creates that hit the unique constraint
             // Database detects duplicate (race condition)
@@ -0,0 +1,99 @@
+package com.sam.finflow.domain.payout;
+
+import com.sam.finflow.util.Money;
+import com.sam.finflow.util.UuidV7;
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * One bank transfer for many payouts to the same settlement account and currency (netting).
+ * Members point at it through merchant_payouts.batch_id and move PROCESSING -> SETTLED/FAILED with it.
+ * Created already PROCESSING by {@link PayoutNettingService#formBatches}; there is no open/filling state.
+ */
+@Entity
+@Table(
+        name = "disbursement_batches",
+        indexes = {
+                @Index(name = "idx_disbursement_batch_status", columnList = "status, created_at")
+        }
+)
+public class DisbursementBatch {
+
+    public enum Status { PROCESSING, SETTLED, FAILED }
+
+    @Id @UuidV7
+    private UUID id;
+
+    @Column(name = "merchant_settlement_account_id", nullable = false)
+    private UUID merchantSettlementAccountId;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = MerchantPayout.AMOUNT_SCALE)
+    private BigDecimal totalAmount;
+
+    @Column(name = "payout_count", nullable = false)
+    private int payoutCount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.PROCESSING;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private OffsetDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    @Version
+    private long version;
+
+    protected DisbursementBatch() { /* for JPA */ }
+
+    DisbursementBatch(UUID merchantSettlementAccountId, Money total, int payoutCount) {
+        this.merchantSettlementAccountId = merchantSettlementAccountId;
+        this.currency = total.currency();
+        this.totalAmount = total.toBigDecimal(MerchantPayout.AMOUNT_SCALE);
+        this.payoutCount = payoutCount;
+    }
+
+    /** PROCESSING -> SETTLED/FAILED once; repeating the same outcome is a no-op. */
+    void finish(Status outcome) {
+        if (outcome == Status.PROCESSING) throw new IllegalArgumentException("outcome must be SETTLED or FAILED");
+        if (status == outcome) return;
+        if (status != Status.PROCESSING) throw new IllegalStateException("batch " + id + " is already " + status);
+        status = outcome;
+    }
+
+    // ----- Getters -----
+    public UUID getId() { return id; }
+    public UUID getMerchantSettlementAccountId() { return merchantSettlementAccountId; }
+    public String getCurrency() { return currency; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public Money getTotal() { return Money.of(totalAmount, currency); }
+    public int getPayoutCount() { return payoutCount; }
+    public Status getStatus() { return status; }
+    public OffsetDateTime getCreatedAt() { return createdAt; }
+    public OffsetDateTime getUpdatedAt() { return updatedAt; }
+    public long getVersion() { return version; }
+
+    @Override public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DisbursementBatch that)) return false;
+        return id != null && id.equals(that.id);
+    }
+    @Override public int hashCode() { return Objects.hashCode(id); }
+    @Override public String toString() {
+        return "DisbursementBatch{id=%s, account=%s, total=%s %s, payouts=%d, status=%s}"
+                .formatted(id, merchantSettlementAccountId, totalAmount, currency, payoutCount, status);
+    }
+}
@@ -0,0 +1,8 @@
+package com.sam.finflow.domain.payout;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface DisbursementBatchRepository extends JpaRepository<DisbursementBatch, UUID> {
+}
@@ -1,5 +1,7 @@
 package com.sam.finflow.domain.payout;
 
+import com.sam.finflow.util.Money;
+import com.sam.finflow.util.UuidV7;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -7,7 +9,11 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 @Entity
@@ -18,8 +24,11 @@ import java.util.UUID;
                 @UniqueConstraint(name = "uq_payout_merchant_capture", columnNames = {"merchant_id", "capture_id"})
         },
         indexes = {
-                @Index(name = "idx_payout_merchant", columnList = "merchant_id"),
-                @Index(name = "idx_payout_status_created", columnList = "status, created_at")
+                @Index(name = "idx_payout_merchant", columnList = "merchant_id, created_at, id"), // keyset listing order
+                @Index(name = "idx_payout_status_created", columnList = "status, created_at"),
+                @Index(name = "idx_payout_status_updated", columnList = "status, updated_at"), // settlement files by day
+                @Index(name = "idx_payout_capture", columnList = "capture_id"), // bank files only carry the capture id
+                @Index(name = "idx_payout_batch", columnList = "batch_id") // members of a disbursement batch
         }
 )
 public class MerchantPayout {
@@ -28,7 +37,7 @@ public class MerchantPayout {
     //PROCESSING: Worker/connector starts sending to bank
     public enum Status { PENDING, PROCESSING, SETTLED, FAILED }
 
-    @Id @GeneratedValue
+    @Id @UuidV7
     private UUID id;
 
     @NotNull
@@ -45,8 +54,10 @@ public class MerchantPayout {
     @Column(name = "capture_id", nullable = false, length = 64)
     private String captureId; //the thing we’re paying for.
 
+    static final int AMOUNT_SCALE = 2;
+
     @NotNull @Positive
-    @Column(nullable = false, precision = 19, scale = 2)
+    @Column(nullable = false, precision = 19, scale = AMOUNT_SCALE)
     private BigDecimal amount;
 
     @NotBlank
@@ -66,6 +77,10 @@ public class MerchantPayout {
     @Column(name = "updated_at", nullable = false)
     private OffsetDateTime updatedAt;
 
+    //Set when netting sends this payout as part of a DisbursementBatch (null = sent on its own, or not yet sent)
+    @Column(name = "batch_id", updatable = false)
+    private UUID batchId;
+
     //To prevent lost updates when two requests modify the same payout at the same time.
     @Version
     private long version;
@@ -83,40 +98,75 @@ public class MerchantPayout {
         if (captureId == null || captureId.isBlank()) throw new IllegalArgumentException("captureId required");
         if (amount == null || amount.signum() <= 0) throw new IllegalArgumentException("amount must be > 0");
 
+        Money money;
+        try {
+            // exact per-currency check: JPY takes no decimals, USD two
+            money = Money.of(amount, (currency == null || currency.isBlank()) ? "USD" : currency.trim());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("amount has too many decimals for its currency or is too large", e);
+        }
+        if (money.exponent() > AMOUNT_SCALE) {
+            throw new IllegalArgumentException("currency " + money.currency() + " is not supported (needs "
+                    + money.exponent() + " decimals)");
+        }
+
         this.merchantId = merchantId;
         this.merchantSettlementAccountId = merchantSettlementAccountId;
         this.captureId = captureId.trim();
-        this.amount = amount.setScale(2);
-        this.currency = (currency == null || currency.isBlank()) ? "USD" : currency.trim().toUpperCase();
-        if (this.currency.length() != 3) throw new IllegalArgumentException("currency must be 3 letters");
+        this.amount = money.toBigDecimal(AMOUNT_SCALE);
+        this.currency = money.currency();
     }
 
     // ----- Domain behavior (guarded transitions) -----
     public void markProcessing() {
-        if (status != Status.PENDING) throw new IllegalStateException("Only PENDING → PROCESSING");
+        if (isNoOp(status, Status.PROCESSING)) return; // idempotent no-op
+        if (!sourcesFor(Status.PROCESSING).contains(status)) throw new IllegalStateException("Only PENDING → PROCESSING");
         status = Status.PROCESSING;
     }
 
     public void markSettled() {
-        if (status != Status.PROCESSING) throw new IllegalStateException("Only PROCESSING → SETTLED");
+        if (isNoOp(status, Status.SETTLED)) return; // idempotent no-op (webhook delivered twice)
+        if (!sourcesFor(Status.SETTLED).contains(status)) throw new IllegalStateException("Only PROCESSING → SETTLED");
         status = Status.SETTLED;
     }
 
     public void markFailed() {
-        if (status == Status.SETTLED || status == Status.FAILED) return; // idempotent no-op
-        if (status != Status.PENDING && status != Status.PROCESSING)
+        if (isNoOp(status, Status.FAILED)) return; // idempotent no-op
+        if (!sourcesFor(Status.FAILED).contains(status))
             throw new IllegalStateException("Fail only from PENDING/PROCESSING");
         status = Status.FAILED;
     }
 
+    //The transition rules as data, so set-based updates (bulk transitions) guard with the same rules
+    private static final Map<Status, Set<Status>> SOURCES = Map.of(
+            Status.PENDING, EnumSet.noneOf(Status.class),
+            Status.PROCESSING, EnumSet.of(Status.PENDING),
+            Status.SETTLED, EnumSet.of(Status.PROCESSING),
+            Status.FAILED, EnumSet.of(Status.PENDING, Status.PROCESSING)
+    );
+
+    /** Statuses a payout may move to target from. */
+    public static Set<Status> sourcesFor(Status target) {
+        return Collections.unmodifiableSet(SOURCES.get(target));
+    }
+
+    /** True when moving from current to target is accepted but changes nothing (a repeat, or failing a finished payout). */
+    public static boolean isNoOp(Status current, Status target) {
+        return current == target || (target == Status.FAILED && current == Status.SETTLED);
+    }
+
     // ----- Getters (no public setters) -----
     public UUID getId() { return id; }
     public UUID getMerchantId() { return merchantId; }
     public UUID getMerchantSettlementAccountId() { return merchantSettlementAccountId; }
     public String getCaptureId() { return captureId; }
     public BigDecimal getAmount() { return amount; }
+    public Money getMoney() { return Money.of(amount, currency); }
     public String getCurrency() { return currency; }
     public Status getStatus() { return status; }
+    public UUID getBatchId() { return batchId; }
+    /** Sent as part of a disbursement batch that has no outcome yet: it settles or fails with the batch only. */
+    public boolean isInOpenBatch() { return batchId != null && status == Status.PROCESSING; }
     public OffsetDateTime getCreatedAt() { return createdAt; }
     public OffsetDateTime getUpdatedAt() { return updatedAt; }
     public long getVersion() { return version; }
@@ -0,0 +1,209 @@
+package com.sam.finflow.domain.payout;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Set-based writes for merchant_payouts that JPA cannot express in one statement.
+ * Postgres-specific SQL; callers own the transaction.
+ */
+@Repository
+public class MerchantPayoutBatchRepository {
+
+    /** 6 bind params per row, Postgres allows 32767 per statement. */
+    static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private final JdbcTemplate jdbc;
+
+    public MerchantPayoutBatchRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** Natural key behind uq_payout_merchant_capture. */
+    public record CaptureKey(UUID merchantId, String captureId) {}
+
+    /** A validated, normalized row ready to insert. */
+    public record Row(UUID id, UUID merchantId, UUID merchantSettlementAccountId,
+                      String captureId, BigDecimal amount, String currency) {
+        CaptureKey key() { return new CaptureKey(merchantId, captureId); }
+    }
+
+    /** Id of the row that owns a capture key, and whether this call inserted it. */
+    public record Upserted(UUID id, boolean created, OffsetDateTime createdAt) {}
+
+    /**
+     * Inserts every row whose (merchant_id, capture_id) is new and returns the owning id for every key.
+     * Rows must have unique keys. One statement per {@link #MAX_ROWS_PER_STATEMENT} rows:
+     * the INSERT ... ON CONFLICT DO NOTHING runs in a CTE and the outer SELECT reads the pre-existing
+     * rows from the same snapshot, so created and existing come back together.
+     */
+    public Map<CaptureKey, Upserted> upsertAll(List<Row> rows) {
+        Map<CaptureKey, Upserted> out = new HashMap<>(rows.size() * 2);
+        for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<Row> chunk = rows.subList(from, Math.min(rows.size(), from + MAX_ROWS_PER_STATEMENT));
+            upsertChunk(chunk, out);
+        }
+        return out;
+    }
+
+    private void upsertChunk(List<Row> chunk, Map<CaptureKey, Upserted> out) {
+        StringBuilder sql = new StringBuilder(256 + chunk.size() * 96);
+        sql.append("WITH input (id, merchant_id, merchant_settlement_account_id, capture_id, amount, currency) AS (VALUES ");
+        Object[] args = new Object[chunk.size() * 6];
+        int a = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            if (i > 0) sql.append(',');
+            // Casts on every row: VALUES infers column types from the first row only
+            sql.append("(CAST(? AS uuid), CAST(? AS uuid), CAST(? AS uuid), CAST(? AS varchar), CAST(? AS numeric), CAST(? AS varchar))");
+            Row r = chunk.get(i);
+            args[a++] = r.id();
+            args[a++] = r.merchantId();
+            args[a++] = r.merchantSettlementAccountId();
+            args[a++] = r.captureId();
+            args[a++] = r.amount();
+            args[a++] = r.currency();
+        }
+        sql.append("), inserted AS (")
+           .append(" INSERT INTO merchant_payouts (id, merchant_id, merchant_settlement_account_id, capture_id,")
+           .append("   amount, currency, status, created_at, updated_at, version)")
+           .append(" SELECT id, merchant_id, merchant_settlement_account_id, capture_id, amount, currency,")
+           .append("   'PENDING', now(), now(), 0 FROM input")
+           .append(" ON CONFLICT ON CONSTRAINT uq_payout_merchant_capture DO NOTHING")
+           .append(" RETURNING id, merchant_id, capture_id, created_at)")
+           .append(" SELECT id, merchant_id, capture_id, true AS created, created_at FROM inserted")
+           .append(" UNION ALL")
+           .append(" SELECT p.id, p.merchant_id, p.capture_id, false AS created, p.created_at FROM merchant_payouts p")
+           .append(" JOIN input i ON p.merchant_id = i.merchant_id AND p.capture_id = i.capture_id");
+
+        jdbc.query(sql.toString(), rs -> {
+            out.put(new CaptureKey(rs.getObject(2, UUID.class), rs.getString(3)),
+                    new Upserted(rs.getObject(1, UUID.class), rs.getBoolean(4), rs.getObject(5, OffsetDateTime.class)));
+        }, args);
+
+        // A concurrent writer can commit a key after our snapshot was taken: the insert skips it
+        // and the snapshot read cannot see it yet. Rare, so one follow-up lookup is enough.
+        List<CaptureKey> missing = new ArrayList<>();
+        for (Row r : chunk) {
+            if (!out.containsKey(r.key())) missing.add(r.key());
+        }
+        if (!missing.isEmpty()) {
+            findIds(missing).forEach((k, id) -> out.put(k, new Upserted(id, false, null)));
+        }
+    }
+
+    /**
+     * Rows a bulk transition moved, the current status of every other id that exists, and which of those were
+     * skipped as members of an open disbursement batch.
+     */
+    public record Transitioned(List<PayoutChange> applied, Map<UUID, MerchantPayout.Status> untouched,
+                               Set<UUID> inOpenBatch) {}
+
+    /**
+     * Moves every id whose current status is in {@code from} to {@code to}, in one locking UPDATE per
+     * {@link #MAX_ROWS_PER_STATEMENT} ids plus one lookup for the ids it skipped.
+     * Rows are locked in id order so concurrent bulk calls cannot deadlock; the status guard is
+     * re-checked under the lock, so a row changed concurrently is skipped, never overwritten. Members of an open
+     * disbursement batch are skipped too.
+     * Ids must be unique.
+     */
+    public Transitioned transitionAll(List<UUID> ids, Set<MerchantPayout.Status> from, MerchantPayout.Status to) {
+        List<PayoutChange> applied = new ArrayList<>(ids.size());
+        Map<UUID, MerchantPayout.Status> untouched = new HashMap<>();
+        Set<UUID> inOpenBatch = new HashSet<>();
+        for (int start = 0; start < ids.size(); start += MAX_ROWS_PER_STATEMENT) {
+            List<UUID> chunk = ids.subList(start, Math.min(ids.size(), start + MAX_ROWS_PER_STATEMENT));
+            Set<UUID> moved = new HashSet<>(chunk.size() * 2);
+            if (!from.isEmpty()) {
+                transitionChunk(chunk, from, to, c -> {
+                    applied.add(c);
+                    moved.add(c.id());
+                });
+            }
+            List<UUID> rest = chunk.stream().filter(id -> !moved.contains(id)).toList();
+            if (!rest.isEmpty()) untouched.putAll(findStatuses(rest, inOpenBatch));
+        }
+        return new Transitioned(applied, untouched, inOpenBatch);
+    }
+
+    private void transitionChunk(List<UUID> ids, Set<MerchantPayout.Status> from, MerchantPayout.Status to,
+                                 Consumer<PayoutChange> out) {
+        StringBuilder sql = new StringBuilder(256 + ids.size() * 20);
+        List<Object> args = new ArrayList<>(ids.size() + from.size() + 1);
+        sql.append("WITH target AS (SELECT id, status AS previous_status FROM merchant_payouts WHERE id IN (");
+        for (int i = 0; i < ids.size(); i++) {
+            sql.append(i == 0 ? "CAST(? AS uuid)" : ",CAST(? AS uuid)");
+            args.add(ids.get(i));
+        }
+        sql.append(") AND status IN (");
+        int n = 0;
+        for (MerchantPayout.Status s : from) {
+            sql.append(n++ == 0 ? "?" : ",?");
+            args.add(s.name());
+        }
+        args.add(to.name());
+        // Members of an open disbursement batch move with the batch only (MerchantPayout.isInOpenBatch)
+        sql.append(") AND (batch_id IS NULL OR status <> 'PROCESSING') ORDER BY id FOR UPDATE)")
+           .append(" UPDATE merchant_payouts p SET status = ?, updated_at = now(), version = p.version + 1")
+           .append(" FROM target t WHERE p.id = t.id")
+           .append(" RETURNING p.id, p.merchant_id, p.merchant_settlement_account_id, p.capture_id, p.amount,")
+           .append("   p.currency, t.previous_status, p.status, p.created_at, p.updated_at, p.version");
+
+        jdbc.query(sql.toString(), rs -> {
+            out.accept(new PayoutChange(
+                    rs.getObject(1, UUID.class),
+                    rs.getObject(2, UUID.class),
+                    rs.getObject(3, UUID.class),
+                    rs.getString(4),
+                    rs.getBigDecimal(5),
+                    rs.getString(6),
+                    MerchantPayout.Status.valueOf(rs.getString(7)),
+                    MerchantPayout.Status.valueOf(rs.getString(8)),
+                    rs.getObject(9, OffsetDateTime.class),
+                    rs.getObject(10, OffsetDateTime.class),
+                    rs.getLong(11)));
+        }, args.toArray());
+    }
+
+    // Also adds the ids that are members of an open disbursement batch to inOpenBatch
+    private Map<UUID, MerchantPayout.Status> findStatuses(List<UUID> ids, Set<UUID> inOpenBatch) {
+        StringBuilder sql = new StringBuilder("SELECT id, status, batch_id IS NOT NULL FROM merchant_payouts WHERE id IN (");
+        for (int i = 0; i < ids.size(); i++) sql.append(i == 0 ? "CAST(? AS uuid)" : ",CAST(? AS uuid)");
+        sql.append(')');
+        Map<UUID, MerchantPayout.Status> found = new HashMap<>(ids.size() * 2);
+        jdbc.query(sql.toString(), rs -> {
+            UUID id = rs.getObject(1, UUID.class);
+            MerchantPayout.Status status = MerchantPayout.Status.valueOf(rs.getString(2));
+            found.put(id, status);
+            if (rs.getBoolean(3) && status == MerchantPayout.Status.PROCESSING) inOpenBatch.add(id);
+        }, ids.toArray());
+        return found;
+    }
+
+    private Map<CaptureKey, UUID> findIds(List<CaptureKey> keys) {
+        StringBuilder sql = new StringBuilder("SELECT id, merchant_id, capture_id FROM merchant_payouts WHERE (merchant_id, capture_id) IN (");
+        Object[] args = new Object[keys.size() * 2];
+        for (int i = 0; i < keys.size(); i++) {
+            if (i > 0) sql.append(',');
+            sql.append("(CAST(? AS uuid), CAST(? AS varchar))");
+            args[i * 2] = keys.get(i).merchantId();
+            args[i * 2 + 1] = keys.get(i).captureId();
+        }
+        sql.append(')');
+        Map<CaptureKey, UUID> found = new HashMap<>();
+        jdbc.query(sql.toString(), rs -> {
+            found.put(new CaptureKey(rs.getObject(2, UUID.class), rs.getString(3)), rs.getObject(1, UUID.class));
+        }, args);
+        return found;
+    }
+}
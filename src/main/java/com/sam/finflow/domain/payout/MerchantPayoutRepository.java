@@ -1,6 +1,7 @@
 package com.sam.finflow.domain.payout;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,6 +11,13 @@ public interface MerchantPayoutRepository extends JpaRepository<MerchantPayout,
 
     Optional<MerchantPayout> findByMerchantIdAndCaptureId(UUID merchantId, String captureId);
 
-    //Desc = “descending,” meaning the newest payout appears first.
-    List<MerchantPayout> findByMerchantIdOrderByCreatedAtDesc(UUID merchantId);
+    //Oldest PENDING first via idx_payout_status_created; rows locked by another worker are skipped, not waited on
+    @Query(value = """
+            SELECT * FROM merchant_payouts
+            WHERE status = 'PENDING'
+            ORDER BY created_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<MerchantPayout> lockNextPending(int limit);
 }
@@ -1,68 +1,260 @@
 package com.sam.finflow.domain.payout;
 
-import jakarta.transaction.Transactional;
+import com.sam.finflow.metrics.PayoutTransitionMetrics;
+import com.sam.finflow.util.IdGenerator;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Service
+@Timed("finflow.service")
 public class MerchantPayoutService {
 
     private final MerchantPayoutRepository repo;
+    private final MerchantPayoutBatchRepository batchRepo;
+    private final PayoutArchiveRepository archive;
+    private final ApplicationEventPublisher events;
+    private final PayoutTransitionMetrics transitions;
+    private final PayoutTransitionExecutor executor;
 
-    public MerchantPayoutService(MerchantPayoutRepository repo) {
+    public record NewPayout(UUID merchantId,
+                            UUID merchantSettlementAccountId,
+                            String captureId,
+                            BigDecimal amount,
+                            String currency) {}
+
+    /** created = false when the capture already had a payout (returned as is). */
+    public record CreateOrGetResult(MerchantPayout payout, boolean created) {}
+
+    public enum BatchOutcome { CREATED, EXISTING, REJECTED }
+
+    /** One result per input, in input order. id is null when REJECTED. */
+    public record BatchResult(UUID id, BatchOutcome outcome, String error) {}
+
+    /** NO_OP: accepted but nothing to change (a repeat, or failing a SETTLED payout; see {@link MerchantPayout#isNoOp}). */
+    /** IN_OPEN_BATCH: the payout is PROCESSING inside a disbursement batch and only moves with the batch. */
+    public enum TransitionOutcome { APPLIED, NO_OP, ILLEGAL_TRANSITION, IN_OPEN_BATCH, NOT_FOUND }
+
+    /** One result per input id, in input order. status is the payout's status after the call, null when NOT_FOUND. */
+    public record TransitionResult(UUID id, TransitionOutcome outcome, MerchantPayout.Status status) {}
+
+    public MerchantPayoutService(MerchantPayoutRepository repo,
+                                 MerchantPayoutBatchRepository batchRepo,
+                                 PayoutArchiveRepository archive,
+                                 ApplicationEventPublisher events,
+                                 PayoutTransitionMetrics transitions,
+                                 PayoutTransitionExecutor executor) {
         this.repo = repo;
+        this.batchRepo = batchRepo;
+        this.archive = archive;
+        this.events = events;
+        this.transitions = transitions;
+        this.executor = executor;
     }
 
     @Transactional
-    public MerchantPayout createOrGet(UUID merchantId,
-                                      UUID merchantSettlementAccountId,
-                                      String captureId,
-                                      BigDecimal amount,
-                                      String currency) {
+    public CreateOrGetResult createOrGet(UUID merchantId,
+                                         UUID merchantSettlementAccountId,
+                                         String captureId,
+                                         BigDecimal amount,
+                                         String currency) {
         // Idempotency by (merchantId, captureId)
         // Try to find an existing payout for this merchant + capture.
         // If it exists, just give it to me.
         // If not, create a new one and save it.
-        return repo.findByMerchantIdAndCaptureId(merchantId, captureId)
-                .orElseGet(() -> repo.save(
-                        new MerchantPayout(merchantId, merchantSettlementAccountId, captureId, amount, currency)
-                ));
+        var existing = repo.findByMerchantIdAndCaptureId(merchantId, captureId);
+        if (existing.isPresent()) return new CreateOrGetResult(existing.get(), false);
+        // Finished long ago and moved out of merchant_payouts, still the same capture
+        existing = archive.findByMerchantIdAndCaptureId(merchantId, captureId);
+        if (existing.isPresent()) return new CreateOrGetResult(existing.get(), false);
+
+        MerchantPayout p = repo.saveAndFlush(
+                new MerchantPayout(merchantId, merchantSettlementAccountId, captureId, amount, currency));
+        events.publishEvent(PayoutChangedEvent.of(PayoutChange.of(p, null)));
+        return new CreateOrGetResult(p, true);
     }
 
+    /**
+     * Batch version of {@link #createOrGet}: same idempotency on (merchantId, captureId), but written with
+     * multi-row upserts instead of a lookup + save per payout. Rows failing the entity rules are REJECTED
+     * without affecting the rest; a capture repeated inside the batch resolves to the same payout.
+     */
     @Transactional
-    public MerchantPayout markProcessing(UUID payoutId) {
-        MerchantPayout p = getOrThrow(payoutId);
-        p.markProcessing();
-        return p;
+    public List<BatchResult> createOrGetAll(List<NewPayout> payouts) {
+        BatchResult[] results = new BatchResult[payouts.size()];
+        Map<MerchantPayoutBatchRepository.CaptureKey, Integer> firstIndex = new HashMap<>(payouts.size() * 2);
+        List<MerchantPayoutBatchRepository.Row> rows = new ArrayList<>(payouts.size());
+
+        for (int i = 0; i < payouts.size(); i++) {
+            NewPayout n = payouts.get(i);
+            MerchantPayout p;
+            try {
+                // Same normalization/validation as the single create path
+                p = new MerchantPayout(n.merchantId(), n.merchantSettlementAccountId(), n.captureId(), n.amount(), n.currency());
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                results[i] = new BatchResult(null, BatchOutcome.REJECTED, e.getMessage());
+                continue;
+            }
+            var key = new MerchantPayoutBatchRepository.CaptureKey(p.getMerchantId(), p.getCaptureId());
+            if (firstIndex.putIfAbsent(key, i) == null) {
+                rows.add(new MerchantPayoutBatchRepository.Row(IdGenerator.newId(), p.getMerchantId(),
+                        p.getMerchantSettlementAccountId(), p.getCaptureId(), p.getAmount(), p.getCurrency()));
+            }
+        }
+
+        // Captures already archived resolve to the archived payout and are not inserted again
+        var archived = archivedIds(rows);
+        if (!archived.isEmpty()) rows.removeIf(r -> archived.containsKey(r.key()));
+        archived.forEach((key, id) -> results[firstIndex.get(key)] = new BatchResult(id, BatchOutcome.EXISTING, null));
+
+        var upserted = batchRepo.upsertAll(rows);
+        List<PayoutChange> created = new ArrayList<>();
+        for (var r : rows) {
+            var u = upserted.get(r.key());
+            results[firstIndex.get(r.key())] = new BatchResult(u.id(), u.created() ? BatchOutcome.CREATED : BatchOutcome.EXISTING, null);
+            if (u.created()) {
+                created.add(new PayoutChange(u.id(), r.merchantId(), r.merchantSettlementAccountId(), r.captureId(),
+                        r.amount(), r.currency(), null, MerchantPayout.Status.PENDING, u.createdAt(), u.createdAt(), 0));
+            }
+        }
+        if (!created.isEmpty()) events.publishEvent(new PayoutChangedEvent(created));
+        // Repeats inside the batch point at the first occurrence
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null) continue;
+            NewPayout n = payouts.get(i);
+            var key = new MerchantPayoutBatchRepository.CaptureKey(n.merchantId(), n.captureId().trim());
+            results[i] = new BatchResult(results[firstIndex.get(key)].id(), BatchOutcome.EXISTING, null);
+        }
+        return List.of(results);
+    }
+
+    private Map<MerchantPayoutBatchRepository.CaptureKey, UUID> archivedIds(List<MerchantPayoutBatchRepository.Row> rows) {
+        Map<MerchantPayoutBatchRepository.CaptureKey, UUID> found = new HashMap<>();
+        if (!archive.enabled()) return found;
+        List<MerchantPayoutBatchRepository.CaptureKey> keys = rows.stream().map(MerchantPayoutBatchRepository.Row::key).toList();
+        for (int from = 0; from < keys.size(); from += MerchantPayoutBatchRepository.MAX_ROWS_PER_STATEMENT) {
+            found.putAll(archive.findIds(keys.subList(from, Math.min(keys.size(), from + MerchantPayoutBatchRepository.MAX_ROWS_PER_STATEMENT))));
+        }
+        return found;
     }
 
+    /**
+     * Claims up to {@code limit} of the oldest PENDING payouts for this worker and moves them to PROCESSING.
+     * SKIP LOCKED lets any number of workers/nodes claim concurrently without ever getting the same row.
+     */
     @Transactional
+    public List<MerchantPayout> claimPending(int limit) {
+        List<MerchantPayout> claimed = repo.lockNextPending(limit);
+        if (claimed.isEmpty()) return claimed;
+        for (MerchantPayout p : claimed) {
+            p.markProcessing();
+        }
+        repo.flush(); // bump versions before snapshotting
+        events.publishEvent(new PayoutChangedEvent(
+                claimed.stream().map(p -> PayoutChange.of(p, MerchantPayout.Status.PENDING)).toList()));
+        return claimed;
+    }
+
+    // Single transitions: own transaction per attempt, serialized per payout and retried on version
+    // conflicts by the executor; a repeat of the current status comes back unchanged
+    public MerchantPayout markProcessing(UUID payoutId) {
+        return transition(payoutId, MerchantPayout.Status.PROCESSING, MerchantPayout::markProcessing);
+    }
+
     public MerchantPayout markSettled(UUID payoutId) {
-        MerchantPayout p = getOrThrow(payoutId);
-        p.markSettled();
-        return p;
+        return transition(payoutId, MerchantPayout.Status.SETTLED, MerchantPayout::markSettled);
     }
 
-    @Transactional
     public MerchantPayout markFailed(UUID payoutId) {
-        MerchantPayout p = getOrThrow(payoutId);
-        p.markFailed();
-        return p;
+        return transition(payoutId, MerchantPayout.Status.FAILED, MerchantPayout::markFailed);
     }
 
-    //id == payoutId
+    /**
+     * Set-based version of markProcessing/markSettled/markFailed for many ids: same rules
+     * ({@link MerchantPayout#sourcesFor}, members of an open disbursement batch don't move), but one guarded
+     * UPDATE per 1000 ids instead of a load + flush per payout.
+     * Ids that cannot move are reported, not thrown, so one bad id does not fail the batch.
+     */
     @Transactional
+    public List<TransitionResult> transitionAll(List<UUID> ids, MerchantPayout.Status target) {
+        if (target == null || target == MerchantPayout.Status.PENDING) {
+            throw new IllegalArgumentException("target must be PROCESSING, SETTLED or FAILED");
+        }
+        List<UUID> unique = List.copyOf(new LinkedHashSet<>(ids));
+        var done = batchRepo.transitionAll(unique, MerchantPayout.sourcesFor(target), target);
+
+        Map<UUID, TransitionResult> byId = new HashMap<>(unique.size() * 2);
+        for (PayoutChange c : done.applied()) {
+            byId.put(c.id(), new TransitionResult(c.id(), TransitionOutcome.APPLIED, c.status()));
+        }
+        Map<UUID, MerchantPayout.Status> untouched = new HashMap<>(done.untouched());
+        if (archive.enabled()) { // archived payouts are finished: NO_OP or ILLEGAL_TRANSITION, never NOT_FOUND
+            List<UUID> missing = unique.stream()
+                    .filter(id -> !untouched.containsKey(id) && !byId.containsKey(id)).toList();
+            for (int from = 0; from < missing.size(); from += MerchantPayoutBatchRepository.MAX_ROWS_PER_STATEMENT) {
+                untouched.putAll(archive.findStatuses(
+                        missing.subList(from, Math.min(missing.size(), from + MerchantPayoutBatchRepository.MAX_ROWS_PER_STATEMENT))));
+            }
+        }
+        untouched.forEach((id, current) -> {
+            boolean noOp = MerchantPayout.isNoOp(current, target);
+            if (!noOp) transitions.rejected(current, target);
+            TransitionOutcome outcome = noOp ? TransitionOutcome.NO_OP
+                    : done.inOpenBatch().contains(id) ? TransitionOutcome.IN_OPEN_BATCH : TransitionOutcome.ILLEGAL_TRANSITION;
+            byId.put(id, new TransitionResult(id, outcome, current));
+        });
+
+        if (!done.applied().isEmpty()) events.publishEvent(new PayoutChangedEvent(done.applied()));
+        List<TransitionResult> results = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            results.add(byId.getOrDefault(id, new TransitionResult(id, TransitionOutcome.NOT_FOUND, null)));
+        }
+        return results;
+    }
+
+    private MerchantPayout transition(UUID payoutId, MerchantPayout.Status target, Consumer<MerchantPayout> action) {
+        return executor.execute(payoutId, () -> {
+            MerchantPayout p = getOrThrow(payoutId);
+            MerchantPayout.Status before = p.getStatus();
+            try {
+                // Batch finish only moves PROCESSING members: one settled on its own would be paid twice or never
+                if (p.isInOpenBatch() && target != before) {
+                    throw new IllegalStateException("payout " + payoutId + " is part of disbursement batch "
+                            + p.getBatchId() + "; settle or fail the batch instead");
+                }
+                action.accept(p); // entity enforces the allowed sources
+            } catch (IllegalStateException e) {
+                transitions.rejected(before, target);
+                throw e;
+            }
+            return changed(p, before);
+        });
+    }
+
+    //Flush so the snapshot carries the new version, then tell listeners (outbox, ...) in this transaction
+    private MerchantPayout changed(MerchantPayout p, MerchantPayout.Status before) {
+        if (p.getStatus() == before) return p; // idempotent no-op, nothing to publish
+        repo.flush();
+        events.publishEvent(PayoutChangedEvent.of(PayoutChange.of(p, before)));
+        return p;
+    }
+
+    //id == payoutId; falls back to the archive, whose payouts come back detached
+    @Transactional(readOnly = true)
     public MerchantPayout getOrThrow(UUID id) {
         return repo.findById(id)
+                .or(() -> archive.findById(id))
                 .orElseThrow(() -> new NoSuchElementException("payout not found: " + id));
     }
-
-    @Transactional
-    public List<MerchantPayout> listForMerchant(UUID merchantId) {
-        return repo.findByMerchantIdOrderByCreatedAtDesc(merchantId);
-    }
 }
@@ -0,0 +1,223 @@
+package com.sam.finflow.domain.payout;
+
+import com.sam.finflow.domain.payout.MerchantPayoutBatchRepository.CaptureKey;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cold storage for finished payouts: merchant_payouts_archive holds SETTLED/FAILED rows older than min-age,
+ * moved there by {@link PayoutArchiver} so merchant_payouts and its indexes only carry the working set.
+ *
+ * The archive is range-partitioned by month of created_at (partitions are created on demand, old months
+ * can be detached or dropped whole). It is not a JPA entity: the table is created here, rows are read back
+ * as detached, read-only {@link MerchantPayout}s. Postgres-specific SQL.
+ */
+@Repository
+public class PayoutArchiveRepository {
+
+    public static final String TABLE = "merchant_payouts_archive";
+    static final Set<MerchantPayout.Status> ARCHIVED = Set.of(MerchantPayout.Status.SETTLED, MerchantPayout.Status.FAILED);
+
+    private static final String COLUMNS = "id, merchant_id, merchant_settlement_account_id, capture_id, amount,"
+            + " currency, status, created_at, updated_at, version, batch_id";
+
+    private final JdbcTemplate jdbc;
+    private final boolean enabled;
+    private final Duration minAge;
+    private final Set<YearMonth> partitions = ConcurrentHashMap.newKeySet(); // known to exist
+
+    @PersistenceContext
+    private EntityManager em;
+
+    public PayoutArchiveRepository(JdbcTemplate jdbc,
+                                   @Value("${finflow.payouts.archive.enabled:true}") boolean enabled,
+                                   @Value("${finflow.payouts.archive.min-age:P90D}") Duration minAge) {
+        this.jdbc = jdbc;
+        this.enabled = enabled;
+        this.minAge = minAge;
+    }
+
+    /** False when archiving is off (e.g. on H2): nothing is moved and lookups never touch the archive. */
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public Duration minAge() {
+        return minAge;
+    }
+
+    //Outside Hibernate's ddl-auto on purpose: it cannot create partitioned tables, and the archive must survive restarts
+    @PostConstruct
+    void createTable() {
+        if (!enabled) return;
+        jdbc.execute("""
+                CREATE TABLE IF NOT EXISTS %s (
+                    id uuid NOT NULL,
+                    merchant_id uuid NOT NULL,
+                    merchant_settlement_account_id uuid NOT NULL,
+                    capture_id varchar(64) NOT NULL,
+                    amount numeric(19,2) NOT NULL,
+                    currency varchar(3) NOT NULL,
+                    status varchar(16) NOT NULL,
+                    created_at timestamp(6) with time zone NOT NULL,
+                    updated_at timestamp(6) with time zone NOT NULL,
+                    version bigint NOT NULL,
+                    batch_id uuid,
+                    archived_at timestamp(6) with time zone NOT NULL DEFAULT now(),
+                    PRIMARY KEY (id, created_at)
+                ) PARTITION BY RANGE (created_at)
+                """.formatted(TABLE));
+        jdbc.execute("ALTER TABLE " + TABLE + " ADD COLUMN IF NOT EXISTS batch_id uuid"); // archives from before netting
+        // Declared on the parent, so every partition gets them
+        jdbc.execute("CREATE INDEX IF NOT EXISTS idx_payout_archive_merchant ON " + TABLE + " (merchant_id, created_at, id)");
+        jdbc.execute("CREATE INDEX IF NOT EXISTS idx_payout_archive_capture ON " + TABLE + " (merchant_id, capture_id)");
+        jdbc.execute("CREATE INDEX IF NOT EXISTS idx_payout_archive_capture_id ON " + TABLE + " (capture_id)"); // bank files
+    }
+
+    /** Creates the monthly (UTC) partitions covering [from, to] that do not exist yet. */
+    public void ensurePartitions(OffsetDateTime from, OffsetDateTime to) {
+        YearMonth last = YearMonth.from(to.withOffsetSameInstant(ZoneOffset.UTC));
+        for (YearMonth m = YearMonth.from(from.withOffsetSameInstant(ZoneOffset.UTC)); !m.isAfter(last); m = m.plusMonths(1)) {
+            if (partitions.contains(m)) continue;
+            jdbc.execute("CREATE TABLE IF NOT EXISTS %s_y%dm%02d PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')"
+                    .formatted(TABLE, m.getYear(), m.getMonthValue(), TABLE,
+                            m.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC),
+                            m.plusMonths(1).atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC)));
+            partitions.add(m);
+        }
+    }
+
+    /** Oldest created_at among the payouts {@link #moveBatch} would take for this cutoff, null when there are none. */
+    @Nullable
+    public OffsetDateTime oldestCandidate(OffsetDateTime updatedBefore) {
+        return jdbc.queryForObject("SELECT min(created_at) FROM merchant_payouts WHERE status IN ('SETTLED', 'FAILED') AND updated_at < ?",
+                OffsetDateTime.class, updatedBefore);
+    }
+
+    /**
+     * Moves up to limit SETTLED/FAILED payouts last updated before the cutoff, oldest first, in one statement:
+     * the delete and the insert commit together, so a payout is always in exactly one of the two tables.
+     * SKIP LOCKED leaves rows another transaction holds for the next batch instead of waiting on them.
+     * Partitions for the rows' months must exist. Returns the number of rows moved.
+     */
+    public int moveBatch(OffsetDateTime updatedBefore, int limit) {
+        return jdbc.update("""
+                WITH victims AS (
+                    SELECT id FROM merchant_payouts
+                    WHERE status IN ('SETTLED', 'FAILED') AND updated_at < ?
+                    ORDER BY updated_at LIMIT ?
+                    FOR UPDATE SKIP LOCKED),
+                moved AS (
+                    DELETE FROM merchant_payouts p USING victims v WHERE p.id = v.id
+                    RETURNING p.id, p.merchant_id, p.merchant_settlement_account_id, p.capture_id, p.amount,
+                              p.currency, p.status, p.created_at, p.updated_at, p.version, p.batch_id)
+                INSERT INTO %s (%s) SELECT %s FROM moved
+                """.formatted(TABLE, COLUMNS, COLUMNS), updatedBefore, limit);
+    }
+
+    // ----- Reads (only meaningful when enabled) -----
+
+    public Optional<MerchantPayout> findById(UUID id) {
+        if (!enabled) return Optional.empty();
+        return first(nativeQuery("SELECT " + COLUMNS + " FROM " + TABLE + " WHERE id = :id").setParameter("id", id));
+    }
+
+    public Optional<MerchantPayout> findByMerchantIdAndCaptureId(UUID merchantId, String captureId) {
+        if (!enabled) return Optional.empty();
+        return first(nativeQuery("SELECT " + COLUMNS + " FROM " + TABLE + " WHERE merchant_id = :merchantId AND capture_id = :captureId")
+                .setParameter("merchantId", merchantId)
+                .setParameter("captureId", captureId));
+    }
+
+    /** Ids of the archived payouts owning these capture keys (at most 1000 keys). */
+    public Map<CaptureKey, UUID> findIds(List<CaptureKey> keys) {
+        Map<CaptureKey, UUID> found = new HashMap<>();
+        if (!enabled || keys.isEmpty()) return found;
+        StringBuilder sql = new StringBuilder("SELECT id, merchant_id, capture_id FROM " + TABLE + " WHERE (merchant_id, capture_id) IN (");
+        Object[] args = new Object[keys.size() * 2];
+        for (int i = 0; i < keys.size(); i++) {
+            if (i > 0) sql.append(',');
+            sql.append("(CAST(? AS uuid), CAST(? AS varchar))");
+            args[i * 2] = keys.get(i).merchantId();
+            args[i * 2 + 1] = keys.get(i).captureId();
+        }
+        sql.append(')');
+        jdbc.query(sql.toString(), rs -> {
+            found.put(new CaptureKey(rs.getObject(2, UUID.class), rs.getString(3)), rs.getObject(1, UUID.class));
+        }, args);
+        return found;
+    }
+
+    /** Status of every archived payout among ids (at most 1000 ids). */
+    public Map<UUID, MerchantPayout.Status> findStatuses(List<UUID> ids) {
+        Map<UUID, MerchantPayout.Status> found = new HashMap<>();
+        if (!enabled || ids.isEmpty()) return found;
+        StringBuilder sql = new StringBuilder("SELECT id, status FROM " + TABLE + " WHERE id IN (");
+        for (int i = 0; i < ids.size(); i++) sql.append(i == 0 ? "CAST(? AS uuid)" : ",CAST(? AS uuid)");
+        sql.append(')');
+        jdbc.query(sql.toString(), rs -> {
+            found.put(rs.getObject(1, UUID.class), MerchantPayout.Status.valueOf(rs.getString(2)));
+        }, ids.toArray());
+        return found;
+    }
+
+    /** Statuses of the archived payouts per capture id (bank files carry no merchant), at most 1000 ids. */
+    public Map<String, Set<MerchantPayout.Status>> findStatusesByCapture(List<String> captureIds) {
+        Map<String, Set<MerchantPayout.Status>> found = new HashMap<>();
+        if (!enabled || captureIds.isEmpty()) return found;
+        String in = String.join(",", Collections.nCopies(captureIds.size(), "?"));
+        jdbc.query("SELECT capture_id, status FROM " + TABLE + " WHERE capture_id IN (" + in + ")", rs -> {
+            found.computeIfAbsent(rs.getString(1), k -> EnumSet.noneOf(MerchantPayout.Status.class))
+                    .add(MerchantPayout.Status.valueOf(rs.getString(2)));
+        }, captureIds.toArray());
+        return found;
+    }
+
+    /**
+     * Whether a listing with this filter can match archived rows at all, and if so the newest created_at such
+     * a row can have (it was finished, and so created, at least min-age ago). Null = skip the archive.
+     * Raising min-age makes this bound too tight for rows archived under the old value; lower it freely.
+     */
+    @Nullable
+    public OffsetDateTime newestPossible(PayoutListFilter filter) {
+        if (!enabled) return null;
+        if (filter.status() != null && !ARCHIVED.contains(filter.status())) return null;
+        OffsetDateTime newest = OffsetDateTime.now(ZoneOffset.UTC).minus(minAge);
+        if (filter.createdFrom() != null && !filter.createdFrom().isBefore(newest)) return null;
+        return newest;
+    }
+
+    private Query nativeQuery(String sql) {
+        return em.createNativeQuery(sql, MerchantPayout.class).setHint(HibernateHints.HINT_READ_ONLY, true);
+    }
+
+    //Detached so a caller that "changes" it (an idempotent markFailed) can never flush it into merchant_payouts
+    private Optional<MerchantPayout> first(Query q) {
+        @SuppressWarnings("unchecked")
+        List<MerchantPayout> rows = q.setMaxResults(1).getResultList();
+        if (rows.isEmpty()) return Optional.empty();
+        em.detach(rows.get(0));
+        return Optional.of(rows.get(0));
+    }
+}
@@ -0,0 +1,77 @@
+package com.sam.finflow.domain.payout;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Moves SETTLED/FAILED payouts last updated more than min-age ago from merchant_payouts into
+ * {@link PayoutArchiveRepository the archive}, batch-size rows per short transaction, oldest first.
+ *
+ * Each batch locks only the rows it moves (SKIP LOCKED), so live traffic never waits on the job and it is
+ * safe to run on every node. A run stops when the backlog is drained or after max-batches, and sleeps
+ * pause-ms between batches to leave the database some air. Balances are untouched: an archived payout still
+ * counts in merchant_payout_balances.
+ */
+@Component
+public class PayoutArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(PayoutArchiver.class);
+
+    private final PayoutArchiveRepository archive;
+    private final TransactionTemplate tx;
+    private final int batchSize;
+    private final int maxBatches;
+    private final long pauseMillis;
+
+    public PayoutArchiver(PayoutArchiveRepository archive,
+                          TransactionTemplate tx,
+                          @Value("${finflow.payouts.archive.batch-size:1000}") int batchSize,
+                          @Value("${finflow.payouts.archive.max-batches:1000}") int maxBatches,
+                          @Value("${finflow.payouts.archive.pause-ms:50}") long pauseMillis) {
+        this.archive = archive;
+        this.tx = tx;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBatches = Math.max(1, maxBatches);
+        this.pauseMillis = pauseMillis;
+    }
+
+    @Scheduled(cron = "${finflow.payouts.archive.cron:-}")
+    public void scheduled() {
+        if (!archive.enabled()) return;
+        long moved = run();
+        if (moved > 0) log.info("archived {} payouts", moved);
+    }
+
+    /** One pass; returns the number of payouts moved. */
+    public long run() {
+        if (!archive.enabled()) throw new IllegalStateException("payout archive is disabled");
+        // Fixed for the whole run, so every row it can move has created_at in [oldest, cutoff)
+        OffsetDateTime cutoff = OffsetDateTime.now(ZoneOffset.UTC).minus(archive.minAge());
+        OffsetDateTime oldest = archive.oldestCandidate(cutoff);
+        if (oldest == null) return 0;
+        archive.ensurePartitions(oldest, cutoff);
+
+        long moved = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Integer n = tx.execute(s -> archive.moveBatch(cutoff, batchSize));
+            moved += n;
+            if (n < batchSize) break;
+            if (pauseMillis > 0) {
+                try {
+                    Thread.sleep(pauseMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        return moved;
+    }
+}
@@ -0,0 +1,55 @@
+package com.sam.finflow.domain.payout;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Projection row: how many payouts a merchant has in one currency and status, and their total.
+ * Kept in step with merchant_payouts by {@link PayoutBalanceService} in the same transaction as each change.
+ * Mapped so ddl-auto creates the table; reads/writes go through {@link PayoutBalanceRepository} (JDBC).
+ */
+@Entity
+@Table(name = "merchant_payout_balances")
+public class PayoutBalance {
+
+    @Embeddable
+    public static class Key implements Serializable {
+        @Column(name = "merchant_id", nullable = false)
+        private UUID merchantId;
+
+        @Column(nullable = false, length = 3)
+        private String currency;
+
+        @Enumerated(EnumType.STRING)
+        @Column(nullable = false, length = 16)
+        private MerchantPayout.Status status;
+
+        protected Key() { }
+
+        @Override public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key k)) return false;
+            return Objects.equals(merchantId, k.merchantId) && Objects.equals(currency, k.currency) && status == k.status;
+        }
+        @Override public int hashCode() { return Objects.hash(merchantId, currency, status); }
+    }
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(name = "payout_count", nullable = false)
+    private long payoutCount;
+
+    @Column(nullable = false, precision = 21, scale = MerchantPayout.AMOUNT_SCALE) // sum of numeric(19,2)
+    private BigDecimal amount;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    protected PayoutBalance() { }
+}
@@ -0,0 +1,179 @@
+package com.sam.finflow.domain.payout;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC access to merchant_payout_balances. Postgres-specific SQL; callers own the transaction.
+ */
+@Repository
+public class PayoutBalanceRepository {
+
+    /** Primary key of a balance row. */
+    public record Key(UUID merchantId, String currency, MerchantPayout.Status status) {}
+
+    /** A balance row, or a delta to add to one. */
+    public record Balance(Key key, long count, BigDecimal amount) {
+        Balance plus(long count, BigDecimal amount) {
+            return new Balance(key, this.count + count, this.amount.add(amount));
+        }
+        boolean isZero() { return count == 0 && amount.signum() == 0; }
+    }
+
+    /**
+     * Same order Postgres sorts the primary key in (uuid bytewise = unsigned, then the A-Z strings), so writers
+     * locking rows in this order and SQL locking with ORDER BY merchant_id, currency, status never deadlock.
+     */
+    static final Comparator<Key> LOCK_ORDER = Comparator
+            .comparing(Key::merchantId, (a, b) -> {
+                int c = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+                return c != 0 ? c : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+            })
+            .thenComparing(Key::currency)
+            .thenComparing(k -> k.status().name());
+
+    private static final String ADD = """
+            INSERT INTO merchant_payout_balances (merchant_id, currency, status, payout_count, amount, updated_at)
+            VALUES (?, ?, ?, ?, ?, now())
+            ON CONFLICT (merchant_id, currency, status) DO UPDATE
+               SET payout_count = merchant_payout_balances.payout_count + EXCLUDED.payout_count,
+                   amount = merchant_payout_balances.amount + EXCLUDED.amount,
+                   updated_at = now()
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final String payouts; // what the aggregates read: archived payouts still count
+
+    public PayoutBalanceRepository(JdbcTemplate jdbc, PayoutArchiveRepository archive) {
+        this.jdbc = jdbc;
+        this.payouts = !archive.enabled() ? "merchant_payouts"
+                : "(SELECT merchant_id, currency, status, amount FROM merchant_payouts UNION ALL"
+                  + " SELECT merchant_id, currency, status, amount FROM " + PayoutArchiveRepository.TABLE + ") p";
+    }
+
+    /** Adds each delta to its row (creating it at zero first). Deltas must be unique per key and in LOCK_ORDER. */
+    public void addAll(List<Balance> deltas) {
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        for (Balance d : deltas) {
+            args.add(new Object[]{ d.key().merchantId(), d.key().currency(), d.key().status().name(), d.count(), d.amount() });
+        }
+        jdbc.batchUpdate(ADD, args);
+    }
+
+    /** Primary-key prefix scan: at most (currencies x statuses) rows. */
+    public List<Balance> findByMerchant(UUID merchantId) {
+        return jdbc.query("""
+                SELECT merchant_id, currency, status, payout_count, amount FROM merchant_payout_balances
+                WHERE merchant_id = ? ORDER BY currency, status
+                """, (rs, i) -> balance(rs), merchantId);
+    }
+
+    // ----- Verify / repair (PayoutBalanceVerifier) -----
+
+    /**
+     * Up to n - 1 merchant ids splitting merchant_payouts into n similar-sized ranges, estimated from a ~1% page
+     * sample (merchant ids may be time-ordered, so equal slices of the uuid space would be very uneven).
+     * Empty for small tables.
+     */
+    public List<UUID> sampleMerchantBounds(int n) {
+        StringBuilder fractions = new StringBuilder("{");
+        for (int i = 1; i < n; i++) fractions.append(i == 1 ? "" : ",").append((double) i / n);
+        fractions.append('}');
+        List<UUID> bounds = new ArrayList<>(n);
+        jdbc.query("""
+                SELECT percentile_disc(CAST(? AS float8[])) WITHIN GROUP (ORDER BY merchant_id)
+                FROM merchant_payouts TABLESAMPLE SYSTEM (1)
+                """, rs -> {
+            Array arr = rs.getArray(1);
+            if (arr == null) return;
+            for (Object o : (Object[]) arr.getArray()) {
+                UUID b = (UUID) o;
+                if (bounds.isEmpty() || !bounds.get(bounds.size() - 1).equals(b)) bounds.add(b);
+            }
+        }, fractions.toString());
+        return bounds;
+    }
+
+    /**
+     * Keys with merchant_id in [from, to) whose projection differs from a fresh aggregate of merchant_payouts
+     * and the archive. One statement, so both sides come from the same snapshot (a batch moving rows into the
+     * archive is either fully seen or not at all). A null bound is open.
+     */
+    public List<Key> findDrift(UUID from, UUID to) {
+        String range = from == null && to == null ? "true"
+                : from == null ? "merchant_id < ?"
+                : to == null ? "merchant_id >= ?"
+                : "merchant_id >= ? AND merchant_id < ?";
+        List<Object> bounds = new ArrayList<>(2);
+        if (from != null) bounds.add(from);
+        if (to != null) bounds.add(to);
+        List<Object> args = new ArrayList<>(bounds);
+        args.addAll(bounds); // the range appears twice
+        return jdbc.query("""
+                SELECT coalesce(a.merchant_id, b.merchant_id), coalesce(a.currency, b.currency), coalesce(a.status, b.status)
+                FROM (SELECT merchant_id, currency, status, count(*) AS cnt, sum(amount) AS amt
+                      FROM %2$s WHERE %1$s GROUP BY merchant_id, currency, status) a
+                FULL JOIN (SELECT * FROM merchant_payout_balances WHERE %1$s) b
+                  ON a.merchant_id = b.merchant_id AND a.currency = b.currency AND a.status = b.status
+                WHERE coalesce(a.cnt, 0) <> coalesce(b.payout_count, 0) OR coalesce(a.amt, 0) <> coalesce(b.amount, 0)
+                """.formatted(range, payouts),
+                (rs, i) -> new Key(rs.getObject(1, UUID.class), rs.getString(2), MerchantPayout.Status.valueOf(rs.getString(3))),
+                args.toArray());
+    }
+
+    /**
+     * Overwrites the given rows with a fresh aggregate. The rows are locked first (in LOCK_ORDER), so a
+     * concurrent change either committed before the aggregate reads it, or adds its delta after we commit.
+     * Keys must be unique and sorted in LOCK_ORDER.
+     */
+    public void recompute(List<Key> keys) {
+        List<Object[]> zero = new ArrayList<>(keys.size());
+        for (Key k : keys) zero.add(new Object[]{ k.merchantId(), k.currency(), k.status().name(), 0L, BigDecimal.ZERO });
+        jdbc.batchUpdate(ADD, zero); // make sure every row exists so it can be locked
+
+        StringBuilder in = new StringBuilder();
+        Object[] args = new Object[keys.size() * 3];
+        for (int i = 0; i < keys.size(); i++) {
+            in.append(i == 0 ? "(CAST(? AS uuid), ?, ?)" : ",(CAST(? AS uuid), ?, ?)");
+            args[i * 3] = keys.get(i).merchantId();
+            args[i * 3 + 1] = keys.get(i).currency();
+            args[i * 3 + 2] = keys.get(i).status().name();
+        }
+        jdbc.query("SELECT 1 FROM merchant_payout_balances WHERE (merchant_id, currency, status) IN (" + in
+                + ") ORDER BY merchant_id, currency, status FOR UPDATE", rs -> {}, args);
+
+        jdbc.update("""
+                UPDATE merchant_payout_balances b
+                   SET payout_count = coalesce(a.cnt, 0), amount = coalesce(a.amt, 0), updated_at = now()
+                FROM (VALUES %s) AS k (merchant_id, currency, status)
+                LEFT JOIN (SELECT merchant_id, currency, status, count(*) AS cnt, sum(amount) AS amt
+                           FROM %s WHERE (merchant_id, currency, status) IN (%s)
+                           GROUP BY merchant_id, currency, status) a
+                  ON a.merchant_id = k.merchant_id AND a.currency = k.currency AND a.status = k.status
+                WHERE b.merchant_id = k.merchant_id AND b.currency = k.currency AND b.status = k.status
+                """.formatted(in, payouts, in), concat(args, args));
+    }
+
+    private static Object[] concat(Object[] a, Object[] b) {
+        Object[] out = new Object[a.length + b.length];
+        System.arraycopy(a, 0, out, 0, a.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        return out;
+    }
+
+    private static Balance balance(ResultSet rs) throws SQLException {
+        return new Balance(
+                new Key(rs.getObject(1, UUID.class), rs.getString(2), MerchantPayout.Status.valueOf(rs.getString(3))),
+                rs.getLong(4),
+                rs.getBigDecimal(5));
+    }
+}
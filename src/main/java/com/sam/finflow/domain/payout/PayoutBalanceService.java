@@ -0,0 +1,60 @@
+package com.sam.finflow.domain.payout;
+
+import com.sam.finflow.domain.payout.PayoutBalanceRepository.Balance;
+import com.sam.finflow.domain.payout.PayoutBalanceRepository.Key;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Per-merchant totals by (currency, status), maintained incrementally: every payout change moves its amount
+ * from the previous status's row to the new one inside the transaction that made the change,
+ * so the projection commits (or rolls back) together with merchant_payouts.
+ */
+@Service
+public class PayoutBalanceService {
+
+    private final PayoutBalanceRepository balances;
+
+    public PayoutBalanceService(PayoutBalanceRepository balances) {
+        this.balances = balances;
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void on(PayoutChangedEvent event) {
+        // Net the whole event first (a bulk settle of 1000 payouts is 2 rows, not 2000 updates),
+        // sorted so concurrent writers lock balance rows in the same order
+        Map<Key, Balance> deltas = new TreeMap<>(PayoutBalanceRepository.LOCK_ORDER);
+        for (PayoutChange c : event.changes()) {
+            if (c.previousStatus() == c.status()) continue;
+            add(deltas, new Key(c.merchantId(), c.currency(), c.status()), 1, c.amount());
+            if (!c.isCreation()) {
+                add(deltas, new Key(c.merchantId(), c.currency(), c.previousStatus()), -1, c.amount().negate());
+            }
+        }
+        List<Balance> nonZero = new ArrayList<>(deltas.size());
+        for (Balance d : deltas.values()) {
+            if (!d.isZero()) nonZero.add(d);
+        }
+        if (!nonZero.isEmpty()) balances.addAll(nonZero);
+    }
+
+    private static void add(Map<Key, Balance> deltas, Key key, long count, BigDecimal amount) {
+        deltas.merge(key, new Balance(key, count, amount), (a, b) -> a.plus(b.count(), b.amount()));
+    }
+
+    //Reads the projection only: a handful of rows per merchant, however many payouts it has
+    @Transactional(readOnly = true)
+    public List<Balance> summaryForMerchant(UUID merchantId) {
+        return balances.findByMerchant(merchantId);
+    }
+}
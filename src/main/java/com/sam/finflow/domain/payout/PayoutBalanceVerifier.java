@@ -0,0 +1,102 @@
+package com.sam.finflow.domain.payout;
+
+import com.sam.finflow.domain.payout.PayoutBalanceRepository.Key;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Checks merchant_payout_balances against a fresh aggregate of merchant_payouts and optionally repairs it.
+ * Also the way to (re)build the projection for rows that predate it: every missing key shows up as drift.
+ *
+ * merchant_payouts is split into similar-sized merchant_id ranges (boundaries from a table sample) that are
+ * compared in parallel, each in its own read; drifted keys are then recomputed under row locks,
+ * a few hundred per transaction.
+ */
+@Component
+public class PayoutBalanceVerifier {
+
+    private static final Logger log = LoggerFactory.getLogger(PayoutBalanceVerifier.class);
+    private static final int REPAIR_BATCH = 500;
+
+    /** Outcome of one run. drifted is the number of (merchant, currency, status) rows that were off. */
+    public record Report(int chunks, int drifted, int repaired) {}
+
+    private final PayoutBalanceRepository balances;
+    private final TransactionTemplate tx;
+    private final int chunks;
+    private final int parallelism;
+    private final boolean repairOnSchedule;
+
+    public PayoutBalanceVerifier(PayoutBalanceRepository balances,
+                                 TransactionTemplate tx,
+                                 @Value("${finflow.payouts.balances.verify.chunks:16}") int chunks,
+                                 @Value("${finflow.payouts.balances.verify.parallelism:4}") int parallelism,
+                                 @Value("${finflow.payouts.balances.verify.repair:true}") boolean repairOnSchedule) {
+        this.balances = balances;
+        this.tx = tx;
+        this.chunks = Math.max(1, Math.min(chunks, 256));
+        this.parallelism = Math.max(1, parallelism);
+        this.repairOnSchedule = repairOnSchedule;
+    }
+
+    @Scheduled(cron = "${finflow.payouts.balances.verify.cron:-}")
+    public void scheduled() {
+        Report r = run(repairOnSchedule);
+        if (r.drifted() > 0) log.warn("payout balance projection drifted: {}", r);
+        else log.info("payout balance projection verified: {}", r);
+    }
+
+    public Report run(boolean repair) {
+        List<UUID> bounds = tx.execute(s -> balances.sampleMerchantBounds(chunks));
+        int n = bounds.size() + 1;
+        List<Future<Integer>> results = new ArrayList<>(n);
+        Semaphore slots = new Semaphore(parallelism); // bounds DB connections used by the job
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < n; i++) {
+                UUID from = i == 0 ? null : bounds.get(i - 1);
+                UUID to = i == n - 1 ? null : bounds.get(i);
+                results.add(workers.submit(() -> {
+                    slots.acquire();
+                    try {
+                        return verifyChunk(from, to, repair);
+                    } finally {
+                        slots.release();
+                    }
+                }));
+            }
+            int drifted = 0;
+            for (Future<Integer> f : results) drifted += f.get();
+            return new Report(n, drifted, repair ? drifted : 0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("balance verification interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("balance verification failed", e.getCause());
+        }
+    }
+
+    private int verifyChunk(UUID from, UUID to, boolean repair) {
+        List<Key> drift = tx.execute(s -> balances.findDrift(from, to));
+        if (drift == null || drift.isEmpty() || !repair) return drift == null ? 0 : drift.size();
+        List<Key> sorted = new ArrayList<>(drift);
+        sorted.sort(PayoutBalanceRepository.LOCK_ORDER);
+        for (int i = 0; i < sorted.size(); i += REPAIR_BATCH) {
+            List<Key> batch = sorted.subList(i, Math.min(sorted.size(), i + REPAIR_BATCH));
+            tx.executeWithoutResult(s -> balances.recompute(batch));
+        }
+        return drift.size();
+    }
+}
@@ -0,0 +1,41 @@
+package com.sam.finflow.domain.payout;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Committed-state snapshot of a payout right after it was created (previousStatus == null)
+ * or moved to a new status. Carries the full row so listeners never have to reload it.
+ */
+public record PayoutChange(
+        UUID id,
+        UUID merchantId,
+        UUID merchantSettlementAccountId,
+        String captureId,
+        BigDecimal amount,
+        String currency,
+        MerchantPayout.Status previousStatus,
+        MerchantPayout.Status status,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt,
+        long version
+) {
+    public static PayoutChange of(MerchantPayout p, MerchantPayout.Status previousStatus) {
+        return new PayoutChange(
+                p.getId(),
+                p.getMerchantId(),
+                p.getMerchantSettlementAccountId(),
+                p.getCaptureId(),
+                p.getAmount(),
+                p.getCurrency(),
+                previousStatus,
+                p.getStatus(),
+                p.getCreatedAt(),
+                p.getUpdatedAt(),
+                p.getVersion()
+        );
+    }
+
+    public boolean isCreation() { return previousStatus == null; }
+}
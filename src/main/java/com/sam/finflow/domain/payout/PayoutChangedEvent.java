@@ -0,0 +1,15 @@
+package com.sam.finflow.domain.payout;
+
+import java.util.List;
+
+/**
+ * Published by {@link MerchantPayoutService} inside the writing transaction, one event per service call
+ * (bulk paths publish many changes at once). Plain @EventListeners run in that transaction;
+ * use @TransactionalEventListener(AFTER_COMMIT) for anything that must only see committed state.
+ */
+public record PayoutChangedEvent(List<PayoutChange> changes) {
+
+    public static PayoutChangedEvent of(PayoutChange change) {
+        return new PayoutChangedEvent(List.of(change));
+    }
+}
@@ -0,0 +1,93 @@
+package com.sam.finflow.domain.payout;
+
+import com.sam.finflow.integration.BankConnector;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Moves PENDING payouts through the bank connector: claim a batch (PENDING -> PROCESSING, committed),
+ * then send each one on its own virtual thread and record SETTLED/FAILED.
+ * Safe to run on every node: claiming uses FOR UPDATE SKIP LOCKED.
+ *
+ * A payout whose send outcome is unknown (connector threw, node died mid-call) stays PROCESSING
+ * for reconciliation instead of being re-sent.
+ */
+@Component
+@ConditionalOnProperty(name = "finflow.dispatcher.enabled", havingValue = "true")
+public class PayoutDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(PayoutDispatcher.class);
+
+    private final MerchantPayoutService payouts;
+    private final BankConnector connector;
+    private final int batchSize;
+    private final Semaphore inFlight; // bounds connector calls per node
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+
+    public PayoutDispatcher(MerchantPayoutService payouts,
+                            BankConnector connector,
+                            @Value("${finflow.dispatcher.batch-size:100}") int batchSize,
+                            @Value("${finflow.dispatcher.max-in-flight:1000}") int maxInFlight) {
+        this.payouts = payouts;
+        this.connector = connector;
+        this.batchSize = batchSize;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    @Scheduled(fixedDelayString = "${finflow.dispatcher.poll-interval-ms:500}")
+    public void poll() {
+        // Keep claiming while batches come back full and we have capacity
+        while (true) {
+            int want = Math.min(batchSize, inFlight.availablePermits());
+            if (want == 0 || !inFlight.tryAcquire(want)) return;
+
+            List<MerchantPayout> claimed;
+            try {
+                claimed = payouts.claimPending(want);
+            } catch (RuntimeException e) {
+                inFlight.release(want);
+                log.warn("payout claim failed", e);
+                return;
+            }
+            inFlight.release(want - claimed.size());
+
+            for (MerchantPayout p : claimed) {
+                workers.execute(() -> dispatch(p));
+            }
+            if (claimed.size() < want) return;
+        }
+    }
+
+    private void dispatch(MerchantPayout p) {
+        try {
+            BankConnector.Outcome outcome = connector.send(p);
+            if (outcome == BankConnector.Outcome.SETTLED) {
+                payouts.markSettled(p.getId());
+            } else {
+                payouts.markFailed(p.getId());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("payout {} left PROCESSING: dispatcher interrupted", p.getId());
+        } catch (Exception e) {
+            log.error("payout {} left PROCESSING: outcome unknown", p.getId(), e);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.close(); // waits for in-flight sends to finish recording their outcome
+    }
+}
@@ -0,0 +1,15 @@
+package com.sam.finflow.domain.payout;
+
+import org.springframework.lang.Nullable;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Optional filters for merchant payout listings. createdFrom is inclusive, createdTo exclusive.
+ */
+public record PayoutListFilter(@Nullable MerchantPayout.Status status,
+                               @Nullable OffsetDateTime createdFrom,
+                               @Nullable OffsetDateTime createdTo) {
+
+    public static final PayoutListFilter NONE = new PayoutListFilter(null, null, null);
+}
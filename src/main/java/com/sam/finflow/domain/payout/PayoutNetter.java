@@ -0,0 +1,87 @@
+package com.sam.finflow.domain.payout;
+
+import com.sam.finflow.integration.BankConnector;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * The dispatcher for netted payouts: forms due batches (committed, members PROCESSING), then sends each batch
+ * as one transfer on its own virtual thread and records SETTLED/FAILED for the batch and its members together.
+ * Takes PENDING payouts itself, so it replaces {@link PayoutDispatcher}: startup fails if both are enabled.
+ *
+ * A batch whose send outcome is unknown stays PROCESSING for reconciliation instead of being re-sent.
+ */
+@Component
+@ConditionalOnProperty(name = "finflow.netting.enabled", havingValue = "true")
+public class PayoutNetter {
+
+    private static final Logger log = LoggerFactory.getLogger(PayoutNetter.class);
+
+    private final PayoutNettingService netting;
+    private final BankConnector connector;
+    private final Semaphore inFlight; // bounds batch transfers per node
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+
+    public PayoutNetter(PayoutNettingService netting,
+                        BankConnector connector,
+                        @Value("${finflow.netting.max-in-flight:100}") int maxInFlight,
+                        @Value("${finflow.dispatcher.enabled:false}") boolean dispatcherEnabled) {
+        // Both would take the same PENDING payouts: some sent on their own and again inside a batch
+        if (dispatcherEnabled) {
+            throw new IllegalStateException("finflow.netting.enabled and finflow.dispatcher.enabled are both true; turn one off");
+        }
+        this.netting = netting;
+        this.connector = connector;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    @Scheduled(fixedDelayString = "${finflow.netting.poll-interval-ms:1000}")
+    public void poll() {
+        int want = inFlight.availablePermits();
+        if (want == 0 || !inFlight.tryAcquire(want)) return;
+
+        List<DisbursementBatch> formed;
+        try {
+            formed = netting.formBatches(want);
+        } catch (RuntimeException e) {
+            inFlight.release(want);
+            log.warn("netting run failed", e);
+            return;
+        }
+        inFlight.release(want - formed.size());
+
+        for (DisbursementBatch b : formed) {
+            workers.execute(() -> dispatch(b));
+        }
+    }
+
+    private void dispatch(DisbursementBatch b) {
+        try {
+            BankConnector.Outcome outcome = connector.send(b);
+            netting.finish(b.getId(), outcome == BankConnector.Outcome.SETTLED
+                    ? DisbursementBatch.Status.SETTLED : DisbursementBatch.Status.FAILED);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("batch {} ({} payouts) left PROCESSING: netter interrupted", b.getId(), b.getPayoutCount());
+        } catch (Exception e) {
+            log.error("batch {} ({} payouts) left PROCESSING: outcome unknown", b.getId(), b.getPayoutCount(), e);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.close(); // waits for in-flight sends to finish recording their outcome
+    }
+}
@@ -0,0 +1,137 @@
+package com.sam.finflow.domain.payout;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * JDBC side of netting: the streaming read of PENDING payouts, the lock on the ones a batch takes, and the
+ * set-based moves of batch members.
+ * Postgres-specific SQL; callers own the transaction.
+ */
+@Repository
+public class PayoutNettingRepository {
+
+    /** What grouping needs from a PENDING payout. */
+    public record Pending(UUID id, UUID merchantSettlementAccountId, String currency, BigDecimal amount,
+                          OffsetDateTime createdAt) {}
+
+    private static final String RETURNING = " RETURNING p.id, p.merchant_id, p.merchant_settlement_account_id,"
+            + " p.capture_id, p.amount, p.currency, p.status, p.created_at, p.updated_at, p.version";
+
+    private final JdbcTemplate jdbc;
+    private final JdbcTemplate streaming;
+
+    public PayoutNettingRepository(JdbcTemplate jdbc,
+                                   DataSource dataSource,
+                                   @Value("${finflow.netting.fetch-size:10000}") int fetchSize) {
+        this.jdbc = jdbc;
+        // Own template: Postgres only streams with a fetch size inside a transaction (autocommit off)
+        this.streaming = new JdbcTemplate(dataSource);
+        this.streaming.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Streams up to limit PENDING payouts, oldest first, to action as the cursor reads them. Takes no locks:
+     * most groups are not due yet, so only the members of a batch being formed are locked ({@link #lockPending}).
+     */
+    public void streamPending(int limit, Consumer<Pending> action) {
+        streaming.query("""
+                SELECT id, merchant_settlement_account_id, currency, amount, created_at FROM merchant_payouts
+                WHERE status = 'PENDING'
+                ORDER BY created_at
+                LIMIT ?
+                """, rs -> {
+            action.accept(pending(rs));
+        }, limit);
+    }
+
+    /**
+     * Locks those of ids that are still PENDING, oldest first, one SELECT per
+     * {@link MerchantPayoutBatchRepository#MAX_ROWS_PER_STATEMENT} ids. SKIP LOCKED leaves out rows another node
+     * is netting (or a transition holds) instead of waiting on them; the locks last until the caller's
+     * transaction ends.
+     */
+    public List<Pending> lockPending(List<UUID> ids) {
+        List<Pending> locked = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += MerchantPayoutBatchRepository.MAX_ROWS_PER_STATEMENT) {
+            List<UUID> chunk = ids.subList(from, Math.min(ids.size(), from + MerchantPayoutBatchRepository.MAX_ROWS_PER_STATEMENT));
+            StringBuilder sql = new StringBuilder(200 + chunk.size() * 20)
+                    .append("SELECT id, merchant_settlement_account_id, currency, amount, created_at FROM merchant_payouts")
+                    .append(" WHERE status = 'PENDING' AND id IN (");
+            for (int i = 0; i < chunk.size(); i++) sql.append(i == 0 ? "CAST(? AS uuid)" : ",CAST(? AS uuid)");
+            sql.append(") ORDER BY created_at FOR UPDATE SKIP LOCKED");
+            jdbc.query(sql.toString(), rs -> { locked.add(pending(rs)); }, chunk.toArray());
+        }
+        return locked;
+    }
+
+    /**
+     * Points ids at batchId and moves them PENDING -> PROCESSING, one UPDATE per
+     * {@link MerchantPayoutBatchRepository#MAX_ROWS_PER_STATEMENT} ids. Rows no longer PENDING are skipped.
+     */
+    public List<PayoutChange> assign(UUID batchId, List<UUID> ids) {
+        List<PayoutChange> moved = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += MerchantPayoutBatchRepository.MAX_ROWS_PER_STATEMENT) {
+            List<UUID> chunk = ids.subList(from, Math.min(ids.size(), from + MerchantPayoutBatchRepository.MAX_ROWS_PER_STATEMENT));
+            StringBuilder sql = new StringBuilder(160 + chunk.size() * 20)
+                    .append("UPDATE merchant_payouts p SET status = 'PROCESSING', batch_id = CAST(? AS uuid),")
+                    .append(" updated_at = now(), version = p.version + 1 WHERE p.status = 'PENDING' AND p.id IN (");
+            List<Object> args = new ArrayList<>(chunk.size() + 1);
+            args.add(batchId);
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "CAST(? AS uuid)" : ",CAST(? AS uuid)");
+                args.add(chunk.get(i));
+            }
+            sql.append(')').append(RETURNING);
+            jdbc.query(sql.toString(), rs -> { moved.add(change(rs, MerchantPayout.Status.PENDING)); }, args.toArray());
+        }
+        return moved;
+    }
+
+    /**
+     * Moves every PROCESSING member of batchId to target in a single UPDATE (through idx_payout_batch).
+     * Members already moved on their own (a single transition, reconciliation) are left as they are.
+     */
+    public List<PayoutChange> finish(UUID batchId, MerchantPayout.Status target) {
+        List<PayoutChange> moved = new ArrayList<>();
+        jdbc.query("UPDATE merchant_payouts p SET status = ?, updated_at = now(), version = p.version + 1"
+                        + " WHERE p.batch_id = CAST(? AS uuid) AND p.status = 'PROCESSING'" + RETURNING,
+                rs -> { moved.add(change(rs, MerchantPayout.Status.PROCESSING)); }, target.name(), batchId);
+        return moved;
+    }
+
+    private static Pending pending(ResultSet rs) throws SQLException {
+        return new Pending(
+                rs.getObject(1, UUID.class),
+                rs.getObject(2, UUID.class),
+                rs.getString(3),
+                rs.getBigDecimal(4),
+                rs.getObject(5, OffsetDateTime.class));
+    }
+
+    private static PayoutChange change(ResultSet rs, MerchantPayout.Status previous) throws SQLException {
+        return new PayoutChange(
+                rs.getObject(1, UUID.class),
+                rs.getObject(2, UUID.class),
+                rs.getObject(3, UUID.class),
+                rs.getString(4),
+                rs.getBigDecimal(5),
+                rs.getString(6),
+                previous,
+                MerchantPayout.Status.valueOf(rs.getString(7)),
+                rs.getObject(8, OffsetDateTime.class),
+                rs.getObject(9, OffsetDateTime.class),
+                rs.getLong(10));
+    }
+}
@@ -0,0 +1,104 @@
+package com.sam.finflow.domain.payout;
+
+import com.sam.finflow.domain.payout.PayoutNettingRepository.Pending;
+import com.sam.finflow.util.Money;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * Netting: PENDING payouts to the same settlement account and currency leave as one {@link DisbursementBatch}
+ * (one bank transfer for the total) instead of one transfer each, and follow the batch's outcome.
+ */
+@Service
+@Timed("finflow.service")
+public class PayoutNettingService {
+
+    private final PayoutNettingRepository repo;
+    private final DisbursementBatchRepository batches;
+    private final ApplicationEventPublisher events;
+    private final Duration window;
+    private final int maxSize;
+    private final int maxClaim;
+
+    private record GroupKey(UUID merchantSettlementAccountId, String currency) {}
+
+    public PayoutNettingService(PayoutNettingRepository repo,
+                                DisbursementBatchRepository batches,
+                                ApplicationEventPublisher events,
+                                @Value("${finflow.netting.window:PT10M}") Duration window,
+                                @Value("${finflow.netting.max-size:500}") int maxSize,
+                                @Value("${finflow.netting.max-claim:100000}") int maxClaim) {
+        this.repo = repo;
+        this.batches = batches;
+        this.events = events;
+        this.window = window;
+        this.maxSize = Math.max(1, maxSize);
+        this.maxClaim = Math.max(1, maxClaim);
+    }
+
+    /**
+     * Streams PENDING payouts without locking them, groups them in memory by settlement account and currency,
+     * and forms up to maxBatches batches: full ones (max-size payouts) right away, a partial one once its oldest
+     * payout has waited the window. Only a batch's members are locked (SKIP LOCKED, so nodes never net the same
+     * rows), and only those still PENDING join it. Members move to PROCESSING with batch_id set, in one UPDATE
+     * per 1000 ids; everything else stays PENDING, unlocked, for a later run.
+     */
+    @Transactional
+    public List<DisbursementBatch> formBatches(int maxBatches) {
+        OffsetDateTime dueBefore = OffsetDateTime.now().minus(window);
+        // Read order is oldest first, so every group's list is too
+        Map<GroupKey, List<Pending>> groups = new LinkedHashMap<>();
+        repo.streamPending(maxClaim, p -> groups
+                .computeIfAbsent(new GroupKey(p.merchantSettlementAccountId(), p.currency()), k -> new ArrayList<>())
+                .add(p));
+
+        List<DisbursementBatch> formed = new ArrayList<>();
+        List<PayoutChange> changes = new ArrayList<>();
+        for (var g : groups.entrySet()) {
+            List<Pending> members = g.getValue();
+            for (int from = 0; from < members.size() && formed.size() < maxBatches; from += maxSize) {
+                List<Pending> slice = members.subList(from, Math.min(members.size(), from + maxSize));
+                if (slice.size() < maxSize && slice.get(0).createdAt().isAfter(dueBefore)) break; // not due yet
+                List<Pending> locked = repo.lockPending(slice.stream().map(Pending::id).toList());
+                if (!locked.isEmpty()) formed.add(form(g.getKey(), locked, changes));
+            }
+        }
+        if (!changes.isEmpty()) events.publishEvent(new PayoutChangedEvent(changes));
+        return formed;
+    }
+
+    /**
+     * Moves the batch to SETTLED or FAILED and its PROCESSING members with it, in one set-based UPDATE.
+     * Repeating the batch's current outcome is a no-op; settling a FAILED batch (or the reverse) is refused.
+     */
+    @Transactional
+    public DisbursementBatch finish(UUID batchId, DisbursementBatch.Status outcome) {
+        DisbursementBatch batch = batches.findById(batchId)
+                .orElseThrow(() -> new NoSuchElementException("disbursement batch not found: " + batchId));
+        DisbursementBatch.Status before = batch.getStatus();
+        batch.finish(outcome);
+        if (batch.getStatus() == before) return batch;
+        batches.flush(); // version check before touching the members
+        List<PayoutChange> moved = repo.finish(batchId, MerchantPayout.Status.valueOf(outcome.name()));
+        if (!moved.isEmpty()) events.publishEvent(new PayoutChangedEvent(moved));
+        return batch;
+    }
+
+    @Transactional(readOnly = true)
+    public DisbursementBatch getOrThrow(UUID batchId) {
+        return batches.findById(batchId)
+                .orElseThrow(() -> new NoSuchElementException("disbursement batch not found: " + batchId));
+    }
+}
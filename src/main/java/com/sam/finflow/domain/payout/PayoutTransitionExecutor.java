@@ -0,0 +1,97 @@
+package com.sam.finflow.domain.payout;
+
+import com.sam.finflow.metrics.PayoutTransitionMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Runs single-payout transitions in their own transaction, one at a time per payout on this node, and retries
+ * the ones that lose an optimistic-lock race to another node (or to a bulk UPDATE).
+ *
+ * Same-node callers queue on a striped lock (payout id -> one of stripes locks) before they touch the row,
+ * so a webhook and the dispatcher hitting the same payout no longer both load, change and flush it only for
+ * one to fail on the version check. A version conflict that still happens is retried from a fresh
+ * transaction after a jittered backoff (full jitter, capped), with the stripe released while sleeping.
+ * After max-attempts the conflict is rethrown for the caller to report as 409.
+ */
+@Component
+public class PayoutTransitionExecutor {
+
+    private final TransactionTemplate tx;
+    private final PayoutTransitionMetrics metrics;
+    private final ReentrantLock[] stripes;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+
+    public PayoutTransitionExecutor(TransactionTemplate tx,
+                                    PayoutTransitionMetrics metrics,
+                                    @Value("${finflow.payouts.transitions.stripes:1024}") int stripes,
+                                    @Value("${finflow.payouts.transitions.max-attempts:5}") int maxAttempts,
+                                    @Value("${finflow.payouts.transitions.backoff-ms:10}") long backoffMillis,
+                                    @Value("${finflow.payouts.transitions.max-backoff-ms:200}") long maxBackoffMillis) {
+        this.tx = tx;
+        this.metrics = metrics;
+        // Power of two so the stripe is a mask, not a modulo
+        int n = Integer.highestOneBit(Math.max(1, Math.min(stripes, 1 << 16)) * 2 - 1);
+        this.stripes = new ReentrantLock[n];
+        for (int i = 0; i < n; i++) this.stripes[i] = new ReentrantLock();
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = Math.max(1, backoffMillis);
+        this.maxBackoffMillis = Math.max(this.backoffMillis, maxBackoffMillis);
+    }
+
+    /**
+     * Runs work for payoutId in a new transaction, serialized per payout and retried on version conflicts.
+     * Inside a caller's transaction it just runs there: a retry could not start over from a clean state.
+     */
+    public <T> T execute(UUID payoutId, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) return work.get();
+
+        ReentrantLock lock = stripes[spread(payoutId.hashCode()) & (stripes.length - 1)];
+        for (int attempt = 1; ; attempt++) {
+            lock(lock);
+            try {
+                return tx.execute(s -> work.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    metrics.conflictGaveUp();
+                    throw e;
+                }
+                metrics.conflictRetried();
+            } finally {
+                lock.unlock();
+            }
+            sleep(ThreadLocalRandom.current().nextLong(Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt, 20)) + 1));
+        }
+    }
+
+    private void lock(ReentrantLock lock) {
+        if (lock.tryLock()) return;
+        long start = System.nanoTime();
+        lock.lock();
+        metrics.lockWaited(System.nanoTime() - start);
+    }
+
+    // Same bit mixing as HashMap, so the mask also sees the upper bits of the hash
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while retrying a payout transition", e);
+        }
+    }
+}
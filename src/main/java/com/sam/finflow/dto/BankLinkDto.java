@@ -4,6 +4,7 @@ import com.sam.finflow.domain.banklink.BankLink;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
+import java.util.List;
 import java.util.UUID;
 
 public final class BankLinkDto {
@@ -39,4 +40,10 @@ public final class BankLinkDto {
             );
         }
     }
+
+    // --- One keyset page; nextCursor is null on the last page ---
+    public record BankLinkPage(
+            List<BankLinkResponse> items,
+            String nextCursor
+    ) {}
 }
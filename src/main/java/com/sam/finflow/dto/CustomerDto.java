@@ -33,4 +33,13 @@ public final class CustomerDto {
             );
         }
     }
+
+    // --- One line of the NDJSON import report: outcome is CREATED, DUPLICATE or REJECTED ---
+    public record ImportItemResult(
+            long index,
+            UUID id,
+            String email,
+            String outcome,
+            String error
+    ) {}
 }
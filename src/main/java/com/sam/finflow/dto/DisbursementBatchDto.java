@@ -0,0 +1,36 @@
+package com.sam.finflow.dto;
+
+import com.sam.finflow.domain.payout.DisbursementBatch;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+public final class DisbursementBatchDto {
+    private DisbursementBatchDto() {}
+
+    // --- Response DTO ---
+    public record Response(
+            UUID id,
+            UUID merchantSettlementAccountId,
+            BigDecimal totalAmount,
+            String currency,
+            int payoutCount,
+            String status,
+            OffsetDateTime createdAt,
+            OffsetDateTime updatedAt
+    ) {
+        public static Response from(DisbursementBatch b) {
+            return new Response(
+                    b.getId(),
+                    b.getMerchantSettlementAccountId(),
+                    b.getTotalAmount(),
+                    b.getCurrency(),
+                    b.getPayoutCount(),
+                    b.getStatus().name(),
+                    b.getCreatedAt(),
+                    b.getUpdatedAt()
+            );
+        }
+    }
+}
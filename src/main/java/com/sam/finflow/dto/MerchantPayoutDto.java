@@ -1,10 +1,12 @@
 package com.sam.finflow.dto; // <-- adjust package if needed (e.g. com.sam.finflow.controller.dto)
 
 import com.sam.finflow.domain.payout.MerchantPayout;
+import com.sam.finflow.domain.payout.PayoutChange;
 import jakarta.validation.constraints.*;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -63,5 +65,101 @@ public final class MerchantPayoutDto {
                     p.getVersion()
             );
         }
+
+        /**
+         * Maps a committed change snapshot (same fields as the row) to a response DTO.
+         */
+        public static Response from(PayoutChange c) {
+            return new Response(
+                    c.id(),
+                    c.merchantId(),
+                    c.merchantSettlementAccountId(),
+                    c.captureId(),
+                    c.amount(),
+                    c.currency(),
+                    c.status().name(),
+                    c.createdAt() != null ? c.createdAt().toString() : null,
+                    c.updatedAt() != null ? c.updatedAt().toString() : null,
+                    c.version()
+            );
+        }
     }
+
+    /**
+     * Per-item outcome of a batch create. index is the item's position in the request
+     * (line number - 1 for NDJSON). outcome is CREATED, EXISTING or REJECTED.
+     */
+    public record BatchItemResult(
+            int index,
+            UUID id,
+            String captureId,
+            String outcome,
+            String error
+    ) {}
+
+    /**
+     * Response DTO for a JSON-array batch create.
+     */
+    public record BatchResponse(
+            int created,
+            int existing,
+            int rejected,
+            List<BatchItemResult> items
+    ) {}
+
+    /**
+     * One page of a keyset-paginated listing. nextCursor is null on the last page.
+     */
+    public record Page(
+            List<Response> items,
+            String nextCursor
+    ) {}
+
+    /**
+     * Request DTO for a bulk transition: move every id to status (PROCESSING, SETTLED or FAILED).
+     */
+    public record TransitionRequest(
+            @NotEmpty List<@NotNull UUID> ids,
+            @NotNull MerchantPayout.Status status
+    ) {}
+
+    /**
+     * Per-id outcome of a bulk transition: APPLIED, NO_OP, ILLEGAL_TRANSITION, IN_OPEN_BATCH (counted as illegal;
+     * the payout moves with its disbursement batch only) or NOT_FOUND.
+     * status is the payout's status after the call (null when NOT_FOUND).
+     */
+    public record TransitionItemResult(
+            UUID id,
+            String outcome,
+            String status
+    ) {}
+
+    /**
+     * Response DTO for a bulk transition, items in request order.
+     */
+    public record TransitionResponse(
+            int applied,
+            int noOp,
+            int illegal,
+            int notFound,
+            List<TransitionItemResult> items
+    ) {}
+
+    /**
+     * One line of a merchant's balance summary: number and total of its payouts in one currency and status.
+     */
+    public record SummaryLine(
+            String currency,
+            String status,
+            long count,
+            BigDecimal amount
+    ) {}
+
+    /**
+     * Response DTO for a merchant's balance summary, from the incrementally maintained projection.
+     */
+    public record Summary(
+            UUID merchantId,
+            List<SummaryLine> totals
+    ) {}
 }
@@ -0,0 +1,17 @@
+package com.sam.finflow.dto;
+
+public final class ReconciliationDto {
+
+    private ReconciliationDto() {} // prevent instantiation
+
+    // --- Response DTO: totals of one run; report is the name to GET the mismatch CSV with ---
+    public record RunResponse(
+            long lines,
+            int indexed,
+            long settled,
+            long failed,
+            long mismatches,
+            String report,
+            long elapsedMs
+    ) {}
+}
@@ -0,0 +1,19 @@
+package com.sam.finflow.dto;
+
+import java.time.LocalDate;
+
+public final class SettlementDto {
+
+    private SettlementDto() {} // prevent instantiation
+
+    // --- Response DTO: what an export run produced; rows/groups are -1 if the file already existed ---
+    public record ExportResponse(
+            LocalDate day,
+            String format,
+            String file,
+            long rows,
+            long groups,
+            long bytes,
+            boolean resumed
+    ) {}
+}
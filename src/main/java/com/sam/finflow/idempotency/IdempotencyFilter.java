@@ -0,0 +1,257 @@
+package com.sam.finflow.idempotency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Idempotency-Key support for the create endpoints (POST /customers, /bank-links, /merchant-payouts).
+ *
+ * The first request with a key runs and its status + body are stored (except 5xx and 429, which stay retryable,
+ * and errors sent through sendError, whose body is only rendered after this filter).
+ * Retries get the stored response back without reaching the controller or the database.
+ * Concurrent requests with the same key collapse: on this node they wait on the running one's future;
+ * across nodes the store lock admits one and the others poll for its result.
+ * Reusing a key with a different body is a client bug and gets 422.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyFilter.class);
+    private static final Set<String> PATHS = Set.of("/customers", "/bank-links", "/merchant-payouts");
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_MILLIS = 50;
+
+    private final IdempotencyStore store;
+    private final Duration ttl;
+    private final Duration lockTtl;
+    private final Duration waitTimeout;
+
+    // key -> response of the request currently executing it on this node (null = nothing stored)
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyFilter(IdempotencyStore store,
+                             @Value("${finflow.idempotency.ttl:PT24H}") Duration ttl,
+                             @Value("${finflow.idempotency.lock-ttl:PT30S}") Duration lockTtl,
+                             @Value("${finflow.idempotency.wait-timeout:PT10S}") Duration waitTimeout) {
+        this.store = store;
+        this.ttl = ttl;
+        this.lockTtl = lockTtl;
+        this.waitTimeout = waitTimeout;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(HEADER) == null
+                || !PATHS.contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        byte[] body = request.getInputStream().readAllBytes();
+        CachedBodyRequest replayable = new CachedBodyRequest(request, body);
+        String fingerprint = sha256(body);
+        String scoped = request.getServletPath() + ":" + key; // same key on another endpoint is another request
+
+        while (true) {
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(scoped, mine);
+            if (running != null) {
+                StoredResponse done = await(running);
+                if (done != null) {
+                    replay(done, fingerprint, response);
+                    return;
+                }
+                if (!running.isDone()) { // waited the full timeout
+                    response.sendError(HttpStatus.CONFLICT.value(), "a request with this " + HEADER + " is still in progress");
+                    return;
+                }
+                continue; // it stored nothing (5xx / 429 / exception): take over and execute
+            }
+            StoredResponse result = null;
+            try {
+                result = execute(scoped, fingerprint, replayable, response, chain);
+            } finally {
+                inFlight.remove(scoped, mine);
+                mine.complete(result);
+            }
+            return;
+        }
+    }
+
+    // This node's leader for the key: replay, wait for another node, or run the request and store its response
+    @Nullable
+    private StoredResponse execute(String key, String fingerprint, HttpServletRequest request,
+                                   HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        String token;
+        try {
+            StoredResponse stored = store.find(key);
+            if (stored != null) {
+                replay(stored, fingerprint, response);
+                return stored;
+            }
+            token = store.tryLock(key, lockTtl);
+        } catch (RuntimeException e) {
+            // Store down: run without replay rather than fail the request; creates are still idempotent in the DB
+            log.warn("Idempotency store unavailable, executing {} without replay: {}", key, e.toString());
+            chain.doFilter(request, response);
+            return null;
+        }
+
+        if (token == null) { // another node is executing this key
+            StoredResponse stored = pollOtherNode(key);
+            if (stored == null) {
+                response.sendError(HttpStatus.CONFLICT.value(), "a request with this " + HEADER + " is still in progress");
+                return null;
+            }
+            replay(stored, fingerprint, response);
+            return stored;
+        }
+
+        try {
+            StoredResponse stored = store.find(key); // it may have completed between find and tryLock
+            if (stored != null) {
+                replay(stored, fingerprint, response);
+                return stored;
+            }
+
+            CapturingResponse capture = new CapturingResponse(response);
+            chain.doFilter(request, capture);
+            // A rate-limited request never ran: its retry must execute, not replay the 429.
+            // sendError (ResponseStatusException, validation) renders its body later in the /error dispatch, after
+            // this filter: storing now would replay an empty body without a content type, so the retry runs again
+            if (capture.getStatus() >= 500 || capture.getStatus() == HttpStatus.TOO_MANY_REQUESTS.value()
+                    || capture.errorSent || capture.getContentSize() == 0) {
+                capture.copyBodyToResponse();
+                return null;
+            }
+            StoredResponse result = new StoredResponse(fingerprint, capture.getStatus(), capture.getContentType(),
+                    capture.getHeader(HttpHeaders.LOCATION), capture.getContentAsByteArray());
+            try {
+                store.complete(key, token, result, ttl);
+                token = null;
+            } catch (RuntimeException e) {
+                log.warn("Could not store idempotent response for {}: {}", key, e.toString());
+            }
+            capture.copyBodyToResponse();
+            return result;
+        } finally {
+            if (token != null) unlockQuietly(key, token);
+        }
+    }
+
+    @Nullable
+    private StoredResponse await(CompletableFuture<StoredResponse> running) throws ServletException {
+        try {
+            return running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("interrupted waiting for idempotent request", e);
+        } catch (ExecutionException e) {
+            return null; // never completed exceptionally, but treat like "nothing stored"
+        }
+    }
+
+    // Until the other node stores a response or its lock goes away (it failed; the client may retry)
+    @Nullable
+    private StoredResponse pollOtherNode(String key) throws ServletException {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        try {
+            while (System.nanoTime() - deadline < 0) {
+                Thread.sleep(POLL_MILLIS);
+                StoredResponse stored = store.find(key);
+                if (stored != null) return stored;
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("interrupted waiting for idempotent request", e);
+        }
+    }
+
+    private void replay(StoredResponse stored, String fingerprint, HttpServletResponse response) throws IOException {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                    HEADER + " was already used with a different request body");
+            return;
+        }
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) response.setContentType(stored.contentType());
+        if (stored.location() != null) response.setHeader(HttpHeaders.LOCATION, stored.location());
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    // Remembers whether the response went out through sendError
+    private static final class CapturingResponse extends ContentCachingResponseWrapper {
+        boolean errorSent;
+
+        CapturingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            errorSent = true;
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            errorSent = true;
+            super.sendError(sc, msg);
+        }
+    }
+
+    private void unlockQuietly(String key, String token) {
+        try {
+            store.unlock(key, token);
+        } catch (RuntimeException e) {
+            log.warn("Could not release idempotency lock for {} (expires on its own): {}", key, e.toString());
+        }
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.sam.finflow.idempotency;
+
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+
+/**
+ * Completed responses by idempotency key, plus a short-lived execution lock so that only one node
+ * runs a given key at a time. Lock tokens make unlock/complete safe against a lock that expired and was taken over.
+ */
+public interface IdempotencyStore {
+
+    @Nullable
+    StoredResponse find(String key);
+
+    /** @return a token if this caller now owns the key, null if someone else is executing it. */
+    @Nullable
+    String tryLock(String key, Duration lockTtl);
+
+    /** Stores the response for ttl and releases the lock held with token. */
+    void complete(String key, String token, StoredResponse response, Duration ttl);
+
+    /** Releases the lock without storing anything (5xx, exception): the next retry executes again. */
+    void unlock(String key, String token);
+}
@@ -0,0 +1,62 @@
+package com.sam.finflow.idempotency;
+
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Redis-free stand-in (finflow.idempotency.store=memory) for local runs and tests. Single node only.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private static final int SWEEP_EVERY = 1024;
+
+    private record Expiring<T>(T value, long expiresAtNanos) {
+        boolean expired(long now) { return now - expiresAtNanos >= 0; }
+    }
+
+    private final Map<String, Expiring<StoredResponse>> responses = new ConcurrentHashMap<>();
+    private final Map<String, Expiring<String>> locks = new ConcurrentHashMap<>();
+    private final AtomicInteger writes = new AtomicInteger();
+
+    @Override
+    @Nullable
+    public StoredResponse find(String key) {
+        Expiring<StoredResponse> e = responses.get(key);
+        if (e == null) return null;
+        if (e.expired(System.nanoTime())) {
+            responses.remove(key, e);
+            return null;
+        }
+        return e.value();
+    }
+
+    @Override
+    @Nullable
+    public String tryLock(String key, Duration lockTtl) {
+        String token = UUID.randomUUID().toString();
+        long now = System.nanoTime();
+        Expiring<String> mine = new Expiring<>(token, now + lockTtl.toNanos());
+        Expiring<String> held = locks.compute(key, (k, cur) -> cur == null || cur.expired(now) ? mine : cur);
+        return held == mine ? token : null;
+    }
+
+    @Override
+    public void complete(String key, String token, StoredResponse response, Duration ttl) {
+        responses.put(key, new Expiring<>(response, System.nanoTime() + ttl.toNanos()));
+        unlock(key, token);
+        if (writes.incrementAndGet() % SWEEP_EVERY == 0) {
+            long now = System.nanoTime();
+            responses.values().removeIf(e -> e.expired(now));
+        }
+    }
+
+    @Override
+    public void unlock(String key, String token) {
+        locks.computeIfPresent(key, (k, cur) -> cur.value().equals(token) ? null : cur);
+    }
+}
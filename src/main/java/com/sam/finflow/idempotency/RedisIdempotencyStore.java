@@ -0,0 +1,73 @@
+package com.sam.finflow.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Responses as JSON strings under finflow:idem:{key}, the execution lock as SET NX PX under finflow:idem:{key}:lock.
+ * Both keys share a hash tag so complete() stays a single-slot script on Redis Cluster.
+ */
+public class RedisIdempotencyStore implements IdempotencyStore {
+
+    // KEYS[1] lock, KEYS[2] response; ARGV[1] token, ARGV[2] response json ('' = unlock only), ARGV[3] ttl ms
+    private static final RedisScript<Long> COMPLETE = new DefaultRedisScript<>("""
+            if ARGV[2] ~= '' then redis.call('SET', KEYS[2], ARGV[2], 'PX', ARGV[3]) end
+            if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redis;
+    private final ObjectMapper json;
+
+    public RedisIdempotencyStore(StringRedisTemplate redis, ObjectMapper json) {
+        this.redis = redis;
+        this.json = json;
+    }
+
+    @Override
+    @Nullable
+    public StoredResponse find(String key) {
+        String raw = redis.opsForValue().get(responseKey(key));
+        if (raw == null) return null;
+        try {
+            return json.readValue(raw, StoredResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("unreadable idempotent response for key " + key, e);
+        }
+    }
+
+    @Override
+    @Nullable
+    public String tryLock(String key, Duration lockTtl) {
+        String token = UUID.randomUUID().toString();
+        Boolean ok = redis.opsForValue().setIfAbsent(lockKey(key), token, lockTtl);
+        return Boolean.TRUE.equals(ok) ? token : null;
+    }
+
+    @Override
+    public void complete(String key, String token, StoredResponse response, Duration ttl) {
+        String raw;
+        try {
+            raw = json.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("cannot serialize idempotent response for key " + key, e);
+        }
+        redis.execute(COMPLETE, List.of(lockKey(key), responseKey(key)), token, raw, Long.toString(ttl.toMillis()));
+    }
+
+    @Override
+    public void unlock(String key, String token) {
+        redis.execute(COMPLETE, List.of(lockKey(key), responseKey(key)), token, "", "0");
+    }
+
+    private static String responseKey(String key) { return "finflow:idem:{" + key + "}"; }
+    private static String lockKey(String key) { return "finflow:idem:{" + key + "}:lock"; }
+}
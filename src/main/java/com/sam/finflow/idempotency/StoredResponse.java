@@ -0,0 +1,15 @@
+package com.sam.finflow.idempotency;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * What a retry with the same Idempotency-Key gets back. fingerprint is the SHA-256 of the original request body,
+ * so a key reused for a different payload can be told apart from a genuine retry.
+ */
+public record StoredResponse(
+        String fingerprint,
+        int status,
+        @Nullable String contentType,
+        @Nullable String location,
+        byte[] body
+) {}
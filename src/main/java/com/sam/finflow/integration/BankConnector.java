@@ -0,0 +1,26 @@
+package com.sam.finflow.integration;
+
+import com.sam.finflow.domain.payout.DisbursementBatch;
+import com.sam.finflow.domain.payout.MerchantPayout;
+
+/**
+ * Sends one payout to the bank/ACH rail. Plug in a real implementation by declaring a BankConnector bean and
+ * setting finflow.bank.simulated.enabled=false; otherwise {@link SimulatedBankConnector} is used.
+ */
+public interface BankConnector {
+
+    enum Outcome { SETTLED, FAILED }
+
+    /**
+     * Blocking call, invoked on a virtual thread. Return the bank's final answer.
+     * Throw when the outcome is unknown (timeout, connection reset): the payout then stays PROCESSING
+     * so it is never sent twice.
+     */
+    Outcome send(MerchantPayout payout) throws Exception;
+
+    /**
+     * Same contract for a netted batch: one transfer of the batch total to its settlement account.
+     * The answer applies to every payout in the batch.
+     */
+    Outcome send(DisbursementBatch batch) throws Exception;
+}
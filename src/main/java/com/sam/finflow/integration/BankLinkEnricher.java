@@ -0,0 +1,42 @@
+package com.sam.finflow.integration;
+
+import com.sam.finflow.domain.banklink.BankLinkCreatedEvent;
+import com.sam.finflow.domain.banklink.BankLinkService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Fills institution name / last4 on new bank links from the provider, after the create has committed.
+ * The lookup is async, so POST /bank-links never waits on the provider; a failed lookup just leaves the
+ * fields empty (logged), the link itself is unaffected.
+ */
+public class BankLinkEnricher {
+
+    private static final Logger log = LoggerFactory.getLogger(BankLinkEnricher.class);
+
+    private final PlaidClient plaid;
+    private final BankLinkService links;
+
+    public BankLinkEnricher(PlaidClient plaid, BankLinkService links) {
+        this.plaid = plaid;
+        this.links = links;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCreated(BankLinkCreatedEvent e) {
+        if (!e.needsEnrichment()) return;
+        plaid.lookup(e.provider(), e.providerAccountId()).whenComplete((details, error) -> {
+            if (error != null) {
+                log.warn("Could not enrich bank link {}: {}", e.id(), error.getMessage());
+                return;
+            }
+            try {
+                links.enrich(e.id(), details.institutionName(), details.last4());
+            } catch (RuntimeException ex) {
+                log.warn("Could not save enrichment for bank link {}: {}", e.id(), ex.toString());
+            }
+        });
+    }
+}
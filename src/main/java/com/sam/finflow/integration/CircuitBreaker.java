@@ -0,0 +1,92 @@
+package com.sam.finflow.integration;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Opens after failureThreshold consecutive failures and rejects calls for openFor; then lets a single trial
+ * call through (half-open): success closes it, failure opens it again.
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openForNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    CircuitBreaker(int failureThreshold, Duration openFor) {
+        this.failureThreshold = failureThreshold;
+        this.openForNanos = openFor.toNanos();
+    }
+
+    /** @return true if the call may proceed; it must then report onSuccess or onFailure. */
+    boolean tryAcquire() {
+        lock.lock();
+        try {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (System.nanoTime() - openedAt < openForNanos) return false;
+                    state = State.HALF_OPEN;
+                    // fall through: this caller is the trial
+                case HALF_OPEN:
+                default:
+                    if (trialInFlight) return false;
+                    trialInFlight = true;
+                    return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void onSuccess() {
+        lock.lock();
+        try {
+            state = State.CLOSED;
+            failures = 0;
+            trialInFlight = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The acquired call never reached the provider (e.g. rate limited): count it as neither. */
+    void release() {
+        lock.lock();
+        try {
+            trialInFlight = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void onFailure() {
+        lock.lock();
+        try {
+            trialInFlight = false;
+            if (state == State.HALF_OPEN || ++failures >= failureThreshold) {
+                state = State.OPEN;
+                openedAt = System.nanoTime();
+                failures = 0;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    State state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -1,4 +1,187 @@
 package com.sam.finflow.integration;
 
-public class PlaidClient {
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Async account lookups against the bank data provider, used to fill in institution name and last4 after a
+ * link is created. Built on one shared java.net.http.HttpClient (pooled keep-alive / HTTP/2 connections)
+ * running on virtual threads.
+ *
+ * Every call goes through, in order:
+ * single-flight (identical lookups in flight share one request) -> circuit breaker (fail fast while the provider
+ * is down) -> per-provider token bucket (delay, or fail if the wait would exceed maxQueueWait) -> HTTP with
+ * connect and request timeouts. A 4xx answer fails the call but is not a breaker failure.
+ *
+ * Contract: GET {baseUrl}/accounts/{providerAccountId}, headers PLAID-CLIENT-ID / PLAID-SECRET,
+ * answers {"institution_name": "...", "mask": "1234"}.
+ */
+public class PlaidClient implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PlaidClient.class);
+
+    /** What enrichment needs; either field may be null if the provider does not know it. */
+    public record AccountDetails(String institutionName, String last4) {}
+
+    /** The provider said no, was unreachable, too slow, rate-limited or the breaker is open. */
+    public static class LookupException extends RuntimeException {
+        public LookupException(String message) { super(message); }
+        public LookupException(String message, Throwable cause) { super(message, cause); }
+    }
+
+    /** The provider answered 4xx (unknown account, bad credentials): it is up, so the breaker does not count it. */
+    public static class RejectedException extends LookupException {
+        public RejectedException(String message) { super(message); }
+    }
+
+    private final URI baseUrl;
+    private final String clientId;
+    private final String secret;
+    private final Duration requestTimeout;
+    private final long maxQueueWaitNanos;
+    private final double ratePerSecond;
+    private final int burst;
+    private final ObjectMapper json;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient http;
+    private final CircuitBreaker breaker;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<AccountDetails>> inFlight = new ConcurrentHashMap<>();
+
+    public PlaidClient(URI baseUrl,
+                       String clientId,
+                       String secret,
+                       Duration connectTimeout,
+                       Duration requestTimeout,
+                       double ratePerSecond,
+                       int burst,
+                       Duration maxQueueWait,
+                       int breakerFailureThreshold,
+                       Duration breakerOpenFor,
+                       ObjectMapper json) {
+        this.baseUrl = baseUrl;
+        this.clientId = clientId;
+        this.secret = secret;
+        this.requestTimeout = requestTimeout;
+        this.maxQueueWaitNanos = maxQueueWait.toNanos();
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.json = json;
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .executor(executor)
+                .version(HttpClient.Version.HTTP_2) // falls back to 1.1 keep-alive when the server has no h2
+                .build();
+        this.breaker = new CircuitBreaker(breakerFailureThreshold, breakerOpenFor);
+    }
+
+    /** Looks up one account; concurrent calls for the same (provider, account) share the result. */
+    public CompletableFuture<AccountDetails> lookup(String provider, String providerAccountId) {
+        String key = provider + ':' + providerAccountId;
+        CompletableFuture<AccountDetails> mine = new CompletableFuture<>();
+        CompletableFuture<AccountDetails> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) return running.thenApply(d -> d); // a view, so a caller's cancel cannot cancel the shared call
+
+        mine.whenComplete((d, e) -> inFlight.remove(key, mine));
+        try {
+            call(provider, providerAccountId).whenComplete((d, e) -> {
+                if (e != null) mine.completeExceptionally(unwrap(e));
+                else mine.complete(d);
+            });
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+        }
+        return mine.thenApply(d -> d);
+    }
+
+    private CompletableFuture<AccountDetails> call(String provider, String providerAccountId) {
+        if (!breaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(new LookupException("circuit open for " + provider));
+        }
+        long wait = buckets.computeIfAbsent(provider, p -> new TokenBucket(ratePerSecond, burst)).reserve(maxQueueWaitNanos);
+        if (wait < 0) {
+            breaker.release(); // not the provider's fault
+            return CompletableFuture.failedFuture(new LookupException("rate limit queue full for " + provider));
+        }
+        CompletableFuture<AccountDetails> result = wait == 0
+                ? send(providerAccountId)
+                : CompletableFuture.supplyAsync(() -> null, CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS, executor))
+                        .thenCompose(x -> send(providerAccountId));
+        return result.whenComplete((d, e) -> {
+            if (e == null || unwrap(e) instanceof RejectedException) breaker.onSuccess();
+            else breaker.onFailure();
+        });
+    }
+
+    private CompletableFuture<AccountDetails> send(String providerAccountId) {
+        HttpRequest request = HttpRequest.newBuilder(baseUrl.resolve("accounts/"
+                        + URLEncoder.encode(providerAccountId, StandardCharsets.UTF_8)))
+                .timeout(requestTimeout)
+                .header("Accept", "application/json")
+                .header("PLAID-CLIENT-ID", clientId)
+                .header("PLAID-SECRET", secret)
+                .GET()
+                .build();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .orTimeout(requestTimeout.toMillis() * 2, TimeUnit.MILLISECONDS) // backstop if the body trickles in
+                .thenApply(this::parse);
+    }
+
+    private AccountDetails parse(HttpResponse<byte[]> response) {
+        if (response.statusCode() >= 400 && response.statusCode() < 500) {
+            throw new RejectedException("provider answered " + response.statusCode() + " for " + response.uri());
+        }
+        if (response.statusCode() != 200) {
+            throw new LookupException("provider answered " + response.statusCode() + " for " + response.uri());
+        }
+        try {
+            JsonNode body = json.readTree(response.body());
+            String mask = text(body, "mask");
+            if (mask != null && !mask.matches("\\d{4}")) {
+                log.warn("ignoring malformed mask from provider for {}", response.uri());
+                mask = null;
+            }
+            return new AccountDetails(text(body, "institution_name"), mask);
+        } catch (IOException e) {
+            throw new LookupException("unreadable provider response", e);
+        }
+    }
+
+    private static String text(JsonNode body, String field) {
+        JsonNode n = body.get(field);
+        return n == null || n.isNull() ? null : n.asText();
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof LookupException) return cause;
+        if (cause instanceof TimeoutException || cause instanceof java.net.http.HttpTimeoutException) {
+            return new LookupException("provider timed out", cause);
+        }
+        return new LookupException("provider call failed: " + cause, cause);
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
 }
@@ -0,0 +1,36 @@
+package com.sam.finflow.integration;
+
+import com.sam.finflow.domain.payout.DisbursementBatch;
+import com.sam.finflow.domain.payout.MerchantPayout;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stand-in connector for local runs: waits a fixed latency and settles, failing a configurable share of payouts.
+ */
+public class SimulatedBankConnector implements BankConnector {
+
+    private final Duration latency;
+    private final double failureRate;
+
+    public SimulatedBankConnector(Duration latency, double failureRate) {
+        this.latency = latency;
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public Outcome send(MerchantPayout payout) throws InterruptedException {
+        return transfer();
+    }
+
+    @Override
+    public Outcome send(DisbursementBatch batch) throws InterruptedException {
+        return transfer(); // one transfer, however many payouts it carries
+    }
+
+    private Outcome transfer() throws InterruptedException {
+        if (!latency.isZero()) Thread.sleep(latency);
+        return ThreadLocalRandom.current().nextDouble() < failureRate ? Outcome.FAILED : Outcome.SETTLED;
+    }
+}
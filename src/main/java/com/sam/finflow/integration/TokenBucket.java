@@ -0,0 +1,43 @@
+package com.sam.finflow.integration;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Classic token bucket: ratePerSecond tokens refill continuously up to burst. Callers reserve a token and
+ * are told how long to wait for it, so async callers can delay instead of blocking a thread.
+ */
+final class TokenBucket {
+
+    private final double ratePerNano;
+    private final double burst;
+    private final ReentrantLock lock = new ReentrantLock();
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(double ratePerSecond, int burst) {
+        if (ratePerSecond <= 0 || burst < 1) throw new IllegalArgumentException("rate and burst must be positive");
+        this.ratePerNano = ratePerSecond / 1_000_000_000d;
+        this.burst = burst;
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes one token, possibly going into debt, and returns the nanos until it is really available (0 = now).
+     * Returns -1 and takes nothing if that would be longer than maxWaitNanos.
+     */
+    long reserve(long maxWaitNanos) {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - lastRefill) * ratePerNano);
+            lastRefill = now;
+            long wait = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / ratePerNano);
+            if (wait > maxWaitNanos) return -1;
+            tokens -= 1;
+            return wait;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -1,4 +1,59 @@
 package com.sam.finflow.messaging;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sam.finflow.domain.payout.PayoutChange;
+import com.sam.finflow.domain.payout.PayoutChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes every payout change to the outbox inside the caller's transaction: the event exists iff the change
+ * committed, with no dual write. {@link OutboxRelay} ships it to the stream later, off the request path.
+ */
+@Component
 public class DisbursementEventPublisher {
+
+    private static final String INSERT =
+            "INSERT INTO payout_outbox (aggregate_id, event_type, payload, created_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbc;
+    private final ObjectMapper json;
+
+    public DisbursementEventPublisher(JdbcTemplate jdbc, ObjectMapper json) {
+        this.jdbc = jdbc;
+        this.json = json;
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void on(PayoutChangedEvent event) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(event.changes().size());
+        for (PayoutChange c : event.changes()) {
+            rows.add(new Object[]{ c.id(), eventType(c), toJson(c), now });
+        }
+        jdbc.batchUpdate(INSERT, rows);
+    }
+
+    // payout.pending (created), payout.processing, payout.settled, payout.failed
+    static String eventType(PayoutChange c) {
+        return "payout." + c.status().name().toLowerCase();
+    }
+
+    private String toJson(PayoutChange c) {
+        try {
+            return json.writeValueAsString(c);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("cannot serialize payout change " + c.id(), e);
+        }
+    }
 }
@@ -0,0 +1,12 @@
+package com.sam.finflow.messaging;
+
+import java.util.List;
+
+/**
+ * Destination of relayed outbox events. append must be all-or-throw: the relay deletes the rows
+ * only when it returns, so a failure means the whole batch is retried (at-least-once).
+ */
+public interface EventStreamSink {
+
+    void append(List<OutboxMessage> messages);
+}
@@ -0,0 +1,43 @@
+package com.sam.finflow.messaging;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Redis-free stand-in (finflow.outbox.sink=memory) for local runs and tests. Keeps the newest maxLen events.
+ */
+public class InMemoryStreamSink implements EventStreamSink {
+
+    private final int maxLen;
+    private final Deque<OutboxMessage> stream = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public InMemoryStreamSink(int maxLen) {
+        this.maxLen = maxLen;
+    }
+
+    @Override
+    public void append(List<OutboxMessage> messages) {
+        lock.lock();
+        try {
+            for (OutboxMessage m : messages) {
+                stream.addLast(m);
+                if (stream.size() > maxLen) stream.removeFirst();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<OutboxMessage> snapshot() {
+        lock.lock();
+        try {
+            return new ArrayList<>(stream);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
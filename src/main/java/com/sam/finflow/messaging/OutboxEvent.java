@@ -0,0 +1,40 @@
+package com.sam.finflow.messaging;
+
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Transactional outbox row. Written by {@link DisbursementEventPublisher} in the same transaction as the
+ * payout change, deleted by {@link OutboxRelay} once the event is on the stream.
+ * Mapped so ddl-auto creates the table; reads/writes go through JDBC for batching.
+ */
+@Entity
+@Table(name = "payout_outbox")
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id; // relay order; per payout it follows commit order (row lock on the payout)
+
+    @Column(name = "aggregate_id", nullable = false)
+    private UUID aggregateId; // payout id
+
+    @Column(name = "event_type", nullable = false, length = 32)
+    private String eventType;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload; // JSON PayoutChange
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    protected OutboxEvent() { }
+
+    public Long getId() { return id; }
+    public UUID getAggregateId() { return aggregateId; }
+    public String getEventType() { return eventType; }
+    public String getPayload() { return payload; }
+    public OffsetDateTime getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,6 @@
+package com.sam.finflow.messaging;
+
+import java.util.UUID;
+
+/** An outbox row on its way to the stream. id doubles as the consumer-side dedupe key. */
+public record OutboxMessage(long id, UUID aggregateId, String eventType, String payload) {}
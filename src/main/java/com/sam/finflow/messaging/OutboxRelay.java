@@ -0,0 +1,120 @@
+package com.sam.finflow.messaging;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains payout_outbox to the {@link EventStreamSink} in id order, one batch per transaction:
+ * read batch -> append (pipelined) -> delete -> commit. A crash between append and commit re-sends the batch,
+ * so delivery is at-least-once; consumers dedupe on eventId.
+ *
+ * Only one relay drains at a time cluster-wide (transaction-scoped advisory lock) so the stream keeps
+ * outbox order and therefore per-payout order.
+ *
+ * While the sink is down the relay backs off exponentially (poll interval doubling, up to max-backoff) and logs
+ * once when it starts failing and once when it recovers; finflow.outbox.backlog shows the rows waiting.
+ */
+@Component
+@ConditionalOnProperty(name = "finflow.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final long RELAY_LOCK_KEY = 0x0F1F_0017L; // arbitrary, unique to this relay
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final EventStreamSink sink;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final long maxBackoffMillis;
+    // Only touched by poll(), which the scheduler never runs concurrently with itself
+    private int failures;
+    private long retryAt;
+
+    public OutboxRelay(JdbcTemplate jdbc,
+                       TransactionTemplate tx,
+                       EventStreamSink sink,
+                       MeterRegistry meters,
+                       @Value("${finflow.outbox.relay.batch-size:1000}") int batchSize,
+                       @Value("${finflow.outbox.relay.poll-interval-ms:100}") long pollIntervalMillis,
+                       @Value("${finflow.outbox.relay.max-backoff:PT30S}") Duration maxBackoff) {
+        this.jdbc = jdbc;
+        this.tx = tx;
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = Math.max(1, pollIntervalMillis);
+        this.maxBackoffMillis = Math.max(this.pollIntervalMillis, maxBackoff.toMillis());
+        Gauge.builder("finflow.outbox.backlog", this, OutboxRelay::backlog)
+                .description("payout_outbox rows not relayed yet")
+                .register(meters);
+    }
+
+    @Scheduled(fixedDelayString = "${finflow.outbox.relay.poll-interval-ms:100}")
+    public void poll() {
+        if (failures > 0 && System.nanoTime() - retryAt < 0) return; // backing off
+        try {
+            // Keep going while batches come back full so a backlog drains at full speed
+            while (relayBatch() == batchSize) { }
+            if (failures > 0) {
+                log.info("outbox relay recovered after {} failed attempts", failures);
+                failures = 0;
+            }
+        } catch (RuntimeException e) {
+            failures++;
+            long delay = Math.min(maxBackoffMillis, pollIntervalMillis << Math.min(failures, 20));
+            retryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+            if (failures == 1) {
+                log.warn("outbox relay failing, events stay queued; retrying with backoff up to {} ms", maxBackoffMillis, e);
+            } else {
+                log.debug("outbox relay still failing after {} attempts, next in {} ms: {}", failures, delay, e.toString());
+            }
+        }
+    }
+
+    // Read on scrape, not per poll; NaN while the database is unreachable
+    double backlog() {
+        try {
+            Long rows = jdbc.queryForObject("SELECT count(*) FROM payout_outbox", Long.class);
+            return rows == null ? 0 : rows;
+        } catch (RuntimeException e) {
+            return Double.NaN;
+        }
+    }
+
+    /** @return number of events relayed (0 if another node holds the relay lock) */
+    int relayBatch() {
+        Integer relayed = tx.execute(status -> {
+            Boolean locked = jdbc.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, RELAY_LOCK_KEY);
+            if (!Boolean.TRUE.equals(locked)) return 0;
+
+            List<OutboxMessage> batch = jdbc.query(
+                    "SELECT id, aggregate_id, event_type, payload FROM payout_outbox ORDER BY id LIMIT ?",
+                    (rs, n) -> new OutboxMessage(rs.getLong(1), rs.getObject(2, UUID.class), rs.getString(3), rs.getString(4)),
+                    batchSize);
+            if (batch.isEmpty()) return 0;
+
+            sink.append(batch);
+
+            // Delete exactly what was sent: ids can commit out of order, so never "id <= max"
+            List<Object[]> ids = new ArrayList<>(batch.size());
+            for (OutboxMessage m : batch) ids.add(new Object[]{ m.id() });
+            jdbc.batchUpdate("DELETE FROM payout_outbox WHERE id = ?", ids);
+            return batch.size();
+        });
+        return relayed == null ? 0 : relayed;
+    }
+}
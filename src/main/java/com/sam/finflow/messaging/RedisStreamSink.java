@@ -0,0 +1,43 @@
+package com.sam.finflow.messaging;
+
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * XADDs a whole batch in one pipelined round trip to a single stream, so stream order == outbox order.
+ */
+public class RedisStreamSink implements EventStreamSink {
+
+    private final StringRedisTemplate redis;
+    private final String streamKey;
+    private final XAddOptions trim;
+
+    public RedisStreamSink(StringRedisTemplate redis, String streamKey, long maxLen) {
+        this.redis = redis;
+        this.streamKey = streamKey;
+        this.trim = XAddOptions.maxlen(maxLen).approximateTrimming(true);
+    }
+
+    @Override
+    public void append(List<OutboxMessage> messages) {
+        // executePipelined rethrows if any XADD failed
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection c = (StringRedisConnection) connection;
+            for (OutboxMessage m : messages) {
+                c.xAdd(StreamRecords.string(Map.of(
+                        "eventId", Long.toString(m.id()),
+                        "payoutId", m.aggregateId().toString(),
+                        "type", m.eventType(),
+                        "payload", m.payload()
+                )).withStreamKey(streamKey), trim);
+            }
+            return null;
+        });
+    }
+}
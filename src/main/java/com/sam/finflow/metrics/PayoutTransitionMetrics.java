@@ -0,0 +1,78 @@
+package com.sam.finflow.metrics;
+
+import com.sam.finflow.domain.payout.MerchantPayout.Status;
+import com.sam.finflow.domain.payout.PayoutChange;
+import com.sam.finflow.domain.payout.PayoutChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * finflow.payout.transitions{from,to}: committed status changes (from=NEW for creations).
+ * finflow.payout.transitions.rejected{from,to}: transitions refused as illegal (single and bulk paths).
+ * finflow.payout.transitions.conflicts{outcome}: optimistic-lock conflicts on single transitions,
+ *   outcome=retried or gave_up (retries exhausted, reported as 409).
+ * finflow.payout.transitions.lock.wait: time a transition queued behind another one for the same payout stripe
+ *   (only recorded when it had to wait).
+ *
+ * All counters are registered up front and indexed by ordinal, so counting is an array read plus an add.
+ */
+@Component
+public class PayoutTransitionMetrics {
+
+    private static final Status[] STATUSES = Status.values();
+
+    private final Counter[][] applied;  // [from.ordinal() + 1, 0 = NEW][to.ordinal()]
+    private final Counter[][] rejected; // [from.ordinal()][to.ordinal()]
+    private final Counter conflictsRetried;
+    private final Counter conflictsGaveUp;
+    private final Timer lockWait;
+
+    public PayoutTransitionMetrics(MeterRegistry meters) {
+        applied = new Counter[STATUSES.length + 1][STATUSES.length];
+        rejected = new Counter[STATUSES.length][STATUSES.length];
+        for (Status to : STATUSES) {
+            applied[0][to.ordinal()] = counter(meters, "finflow.payout.transitions", "NEW", to);
+            for (Status from : STATUSES) {
+                applied[from.ordinal() + 1][to.ordinal()] = counter(meters, "finflow.payout.transitions", from.name(), to);
+                rejected[from.ordinal()][to.ordinal()] = counter(meters, "finflow.payout.transitions.rejected", from.name(), to);
+            }
+        }
+        conflictsRetried = Counter.builder("finflow.payout.transitions.conflicts").tag("outcome", "retried").register(meters);
+        conflictsGaveUp = Counter.builder("finflow.payout.transitions.conflicts").tag("outcome", "gave_up").register(meters);
+        lockWait = Timer.builder("finflow.payout.transitions.lock.wait").publishPercentileHistogram().register(meters);
+    }
+
+    public void rejected(Status from, Status to) {
+        rejected[from.ordinal()][to.ordinal()].increment();
+    }
+
+    public void conflictRetried() {
+        conflictsRetried.increment();
+    }
+
+    public void conflictGaveUp() {
+        conflictsGaveUp.increment();
+    }
+
+    public void lockWaited(long nanos) {
+        lockWait.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void on(PayoutChangedEvent event) {
+        for (PayoutChange c : event.changes()) {
+            int from = c.previousStatus() == null ? 0 : c.previousStatus().ordinal() + 1;
+            applied[from][c.status().ordinal()].increment();
+        }
+    }
+
+    private static Counter counter(MeterRegistry meters, String name, String from, Status to) {
+        return Counter.builder(name).tag("from", from).tag("to", to.name()).register(meters);
+    }
+}
@@ -0,0 +1,80 @@
+package com.sam.finflow.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Counts JDBC statements prepared on the current thread between {@link #start()} and {@link #stop()}.
+ *
+ * Counting happens in a DataSource wrapper, so Hibernate, Spring Data and JdbcTemplate are all seen.
+ * A JDBC batch counts once (one prepare, one round trip per flush). Threads that never called start()
+ * (async jobs, streaming bodies) pay one ThreadLocal read per statement and are not counted.
+ */
+public final class SqlStatementCounter {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {}
+
+    public static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    /** @return statements since start(), or -1 if this thread was not counting */
+    public static int stop() {
+        int[] c = COUNT.get();
+        COUNT.remove();
+        return c == null ? -1 : c[0];
+    }
+
+    static void increment() {
+        int[] c = COUNT.get();
+        if (c != null) c[0]++;
+    }
+
+    /** Wraps a DataSource so its connections report every prepareStatement/prepareCall/createStatement. */
+    public static DataSource counting(DataSource target) {
+        return new CountingDataSource(target);
+    }
+
+    private static final class CountingDataSource extends DelegatingDataSource {
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return wrap(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return wrap(super.getConnection(username, password));
+        }
+
+        private static Connection wrap(Connection c) {
+            InvocationHandler h = (proxy, method, args) -> {
+                if (isStatement(method)) increment();
+                try {
+                    return method.invoke(c, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            };
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, h);
+        }
+
+        private static boolean isStatement(Method m) {
+            String n = m.getName();
+            return n.equals("prepareStatement") || n.equals("prepareCall") || n.equals("createStatement");
+        }
+    }
+}
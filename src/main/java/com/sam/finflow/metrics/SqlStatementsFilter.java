@@ -0,0 +1,43 @@
+package com.sam.finflow.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * finflow.http.sql.statements{method,uri}: JDBC statements each request ran, to spot N+1s and chatty endpoints.
+ * uri is the route template (/merchant-payouts/{id}), like http.server.requests.
+ */
+public class SqlStatementsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meters;
+
+    public SqlStatementsFilter(MeterRegistry meters) {
+        this.meters = meters;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatementCounter.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int statements = SqlStatementCounter.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("finflow.http.sql.statements")
+                    .description("JDBC statements per HTTP request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                    .register(meters)
+                    .record(Math.max(statements, 0));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.sam.finflow.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Watches for virtual threads pinned to their carrier (blocking inside synchronized or a native frame), which
+ * quietly turns a virtual-thread server back into a small fixed pool. Every pin longer than the threshold is
+ * timed as finflow.vthreads.pinned; the first pin from each call site is logged with its stack.
+ *
+ * Uses the JDK's jdk.VirtualThreadPinned JFR event, so no -Djdk.tracePinnedThreads is needed. Only active
+ * with spring.threads.virtual.enabled=true.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final int LOGGED_FRAMES = 12;
+
+    private final RecordingStream stream = new RecordingStream();
+    private final Timer pinned;
+    private final Set<String> reported = ConcurrentHashMap.newKeySet();
+
+    public VirtualThreadPinningMonitor(MeterRegistry meters,
+                                       @Value("${finflow.vthreads.pinned-threshold:PT0.02S}") Duration threshold) {
+        this.pinned = Timer.builder("finflow.vthreads.pinned")
+                .description("virtual threads blocked while pinned to their carrier thread")
+                .register(meters);
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        stream.startAsync();
+    }
+
+    private void onPinned(RecordedEvent e) {
+        pinned.record(e.getDuration());
+        RecordedStackTrace stack = e.getStackTrace();
+        if (stack == null || stack.getFrames().isEmpty()) return;
+        String site = frame(stack.getFrames().get(stack.getFrames().size() > 1 ? 1 : 0));
+        if (!reported.add(site)) return;
+        StringBuilder trace = new StringBuilder();
+        stack.getFrames().stream().limit(LOGGED_FRAMES).forEach(f -> trace.append("\n\tat ").append(frame(f)));
+        log.warn("Virtual thread pinned for {} ms{}", e.getDuration().toMillis(), trace);
+    }
+
+    private static String frame(RecordedFrame f) {
+        return f.getMethod().getType().getName() + "." + f.getMethod().getName() + ":" + f.getLineNumber();
+    }
+
+    @Override
+    public void destroy() {
+        stream.close();
+    }
+}
@@ -0,0 +1,97 @@
+package com.sam.finflow.query;
+
+import com.sam.finflow.domain.banklink.BankLink;
+import com.sam.finflow.dto.BankLinkDto.BankLinkPage;
+import com.sam.finflow.dto.BankLinkDto.BankLinkResponse;
+import com.sam.finflow.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Bank link listings selected as JPQL tuples and mapped straight to {@link BankLinkResponse}:
+ * Hibernate reads the columns but never builds, registers or snapshots a BankLink.
+ */
+@Repository
+@Transactional(readOnly = true)
+public class BankLinkQueries {
+
+    private static final String SELECT = """
+            SELECT bl.id, bl.customerId, bl.provider, bl.providerAccountId, bl.status, bl.primary, bl.consentAt, bl.createdAt
+            FROM BankLink bl WHERE bl.customerId = :customerId
+            """;
+    private static final String ORDER = " ORDER BY bl.createdAt DESC, bl.id DESC";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    /** Keyset page, newest first; nextCursor is null on the last page. */
+    public BankLinkPage findPage(UUID customerId, @Nullable KeysetCursor after, int limit) {
+        TypedQuery<Tuple> q = em.createQuery(after == null ? SELECT + ORDER
+                        : SELECT + " AND bl.createdAt <= :afterAt AND (bl.createdAt < :afterAt OR bl.id < :afterId)" + ORDER,
+                        Tuple.class)
+                .setParameter("customerId", customerId)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setMaxResults(limit + 1); // one extra row tells us whether there is a next page
+        if (after != null) {
+            q.setParameter("afterAt", after.createdAt());
+            q.setParameter("afterId", after.id());
+        }
+        List<Tuple> rows = q.getResultList();
+        int n = Math.min(rows.size(), limit);
+        List<BankLinkResponse> items = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) items.add(response(rows.get(i)));
+        String next = null;
+        if (rows.size() > limit) {
+            Tuple last = rows.get(limit - 1);
+            next = new KeysetCursor(last.get(7, OffsetDateTime.class), last.get(0, UUID.class)).encode();
+        }
+        return new BankLinkPage(items, next);
+    }
+
+    /** Every link of the customer, newest first, as one list (customers have a handful). */
+    public List<BankLinkResponse> findAll(UUID customerId) {
+        return em.createQuery(SELECT + ORDER, Tuple.class)
+                .setParameter("customerId", customerId)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultList().stream()
+                .map(BankLinkQueries::response)
+                .toList();
+    }
+
+    /** Every link of the customer, newest first, through a forward-only cursor. */
+    public void forEach(UUID customerId, int fetchSize, Consumer<BankLinkResponse> action) {
+        TypedQuery<Tuple> q = em.createQuery(SELECT + ORDER, Tuple.class)
+                .setParameter("customerId", customerId)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        try (Stream<Tuple> rows = q.getResultStream()) {
+            rows.forEach(t -> action.accept(response(t)));
+        }
+    }
+
+    // Same fields as BankLinkResponse.from(BankLink)
+    private static BankLinkResponse response(Tuple t) {
+        OffsetDateTime consentAt = t.get(6, OffsetDateTime.class);
+        return new BankLinkResponse(
+                t.get(0, UUID.class),
+                t.get(1, UUID.class),
+                t.get(2, String.class),
+                t.get(3, String.class),
+                t.get(4, BankLink.Status.class).name(),
+                t.get(5, Boolean.class),
+                consentAt != null ? consentAt.toString() : null);
+    }
+}
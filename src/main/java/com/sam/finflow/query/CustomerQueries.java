@@ -0,0 +1,45 @@
+package com.sam.finflow.query;
+
+import com.sam.finflow.cache.VersionedCache.Versioned;
+import com.sam.finflow.dto.CustomerDto.Response;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Customer reads selected as a JPQL tuple straight into {@link Response} (with the row version the cache needs),
+ * without loading a managed Customer.
+ */
+@Repository
+@Transactional(readOnly = true)
+public class CustomerQueries {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    public Optional<Versioned<Response>> findById(UUID id) {
+        List<Tuple> rows = em.createQuery("""
+                        SELECT c.id, c.fullName, c.email, c.createdAt, c.updatedAt, c.version
+                        FROM Customer c WHERE c.id = :id
+                        """, Tuple.class)
+                .setParameter("id", id)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultList();
+        if (rows.isEmpty()) return Optional.empty();
+        Tuple t = rows.get(0);
+        return Optional.of(new Versioned<>(t.get(5, Long.class), new Response(
+                t.get(0, UUID.class),
+                t.get(1, String.class),
+                t.get(2, String.class),
+                t.get(3, OffsetDateTime.class),
+                t.get(4, OffsetDateTime.class))));
+    }
+}
@@ -0,0 +1,129 @@
+package com.sam.finflow.query;
+
+import com.sam.finflow.domain.payout.PayoutArchiveRepository;
+import com.sam.finflow.domain.payout.PayoutListFilter;
+import com.sam.finflow.dto.MerchantPayoutDto.Page;
+import com.sam.finflow.dto.MerchantPayoutDto.Response;
+import com.sam.finflow.util.KeysetCursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Payout reads for the API, selected straight into {@link Response}: plain JDBC rows, no entity, no persistence
+ * context, no dirty-check snapshot. Archived payouts are included (UNION ALL, merged by the database).
+ * Writes and anything that needs the entity's rules go through MerchantPayoutService.
+ */
+@Repository
+@Transactional(readOnly = true)
+public class MerchantPayoutQueries {
+
+    private static final String COLUMNS = "id, merchant_id, merchant_settlement_account_id, capture_id, amount,"
+            + " currency, status, created_at, updated_at, version";
+    private static final String ORDER = " ORDER BY created_at DESC, id DESC";
+
+    private final JdbcTemplate jdbc;
+    private final JdbcTemplate streaming;
+    private final PayoutArchiveRepository archive;
+
+    public MerchantPayoutQueries(JdbcTemplate jdbc,
+                                 DataSource dataSource,
+                                 PayoutArchiveRepository archive,
+                                 @Value("${finflow.payouts.export.fetch-size:500}") int exportFetchSize) {
+        this.jdbc = jdbc;
+        // Own template: Postgres only streams with a fetch size inside a transaction (autocommit off)
+        this.streaming = new JdbcTemplate(dataSource);
+        this.streaming.setFetchSize(exportFetchSize);
+        this.archive = archive;
+    }
+
+    public Optional<Response> findById(UUID id) {
+        List<Response> rows = jdbc.query("SELECT " + COLUMNS + " FROM merchant_payouts WHERE id = ?", (rs, i) -> response(rs), id);
+        if (rows.isEmpty() && archive.enabled()) {
+            rows = jdbc.query("SELECT " + COLUMNS + " FROM " + PayoutArchiveRepository.TABLE + " WHERE id = ?", (rs, i) -> response(rs), id);
+        }
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+
+    /** Keyset page, newest first; nextCursor is null on the last page. */
+    public Page findPage(UUID merchantId, PayoutListFilter filter, @Nullable KeysetCursor after, int limit) {
+        List<Object> args = new ArrayList<>();
+        String sql = listing(merchantId, filter, after, args);
+        args.add(limit + 1); // one extra row tells us whether there is a next page
+        List<Response> rows = jdbc.query(sql + " LIMIT ?", (rs, i) -> response(rs), args.toArray());
+        boolean more = rows.size() > limit;
+        if (more) rows = rows.subList(0, limit);
+        Response last = more ? rows.get(limit - 1) : null;
+        String next = last != null ? new KeysetCursor(OffsetDateTime.parse(last.createdAt()), last.id()).encode() : null;
+        return new Page(rows, next);
+    }
+
+    /** Every matching row, newest first, fetch-size rows per round trip. */
+    public void forEach(UUID merchantId, PayoutListFilter filter, Consumer<Response> action) {
+        List<Object> args = new ArrayList<>();
+        streaming.query(listing(merchantId, filter, null, args), rs -> action.accept(response(rs)), args.toArray());
+    }
+
+    private String listing(UUID merchantId, PayoutListFilter filter, @Nullable KeysetCursor after, List<Object> args) {
+        String hot = select("merchant_payouts", merchantId, filter, after, args);
+        if (archive.newestPossible(filter) == null) return hot + ORDER;
+        // Postgres merges the two index scans (Merge Append), so a LIMIT still stops both early
+        String cold = select(PayoutArchiveRepository.TABLE, merchantId, filter, after, args);
+        return hot + " UNION ALL " + cold + ORDER;
+    }
+
+    private static String select(String table, UUID merchantId, PayoutListFilter filter,
+                                 @Nullable KeysetCursor after, List<Object> args) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM ").append(table)
+                .append(" WHERE merchant_id = ?");
+        args.add(merchantId);
+        if (filter.status() != null) {
+            sql.append(" AND status = ?");
+            args.add(filter.status().name());
+        }
+        if (filter.createdFrom() != null) {
+            sql.append(" AND created_at >= ?");
+            args.add(filter.createdFrom());
+        }
+        if (filter.createdTo() != null) {
+            sql.append(" AND created_at < ?");
+            args.add(filter.createdTo());
+        }
+        if (after != null) {
+            // (created_at, id) < (cursor): the extra <= lets the planner bound the index range scan
+            sql.append(" AND created_at <= ? AND (created_at < ? OR id < ?)");
+            args.add(after.createdAt());
+            args.add(after.createdAt());
+            args.add(after.id());
+        }
+        return sql.toString();
+    }
+
+    private static Response response(ResultSet rs) throws SQLException {
+        OffsetDateTime created = rs.getObject(8, OffsetDateTime.class);
+        OffsetDateTime updated = rs.getObject(9, OffsetDateTime.class);
+        return new Response(
+                rs.getObject(1, UUID.class),
+                rs.getObject(2, UUID.class),
+                rs.getObject(3, UUID.class),
+                rs.getString(4),
+                rs.getBigDecimal(5),
+                rs.getString(6),
+                rs.getString(7),
+                created != null ? created.toString() : null,
+                updated != null ? updated.toString() : null,
+                rs.getLong(10));
+    }
+}
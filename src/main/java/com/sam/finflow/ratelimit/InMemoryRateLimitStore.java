@@ -0,0 +1,66 @@
+package com.sam.finflow.ratelimit;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Redis-free stand-in (finflow.ratelimit.store=memory) for local runs and tests. Single node only.
+ * Same semantics as {@link RedisRateLimitStore}; each operation is one ConcurrentHashMap.compute on the key.
+ */
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private static final int SWEEP_EVERY = 1024;
+
+    private record Bucket(double tokens, long atNanos, long fullAtNanos) {}
+
+    private record Counter(long used, long expiresAtNanos) {
+        boolean expired(long now) { return now - expiresAtNanos >= 0; }
+    }
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final AtomicInteger writes = new AtomicInteger();
+
+    @Override
+    public long take(String key, long permits, long capacity, double ratePerSecond) {
+        long now = System.nanoTime();
+        double perNano = ratePerSecond / 1_000_000_000d;
+        long[] got = new long[1];
+        buckets.compute(key, (k, b) -> {
+            double tokens = b == null ? capacity : Math.min(capacity, b.tokens() + (now - b.atNanos()) * perNano);
+            got[0] = Math.min(permits, (long) tokens);
+            tokens -= got[0];
+            return new Bucket(tokens, now, now + (long) Math.ceil((capacity - tokens) / perNano));
+        });
+        if (writes.incrementAndGet() % SWEEP_EVERY == 0) sweep(now);
+        return got[0];
+    }
+
+    @Override
+    public boolean reserve(String key, long amount, long limit, Duration ttl) {
+        long now = System.nanoTime();
+        boolean[] ok = new boolean[1];
+        counters.compute(key, (k, c) -> {
+            long used = c == null || c.expired(now) ? 0 : c.used();
+            if (used > limit - amount) return c;
+            ok[0] = true;
+            return new Counter(used + amount, now + ttl.toNanos());
+        });
+        if (writes.incrementAndGet() % SWEEP_EVERY == 0) sweep(now);
+        return ok[0];
+    }
+
+    @Override
+    public void release(String key, long amount) {
+        long now = System.nanoTime();
+        counters.computeIfPresent(key, (k, c) -> c.expired(now) ? null : new Counter(c.used() - amount, c.expiresAtNanos()));
+    }
+
+    // A bucket that has refilled completely is the same as no bucket
+    private void sweep(long now) {
+        buckets.values().removeIf(b -> now - b.fullAtNanos() >= 0);
+        counters.values().removeIf(c -> c.expired(now));
+    }
+}
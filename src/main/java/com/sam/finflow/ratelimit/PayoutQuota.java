@@ -0,0 +1,193 @@
+package com.sam.finflow.ratelimit;
+
+import com.sam.finflow.domain.payout.MerchantPayoutService.NewPayout;
+import com.sam.finflow.util.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Daily payout volume per merchant and currency (UTC days), counted in minor units in the {@link RateLimitStore}
+ * so every node sees the same total. finflow.ratelimit.quota.daily sets the limit per currency for all merchants,
+ * finflow.ratelimit.quota.merchants overrides it for single merchants; a currency without a limit isn't counted.
+ *
+ * A create reserves its amount before the insert and gives it back when nothing new was created (replayed
+ * capture, rejected item, error), so only new payouts use up the quota. Like the rate limiter, an unreachable
+ * store lets payouts through (logged).
+ *
+ * finflow.ratelimit.refused{limit=payout-quota}: payouts refused for going over the quota.
+ */
+@Component
+public class PayoutQuota {
+
+    private static final Logger log = LoggerFactory.getLogger(PayoutQuota.class);
+
+    // Counters outlive their day a little so a release just after midnight still finds yesterday's
+    private static final Duration COUNTER_TTL = Duration.ofDays(2);
+
+    /** Amount held against one quota counter; NONE = nothing counted, nothing to give back. */
+    public record Reservation(String key, long minorUnits) {
+        public static final Reservation NONE = new Reservation(null, 0);
+    }
+
+    private record Group(UUID merchantId, String currency) {}
+
+    private final RateLimitStore store;
+    private final Clock clock;
+    private final boolean enabled;
+    private final Map<String, Long> daily;                    // currency -> limit in minor units
+    private final Map<UUID, Map<String, Long>> perMerchant;   // overrides
+    private final Counter refused;
+
+    public PayoutQuota(RateLimitStore store,
+                       MeterRegistry meters,
+                       @Value("${finflow.ratelimit.enabled:true}") boolean enabled,
+                       @Value("${finflow.ratelimit.quota.daily:}") String daily,
+                       @Value("${finflow.ratelimit.quota.merchants:}") String merchants) {
+        this.store = store;
+        this.clock = Clock.systemUTC();
+        this.enabled = enabled;
+        this.daily = new HashMap<>();
+        this.perMerchant = new HashMap<>();
+        // USD=1000000.00,EUR=500000
+        for (String entry : entries(daily)) {
+            String[] kv = split(entry, '=');
+            Money limit = Money.of(new BigDecimal(kv[1]), kv[0]);
+            this.daily.put(limit.currency(), limit.minorUnits());
+        }
+        // <merchantId>/USD=5000000.00,...
+        for (String entry : entries(merchants)) {
+            String[] kv = split(entry, '=');
+            String[] mc = split(kv[0], '/');
+            Money limit = Money.of(new BigDecimal(kv[1]), mc[1]);
+            this.perMerchant.computeIfAbsent(UUID.fromString(mc[0]), m -> new HashMap<>()).put(limit.currency(), limit.minorUnits());
+        }
+        this.refused = Counter.builder("finflow.ratelimit.refused").tag("limit", "payout-quota").register(meters);
+    }
+
+    /** Holds amount against today's quota, or throws {@link RateLimitExceededException} if it would go over. */
+    public Reservation reserve(UUID merchantId, String currency, BigDecimal amount) {
+        Money money = money(amount, currency);
+        if (money == null) return Reservation.NONE;
+        Reservation r = tryReserve(merchantId, money.currency(), money.minorUnits());
+        if (r == null) {
+            refused.increment();
+            throw new RateLimitExceededException("daily " + money.currency() + " payout quota exceeded for merchant "
+                    + merchantId, untilTomorrow());
+        }
+        return r;
+    }
+
+    /**
+     * Batch form of {@link #reserve}: one reservation per merchant and currency for the items not refused yet.
+     * A group that would go over its quota is refused as a whole (refused[i] set for each of its items).
+     * @return what each item holds, to give back with {@link #releaseAll} for the ones not created.
+     */
+    public Reservation[] reserveAll(List<NewPayout> items, String[] refused) {
+        Reservation[] held = new Reservation[items.size()];
+        Arrays.fill(held, Reservation.NONE);
+        Map<Group, List<Integer>> groups = new LinkedHashMap<>();
+        long[] minor = new long[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            if (refused[i] != null) continue;
+            NewPayout n = items.get(i);
+            Money money = money(n.amount(), n.currency());
+            if (money == null) continue;
+            minor[i] = money.minorUnits();
+            groups.computeIfAbsent(new Group(n.merchantId(), money.currency()), g -> new ArrayList<>()).add(i);
+        }
+        for (var g : groups.entrySet()) {
+            String currency = g.getKey().currency();
+            long total = 0;
+            for (int i : g.getValue()) total = Math.addExact(total, minor[i]);
+            Reservation r = tryReserve(g.getKey().merchantId(), currency, total);
+            if (r == null) {
+                this.refused.increment(g.getValue().size());
+                for (int i : g.getValue()) refused[i] = "daily " + currency + " payout quota exceeded";
+                continue;
+            }
+            if (r.key() == null) continue;
+            for (int i : g.getValue()) held[i] = new Reservation(r.key(), minor[i]);
+        }
+        return held;
+    }
+
+    public void release(Reservation r) {
+        if (r.key() == null || r.minorUnits() == 0) return;
+        try {
+            store.release(r.key(), r.minorUnits());
+        } catch (RuntimeException e) {
+            log.warn("Could not give back {} to payout quota {}: {}", r.minorUnits(), r.key(), e.toString());
+        }
+    }
+
+    /** Gives back several reservations, one store call per counter. */
+    public void releaseAll(List<Reservation> reservations) {
+        Map<String, Long> byKey = new LinkedHashMap<>();
+        for (Reservation r : reservations) {
+            if (r.key() != null) byKey.merge(r.key(), r.minorUnits(), Math::addExact);
+        }
+        byKey.forEach((key, amount) -> release(new Reservation(key, amount)));
+    }
+
+    // null = refused; NONE = no limit for this merchant and currency (or quotas off / store down)
+    private Reservation tryReserve(UUID merchantId, String currency, long minorUnits) {
+        if (!enabled) return Reservation.NONE;
+        Long limit = perMerchant.getOrDefault(merchantId, Map.of()).get(currency);
+        if (limit == null) limit = daily.get(currency);
+        if (limit == null || minorUnits <= 0) return Reservation.NONE;
+        String key = "payouts:" + merchantId + ":" + currency + ":" + LocalDate.now(clock);
+        try {
+            return store.reserve(key, minorUnits, limit, COUNTER_TTL) ? new Reservation(key, minorUnits) : null;
+        } catch (RuntimeException e) {
+            log.warn("Payout quota store unavailable, not counting {} {} for {}: {}", minorUnits, currency, merchantId, e.toString());
+            return Reservation.NONE;
+        }
+    }
+
+    // Invalid amount/currency: not counted here, the service rejects it
+    private static Money money(BigDecimal amount, String currency) {
+        if (amount == null || currency == null) return null;
+        try {
+            return Money.of(amount, currency.trim());
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            return null;
+        }
+    }
+
+    private Duration untilTomorrow() {
+        var now = clock.instant();
+        var midnight = LocalDate.now(clock).plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        return Duration.between(now, midnight);
+    }
+
+    private static List<String> entries(String csv) {
+        List<String> out = new ArrayList<>();
+        for (String s : csv.split(",")) {
+            if (!s.isBlank()) out.add(s.trim());
+        }
+        return out;
+    }
+
+    private static String[] split(String s, char sep) {
+        int i = s.indexOf(sep);
+        if (i <= 0 || i == s.length() - 1) throw new IllegalArgumentException("malformed payout quota entry: " + s);
+        return new String[]{s.substring(0, i).trim(), s.substring(i + 1).trim()};
+    }
+}
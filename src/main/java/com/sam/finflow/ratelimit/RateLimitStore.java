@@ -0,0 +1,25 @@
+package com.sam.finflow.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Shared state behind the rate limits and quotas. Each call is one atomic step in the store, so nodes never
+ * read-modify-write each other's counters.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Takes up to permits tokens from the bucket key, which refills at ratePerSecond up to capacity.
+     * @return the tokens taken, 0..permits.
+     */
+    long take(String key, long permits, long capacity, double ratePerSecond);
+
+    /**
+     * Adds amount to the counter key unless the total would go over limit; the counter expires ttl after the
+     * last reservation. @return false (and nothing added) if it would go over.
+     */
+    boolean reserve(String key, long amount, long limit, Duration ttl);
+
+    /** Gives back an amount reserved earlier (no-op once the counter expired). */
+    void release(String key, long amount);
+}
@@ -0,0 +1,129 @@
+package com.sam.finflow.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token buckets shared by every node through the {@link RateLimitStore}, with a local lease in front so the
+ * common case never leaves the JVM.
+ *
+ * A node takes lease tokens from the shared bucket in one round trip and hands them out locally until they run
+ * out or the lease expires (lease-ttl). Tokens left in an expired lease are dropped, not given back: the cluster
+ * can undershoot the configured rate by up to nodes x lease per lease-ttl, but never go over it. A key the shared
+ * bucket refused is refused locally until a token could have refilled, so a client hammering past its limit
+ * doesn't cost a round trip per request either. If the store is unreachable requests are let through (logged).
+ *
+ * finflow.ratelimit.refused{limit}: permits refused. finflow.ratelimit.store.calls{limit}: round trips to the store.
+ */
+public class RateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimiter.class);
+
+    public enum Scope {
+        PAYOUTS("payouts"), BANK_LINKS("bank-links");
+
+        final String tag;
+
+        Scope(String tag) { this.tag = tag; }
+    }
+
+    /** burst = bucket capacity; lease = tokens a node fetches per round trip (at least what the request needs). */
+    public record Limit(double perSecond, int burst, int lease) {
+        public Limit {
+            if (perSecond <= 0 || burst < 1 || lease < 1) throw new IllegalArgumentException("per-second, burst and lease must be positive");
+        }
+    }
+
+    private record LocalKey(Scope scope, String key) {}
+
+    // This node's share of one shared bucket; the lock is held across the store call so one request refills for all
+    private static final class Lease {
+        final ReentrantLock lock = new ReentrantLock();
+        long tokens;
+        long expiresAtNanos;
+        long refusedUntilNanos;
+    }
+
+    private final RateLimitStore store;
+    private final boolean enabled;
+    private final long leaseTtlNanos;
+    private final Limit[] limits;       // by Scope ordinal
+    private final Counter[] refused;    // by Scope ordinal
+    private final Counter[] storeCalls; // by Scope ordinal
+    private final LoadingCache<LocalKey, Lease> leases;
+
+    public RateLimiter(RateLimitStore store, MeterRegistry meters, boolean enabled, Duration leaseTtl, Map<Scope, Limit> limits) {
+        this.store = store;
+        this.enabled = enabled;
+        this.leaseTtlNanos = leaseTtl.toNanos();
+        Scope[] scopes = Scope.values();
+        this.limits = new Limit[scopes.length];
+        this.refused = new Counter[scopes.length];
+        this.storeCalls = new Counter[scopes.length];
+        for (Scope s : scopes) {
+            Limit l = limits.get(s);
+            if (l == null) throw new IllegalArgumentException("no rate limit configured for " + s.tag);
+            this.limits[s.ordinal()] = l;
+            this.refused[s.ordinal()] = Counter.builder("finflow.ratelimit.refused").tag("limit", s.tag).register(meters);
+            this.storeCalls[s.ordinal()] = Counter.builder("finflow.ratelimit.store.calls").tag("limit", s.tag).register(meters);
+        }
+        // Idle keys only hold a few expired tokens; forgetting them costs one round trip on their next request
+        this.leases = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(1))
+                .maximumSize(100_000)
+                .build(k -> new Lease());
+    }
+
+    /** Takes one permit for key or throws {@link RateLimitExceededException} (429 + Retry-After). */
+    public void acquire(Scope scope, Object key) {
+        if (take(scope, key.toString(), 1) == 0) {
+            throw new RateLimitExceededException(scope.tag + " rate limit exceeded for " + key, oneTokenTime(scope));
+        }
+    }
+
+    /** Takes up to permits for key (batches: one per item) and returns how many it got, 0..permits. */
+    public int take(Scope scope, String key, int permits) {
+        if (!enabled || permits <= 0) return permits;
+        Lease lease = leases.get(new LocalKey(scope, key));
+        lease.lock.lock();
+        try {
+            long now = System.nanoTime();
+            if (now - lease.expiresAtNanos >= 0) lease.tokens = 0;
+            int got = (int) Math.min(permits, lease.tokens);
+            lease.tokens -= got;
+            if (got < permits && now - lease.refusedUntilNanos >= 0) {
+                Limit limit = limits[scope.ordinal()];
+                long fetched;
+                try {
+                    fetched = store.take(scope.tag + ":" + key, Math.max(permits - got, limit.lease()), limit.burst(), limit.perSecond());
+                    storeCalls[scope.ordinal()].increment();
+                } catch (RuntimeException e) {
+                    log.warn("Rate limit store unavailable, letting {} {} through: {}", scope.tag, key, e.toString());
+                    return permits;
+                }
+                lease.tokens += fetched;
+                lease.expiresAtNanos = now + leaseTtlNanos;
+                int more = (int) Math.min(permits - got, lease.tokens);
+                lease.tokens -= more;
+                got += more;
+                if (got < permits) lease.refusedUntilNanos = now + oneTokenTime(scope).toNanos();
+            }
+            if (got < permits) refused[scope.ordinal()].increment(permits - got);
+            return got;
+        } finally {
+            lease.lock.unlock();
+        }
+    }
+
+    private Duration oneTokenTime(Scope scope) {
+        return Duration.ofNanos((long) Math.ceil(1_000_000_000d / limits[scope.ordinal()].perSecond()));
+    }
+}
@@ -0,0 +1,75 @@
+package com.sam.finflow.ratelimit;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Buckets as hashes under finflow:rl:{key} (tokens + last refill, Redis server time so node clocks don't matter),
+ * quota counters as integers under finflow:quota:{key}. Every operation is a single script: check and update
+ * can't interleave with another node's.
+ */
+public class RedisRateLimitStore implements RateLimitStore {
+
+    // KEYS[1] bucket; ARGV[1] permits, ARGV[2] capacity, ARGV[3] tokens per ms, ARGV[4] ttl ms
+    private static final RedisScript<Long> TAKE = new DefaultRedisScript<>("""
+            local t = redis.call('TIME')
+            local now = t[1] * 1000 + math.floor(t[2] / 1000)
+            local cap = tonumber(ARGV[2])
+            local b = redis.call('HMGET', KEYS[1], 'tokens', 'at')
+            local tokens = cap
+            if b[1] then tokens = math.min(cap, tonumber(b[1]) + math.max(0, now - tonumber(b[2])) * tonumber(ARGV[3])) end
+            local got = math.min(tonumber(ARGV[1]), math.floor(tokens))
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens - got), 'at', tostring(now))
+            redis.call('PEXPIRE', KEYS[1], ARGV[4])
+            return got
+            """, Long.class);
+
+    // KEYS[1] counter; ARGV[1] amount, ARGV[2] limit, ARGV[3] ttl ms
+    private static final RedisScript<Long> RESERVE = new DefaultRedisScript<>("""
+            local used = tonumber(redis.call('GET', KEYS[1]) or '0')
+            if used + tonumber(ARGV[1]) > tonumber(ARGV[2]) then return 0 end
+            redis.call('INCRBY', KEYS[1], ARGV[1])
+            redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            return 1
+            """, Long.class);
+
+    // KEYS[1] counter; ARGV[1] amount. An expired counter stays gone instead of coming back negative without a ttl
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end
+            return redis.call('DECRBY', KEYS[1], ARGV[1])
+            """, Long.class);
+
+    private final StringRedisTemplate redis;
+
+    public RedisRateLimitStore(StringRedisTemplate redis) {
+        this.redis = redis;
+    }
+
+    @Override
+    public long take(String key, long permits, long capacity, double ratePerSecond) {
+        // An untouched bucket is full again after capacity / rate; keep it a little longer, then let Redis drop it
+        long ttlMillis = (long) Math.ceil(capacity * 1000d / ratePerSecond) + 1000;
+        Long got = redis.execute(TAKE, List.of(bucketKey(key)), Long.toString(permits), Long.toString(capacity),
+                Double.toString(ratePerSecond / 1000d), Long.toString(ttlMillis));
+        return got != null ? got : 0;
+    }
+
+    @Override
+    public boolean reserve(String key, long amount, long limit, Duration ttl) {
+        Long ok = redis.execute(RESERVE, List.of(quotaKey(key)), Long.toString(amount), Long.toString(limit),
+                Long.toString(ttl.toMillis()));
+        return ok != null && ok == 1;
+    }
+
+    @Override
+    public void release(String key, long amount) {
+        redis.execute(RELEASE, List.of(quotaKey(key)), Long.toString(amount));
+    }
+
+    private static String bucketKey(String key) { return "finflow:rl:{" + key + "}"; }
+    private static String quotaKey(String key) { return "finflow:quota:{" + key + "}"; }
+}
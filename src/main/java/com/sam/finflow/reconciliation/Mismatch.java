@@ -0,0 +1,17 @@
+package com.sam.finflow.reconciliation;
+
+/** One line of the reconciliation report. line is 1-based in the input file. */
+record Mismatch(long line, String captureId, Reason reason, String detail) {
+
+    enum Reason {
+        MALFORMED,
+        UNKNOWN_CAPTURE,
+        AMBIGUOUS_CAPTURE,   // PROCESSING under more than one merchant
+        DUPLICATE_LINE,      // an earlier line already matched this payout
+        AMOUNT_MISMATCH,
+        CURRENCY_MISMATCH,
+        NOT_PROCESSING,      // exists but PENDING: never sent, cannot be confirmed
+        IN_OPEN_BATCH,       // sent inside a disbursement batch: settles or fails with the batch, not per line
+        ALREADY_TERMINAL     // SETTLED/FAILED before this file, or changed while it was applied
+    }
+}
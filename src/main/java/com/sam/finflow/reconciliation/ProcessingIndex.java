@@ -0,0 +1,146 @@
+package com.sam.finflow.reconciliation;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Open PROCESSING payouts keyed by capture id, in flat primitive arrays: no object per payout, no boxing,
+ * so millions of entries cost a few dozen bytes each and lookups straight from the mapped file allocate nothing.
+ *
+ * Capture ids are kept as UTF-8 in one byte arena; the hash table is open addressing (linear probing)
+ * over int slots with the full 64-bit hash alongside, so most probes never touch the arena.
+ * A capture id held by more than one merchant's PROCESSING payout is marked ambiguous.
+ */
+final class ProcessingIndex {
+
+    static final int NOT_FOUND = -1;
+    static final int AMBIGUOUS = -2;
+
+    private long[] idHi = new long[1024];
+    private long[] idLo = new long[1024];
+    private long[] amountMinor = new long[1024];
+    private int[] currency = new int[1024];
+    private int[] captureStart = new int[1025];
+    private byte[] arena = new byte[16 * 1024];
+    private boolean[] ambiguous;
+    private int size;
+
+    private int[] table;      // payout index + 1, 0 = empty
+    private long[] tableHash;
+    private int mask;
+
+    /** Adds one payout; call {@link #seal()} once all are added. */
+    void add(UUID id, String captureId, long minor, String currencyCode) {
+        if (size == idHi.length) grow();
+        byte[] capture = captureId.getBytes(StandardCharsets.UTF_8);
+        int start = captureStart[size];
+        if (start + capture.length > arena.length) arena = Arrays.copyOf(arena, Math.max(arena.length * 2, start + capture.length));
+        System.arraycopy(capture, 0, arena, start, capture.length);
+        idHi[size] = id.getMostSignificantBits();
+        idLo[size] = id.getLeastSignificantBits();
+        amountMinor[size] = minor;
+        currency[size] = packCurrency(currencyCode);
+        captureStart[size + 1] = start + capture.length;
+        size++;
+    }
+
+    void seal() {
+        int capacity = Integer.highestOneBit(Math.max(16, size * 2 - 1)) << 1; // load factor <= 0.5
+        table = new int[capacity];
+        tableHash = new long[capacity];
+        mask = capacity - 1;
+        ambiguous = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            long h = hash(arena, captureStart[i], captureStart[i + 1]);
+            int slot = (int) h & mask;
+            while (true) {
+                int e = table[slot] - 1;
+                if (e < 0) {
+                    table[slot] = i + 1;
+                    tableHash[slot] = h;
+                    break;
+                }
+                if (tableHash[slot] == h && equalsArena(e, arena, captureStart[i], captureStart[i + 1])) {
+                    ambiguous[e] = true; // same capture id under two merchants; keep the first, flag it
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+    }
+
+    int size() { return size; }
+
+    /** Payout index for the capture id in buf[from, to), or NOT_FOUND / AMBIGUOUS. */
+    int find(ByteBuffer buf, int from, int to) {
+        long h = hash(buf, from, to);
+        int slot = (int) h & mask;
+        while (true) {
+            int e = table[slot] - 1;
+            if (e < 0) return NOT_FOUND;
+            if (tableHash[slot] == h && equalsBuffer(e, buf, from, to)) return ambiguous[e] ? AMBIGUOUS : e;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    UUID id(int i) { return new UUID(idHi[i], idLo[i]); }
+    String captureId(int i) {
+        return new String(arena, captureStart[i], captureStart[i + 1] - captureStart[i], StandardCharsets.UTF_8);
+    }
+    long amountMinor(int i) { return amountMinor[i]; }
+    int currency(int i) { return currency[i]; }
+
+    static int packCurrency(String code) {
+        return (code.charAt(0) & 0xFF) << 16 | (code.charAt(1) & 0xFF) << 8 | (code.charAt(2) & 0xFF);
+    }
+
+    static String unpackCurrency(int packed) {
+        return new String(new char[]{ (char) (packed >>> 16 & 0xFF), (char) (packed >>> 8 & 0xFF), (char) (packed & 0xFF) });
+    }
+
+    private boolean equalsArena(int e, byte[] other, int from, int to) {
+        int s = captureStart[e], len = captureStart[e + 1] - s;
+        return len == to - from && Arrays.equals(arena, s, s + len, other, from, to);
+    }
+
+    private boolean equalsBuffer(int e, ByteBuffer buf, int from, int to) {
+        int s = captureStart[e], len = captureStart[e + 1] - s;
+        if (len != to - from) return false;
+        for (int i = 0; i < len; i++) {
+            if (arena[s + i] != buf.get(from + i)) return false;
+        }
+        return true;
+    }
+
+    // FNV-1a, then a murmur3 finalizer so the low bits (the slot) are well mixed
+    private static long hash(byte[] b, int from, int to) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = from; i < to; i++) h = (h ^ (b[i] & 0xFF)) * 0x100000001b3L;
+        return mix(h);
+    }
+
+    private static long hash(ByteBuffer b, int from, int to) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = from; i < to; i++) h = (h ^ (b.get(i) & 0xFF)) * 0x100000001b3L;
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    private void grow() {
+        int n = idHi.length * 2;
+        idHi = Arrays.copyOf(idHi, n);
+        idLo = Arrays.copyOf(idLo, n);
+        amountMinor = Arrays.copyOf(amountMinor, n);
+        currency = Arrays.copyOf(currency, n);
+        captureStart = Arrays.copyOf(captureStart, n + 1);
+    }
+}
@@ -0,0 +1,483 @@
+package com.sam.finflow.reconciliation;
+
+import com.sam.finflow.domain.payout.MerchantPayout;
+import com.sam.finflow.domain.payout.MerchantPayoutService;
+import com.sam.finflow.domain.payout.MerchantPayoutService.TransitionOutcome;
+import com.sam.finflow.domain.payout.MerchantPayoutService.TransitionResult;
+import com.sam.finflow.domain.payout.PayoutArchiveRepository;
+import com.sam.finflow.reconciliation.Mismatch.Reason;
+import com.sam.finflow.util.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Reconciles a bank confirmation file against merchant_payouts in four steps:
+ * <ol>
+ *   <li>index every PROCESSING payout by capture id ({@link ProcessingIndex}, one cursor pass)</li>
+ *   <li>memory-map the file and parse newline-aligned chunks in parallel, matching each line against the index
+ *       (amount, currency, duplicate lines) without allocating per line</li>
+ *   <li>apply the matched settlements and failures through {@link MerchantPayoutService#transitionAll},
+ *       a few thousand ids per transaction, so outbox/projection/cache see them like any other transition</li>
+ *   <li>write every line that could not be applied, with the reason, to a CSV report</li>
+ * </ol>
+ *
+ * Input: one confirmation per line, {@code capture_id,amount,currency,status} with status SETTLED or FAILED,
+ * amount as a plain decimal in the currency's units. An optional first line starting with "capture_id" is a header.
+ */
+@Component
+public class ReconciliationEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(ReconciliationEngine.class);
+    private static final long MAX_CHUNK_BYTES = 1L << 30; // one mapping per chunk must stay under 2 GB
+    private static final int LOOKUP_BATCH = 1000;
+
+    /** Summary of one run. */
+    public record Result(long lines, int indexed, long settled, long failed, long mismatches,
+                         Path report, Duration elapsed) {}
+
+    private final MerchantPayoutService payouts;
+    private final PayoutArchiveRepository archive;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate readOnlyTx;
+    private final int parallelism;
+    private final int applyBatch;
+
+    public ReconciliationEngine(MerchantPayoutService payouts,
+                                PayoutArchiveRepository archive,
+                                DataSource dataSource,
+                                PlatformTransactionManager txManager,
+                                @Value("${finflow.reconciliation.parallelism:0}") int parallelism,
+                                @Value("${finflow.reconciliation.fetch-size:10000}") int fetchSize,
+                                @Value("${finflow.reconciliation.apply-batch:5000}") int applyBatch) {
+        this.payouts = payouts;
+        this.archive = archive;
+        // Own template: Postgres only streams with a fetch size inside a transaction (autocommit off)
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.jdbc.setFetchSize(fetchSize);
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.applyBatch = applyBatch;
+    }
+
+    public Result reconcile(Path input, Path report) throws IOException {
+        long started = System.nanoTime();
+        ProcessingIndex index = loadIndex();
+        log.info("reconciliation: indexed {} PROCESSING payouts in {} ms", index.size(),
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+
+        AtomicLongArray claimed = new AtomicLongArray((index.size() + 63) / 64);
+        List<ChunkResult> chunks = parseAll(input, index, claimed);
+
+        // Chunk-local line numbers -> file line numbers
+        List<Mismatch> mismatches = new ArrayList<>();
+        long base = 0;
+        for (ChunkResult c : chunks) {
+            for (Mismatch m : c.mismatches) mismatches.add(new Mismatch(base + m.line(), m.captureId(), m.reason(), m.detail()));
+            for (Unmatched u : c.unmatched) u.line += base;
+            c.settledLines.shift(base);
+            c.failedLines.shift(base);
+            base += c.lines;
+        }
+        resolveUnmatched(chunks, mismatches);
+
+        long settled = apply(chunks, true, index, mismatches);
+        long failed = apply(chunks, false, index, mismatches);
+
+        mismatches.sort(Comparator.comparingLong(Mismatch::line));
+        writeReport(report, mismatches);
+        Result r = new Result(base, index.size(), settled, failed, mismatches.size(), report,
+                Duration.ofNanos(System.nanoTime() - started));
+        log.info("reconciliation done: {}", r);
+        return r;
+    }
+
+    // ----- 1. Index -----
+
+    private ProcessingIndex loadIndex() {
+        ProcessingIndex index = new ProcessingIndex();
+        readOnlyTx.executeWithoutResult(s -> jdbc.query(
+                "SELECT id, capture_id, amount, currency FROM merchant_payouts WHERE status = 'PROCESSING'",
+                rs -> {
+                    String currency = rs.getString(4);
+                    index.add(rs.getObject(1, UUID.class), rs.getString(2),
+                            Money.toMinor(rs.getBigDecimal(3), Money.exponentOf(currency)), currency);
+                }));
+        index.seal();
+        return index;
+    }
+
+    // ----- 2. Parse + match -----
+
+    private List<ChunkResult> parseAll(Path input, ProcessingIndex index, AtomicLongArray claimed) throws IOException {
+        try (FileChannel ch = FileChannel.open(input, StandardOpenOption.READ);
+             ExecutorService workers = Executors.newFixedThreadPool(parallelism)) { // CPU-bound: platform threads
+            long[] bounds = chunkBounds(ch);
+            List<Future<ChunkResult>> futures = new ArrayList<>(bounds.length - 1);
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                long from = bounds[i], to = bounds[i + 1];
+                boolean first = i == 0;
+                futures.add(workers.submit(() -> parseChunk(ch, from, to, first, index, claimed)));
+            }
+            List<ChunkResult> results = new ArrayList<>(futures.size());
+            for (Future<ChunkResult> f : futures) results.add(f.get());
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("reconciliation interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new IllegalStateException("reconciliation parse failed", e.getCause());
+        }
+    }
+
+    // Split points just after a '\n', so every chunk holds whole lines
+    private long[] chunkBounds(FileChannel ch) throws IOException {
+        long size = ch.size();
+        int n = (int) Math.max(parallelism * 4L, (size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+        long[] bounds = new long[n + 1];
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        int count = 1;
+        for (int k = 1; k < n; k++) {
+            long pos = Math.max(size / n * k, bounds[count - 1]);
+            long cut = size;
+            scan:
+            while (pos < size) {
+                probe.clear();
+                int read = ch.read(probe, pos);
+                if (read <= 0) break;
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        cut = pos + i + 1;
+                        break scan;
+                    }
+                }
+                pos += read;
+            }
+            if (cut > bounds[count - 1] && cut < size) bounds[count++] = cut;
+        }
+        bounds[count++] = size;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private ChunkResult parseChunk(FileChannel ch, long from, long to, boolean first,
+                                   ProcessingIndex index, AtomicLongArray claimed) throws IOException {
+        ChunkResult out = new ChunkResult();
+        if (to <= from) return out;
+        MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        AsciiSlice text = new AsciiSlice(buf);
+        Map<Integer, Integer> exponents = new HashMap<>(); // packed currency -> minor digits
+        int n = buf.limit();
+        int pos = 0;
+        while (pos < n) {
+            int eol = pos;
+            while (eol < n && buf.get(eol) != '\n') eol++;
+            int end = eol > pos && buf.get(eol - 1) == '\r' ? eol - 1 : eol;
+            out.lines++;
+            boolean header = first && out.lines == 1 && startsWith(buf, pos, end, "capture_id");
+            if (end > pos && !header) matchLine(buf, text, pos, end, out, index, claimed, exponents);
+            pos = eol + 1;
+        }
+        return out;
+    }
+
+    private void matchLine(ByteBuffer buf, AsciiSlice text, int from, int to, ChunkResult out,
+                           ProcessingIndex index, AtomicLongArray claimed, Map<Integer, Integer> exponents) {
+        long line = out.lines;
+        int c1 = indexOf(buf, from, to, ','), c2 = c1 < 0 ? -1 : indexOf(buf, c1 + 1, to, ',');
+        int c3 = c2 < 0 ? -1 : indexOf(buf, c2 + 1, to, ',');
+        if (c3 < 0 || c1 == from || c3 - c2 != 4 || indexOf(buf, c3 + 1, to, ',') >= 0) {
+            out.mismatches.add(new Mismatch(line, c1 > from ? text.string(from, c1) : null, Reason.MALFORMED,
+                    "expected capture_id,amount,currency,status"));
+            return;
+        }
+        boolean settled;
+        if (startsWith(buf, c3 + 1, to, "SETTLED") && to - c3 - 1 == 7) settled = true;
+        else if (startsWith(buf, c3 + 1, to, "FAILED") && to - c3 - 1 == 6) settled = false;
+        else {
+            out.mismatches.add(new Mismatch(line, text.string(from, c1), Reason.MALFORMED, "status must be SETTLED or FAILED"));
+            return;
+        }
+
+        int currency = (buf.get(c2 + 1) & 0xFF) << 16 | (buf.get(c2 + 2) & 0xFF) << 8 | (buf.get(c2 + 3) & 0xFF);
+        int exponent = exponents.computeIfAbsent(currency, c -> Money.exponentOf(ProcessingIndex.unpackCurrency(c)));
+        long minor;
+        try {
+            minor = Money.parseMinor(text.at(c1 + 1, c2), 0, c2 - c1 - 1, exponent);
+        } catch (NumberFormatException | ArithmeticException e) {
+            out.mismatches.add(new Mismatch(line, text.string(from, c1), Reason.MALFORMED, e.getMessage()));
+            return;
+        }
+
+        int p = index.find(buf, from, c1);
+        if (p == ProcessingIndex.NOT_FOUND) {
+            out.unmatched.add(new Unmatched(line, text.string(from, c1)));
+            return;
+        }
+        if (p == ProcessingIndex.AMBIGUOUS) {
+            out.mismatches.add(new Mismatch(line, text.string(from, c1), Reason.AMBIGUOUS_CAPTURE,
+                    "PROCESSING under more than one merchant"));
+            return;
+        }
+        if (index.currency(p) != currency) {
+            out.mismatches.add(new Mismatch(line, text.string(from, c1), Reason.CURRENCY_MISMATCH,
+                    "expected " + ProcessingIndex.unpackCurrency(index.currency(p)) + ", file has " + ProcessingIndex.unpackCurrency(currency)));
+            return;
+        }
+        if (index.amountMinor(p) != minor) {
+            out.mismatches.add(new Mismatch(line, text.string(from, c1), Reason.AMOUNT_MISMATCH,
+                    "expected " + Money.appendTo(new StringBuilder(), index.amountMinor(p), exponent)
+                            + ", file has " + text.string(c1 + 1, c2)));
+            return;
+        }
+        if (!claim(claimed, p)) {
+            out.mismatches.add(new Mismatch(line, text.string(from, c1), Reason.DUPLICATE_LINE,
+                    "payout already confirmed by another line"));
+            return;
+        }
+        if (settled) {
+            out.settled.add(p);
+            out.settledLines.add(line);
+        } else {
+            out.failed.add(p);
+            out.failedLines.add(line);
+        }
+    }
+
+    // First line to confirm a payout wins, whichever chunk it is in
+    private static boolean claim(AtomicLongArray bits, int i) {
+        int word = i >>> 6;
+        long mask = 1L << (i & 63);
+        while (true) {
+            long cur = bits.get(word);
+            if ((cur & mask) != 0) return false;
+            if (bits.compareAndSet(word, cur, cur | mask)) return true;
+        }
+    }
+
+    // ----- 3. Lines with no PROCESSING payout: unknown, not sent yet, or already terminal (archived included) -----
+
+    private void resolveUnmatched(List<ChunkResult> chunks, List<Mismatch> mismatches) {
+        Map<String, List<Long>> linesByCapture = new HashMap<>();
+        for (ChunkResult c : chunks) {
+            for (Unmatched u : c.unmatched) linesByCapture.computeIfAbsent(u.captureId, k -> new ArrayList<>(1)).add(u.line);
+        }
+        List<String> captures = new ArrayList<>(linesByCapture.keySet());
+        Map<String, Set<MerchantPayout.Status>> statuses = new HashMap<>();
+        for (int i = 0; i < captures.size(); i += LOOKUP_BATCH) {
+            List<String> batch = captures.subList(i, Math.min(captures.size(), i + LOOKUP_BATCH));
+            String in = String.join(",", Collections.nCopies(batch.size(), "?"));
+            readOnlyTx.executeWithoutResult(s -> {
+                jdbc.query("SELECT capture_id, status FROM merchant_payouts WHERE capture_id IN (" + in + ")",
+                        rs -> {
+                            statuses.computeIfAbsent(rs.getString(1), k -> EnumSet.noneOf(MerchantPayout.Status.class))
+                                    .add(MerchantPayout.Status.valueOf(rs.getString(2)));
+                        }, batch.toArray());
+                // Archived payouts are finished: a capture found only there is ALREADY_TERMINAL, not unknown
+                List<String> missing = batch.stream().filter(c -> !statuses.containsKey(c)).toList();
+                archive.findStatusesByCapture(missing).forEach((capture, st) -> statuses.put(capture, st));
+            });
+        }
+        linesByCapture.forEach((capture, lines) -> {
+            Set<MerchantPayout.Status> st = statuses.get(capture);
+            Reason reason = st == null ? Reason.UNKNOWN_CAPTURE
+                    : st.contains(MerchantPayout.Status.PENDING) || st.contains(MerchantPayout.Status.PROCESSING)
+                    ? Reason.NOT_PROCESSING : Reason.ALREADY_TERMINAL;
+            String detail = st == null ? "no payout with this capture id" : "status " + st;
+            for (long line : lines) mismatches.add(new Mismatch(line, capture, reason, detail));
+        });
+    }
+
+    // ----- 4. Apply -----
+
+    private long apply(List<ChunkResult> chunks, boolean settle, ProcessingIndex index, List<Mismatch> mismatches) {
+        MerchantPayout.Status target = settle ? MerchantPayout.Status.SETTLED : MerchantPayout.Status.FAILED;
+        IntList all = new IntList();
+        LongList lines = new LongList(); // file line of each entry in all
+        for (ChunkResult c : chunks) {
+            all.addAll(settle ? c.settled : c.failed);
+            lines.addAll(settle ? c.settledLines : c.failedLines);
+        }
+
+        long applied = 0;
+        List<UUID> ids = new ArrayList<>(applyBatch);
+        for (int start = 0; start < all.size(); start += applyBatch) {
+            int end = Math.min(all.size(), start + applyBatch);
+            ids.clear();
+            for (int i = start; i < end; i++) ids.add(index.id(all.get(i)));
+            List<TransitionResult> results = payouts.transitionAll(ids, target);
+            for (int i = 0; i < results.size(); i++) {
+                TransitionResult r = results.get(i);
+                if (r.outcome() == TransitionOutcome.APPLIED) {
+                    applied++;
+                    continue;
+                }
+                // It moved between indexing and applying (another worker, a PATCH, an earlier file)
+                long line = lines.get(start + i);
+                String captureId = index.captureId(all.get(start + i));
+                Reason reason = switch (r.outcome()) {
+                    case NOT_FOUND -> Reason.UNKNOWN_CAPTURE;
+                    case IN_OPEN_BATCH -> Reason.IN_OPEN_BATCH;
+                    default -> Reason.ALREADY_TERMINAL;
+                };
+                String detail = r.outcome() == TransitionOutcome.IN_OPEN_BATCH
+                        ? "payout " + r.id() + " is in an open disbursement batch; finish the batch instead"
+                        : "payout " + r.id() + " is " + r.status();
+                mismatches.add(new Mismatch(line, captureId, reason, detail));
+            }
+        }
+        return applied;
+    }
+
+    // ----- 5. Report -----
+
+    private static void writeReport(Path report, List<Mismatch> mismatches) throws IOException {
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        try (BufferedWriter w = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+            w.write("line,capture_id,reason,detail\n");
+            for (Mismatch m : mismatches) {
+                w.write(Long.toString(m.line()));
+                w.write(',');
+                w.write(csv(m.captureId()));
+                w.write(',');
+                w.write(m.reason().name());
+                w.write(',');
+                w.write(csv(m.detail()));
+                w.write('\n');
+            }
+        }
+    }
+
+    private static String csv(String s) {
+        if (s == null) return "";
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0) return s;
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+
+    // ----- Parsing helpers -----
+
+    private static int indexOf(ByteBuffer buf, int from, int to, char c) {
+        for (int i = from; i < to; i++) if (buf.get(i) == c) return i;
+        return -1;
+    }
+
+    private static boolean startsWith(ByteBuffer buf, int from, int to, String prefix) {
+        if (to - from < prefix.length()) return false;
+        for (int i = 0; i < prefix.length(); i++) if (buf.get(from + i) != prefix.charAt(i)) return false;
+        return true;
+    }
+
+    /** Per-chunk output; line numbers are chunk-local until merged. */
+    private static final class ChunkResult {
+        long lines;
+        final IntList settled = new IntList();
+        final IntList failed = new IntList();
+        final LongList settledLines = new LongList(); // parallel to settled
+        final LongList failedLines = new LongList();
+        final List<Mismatch> mismatches = new ArrayList<>();
+        final List<Unmatched> unmatched = new ArrayList<>();
+    }
+
+    private static final class Unmatched {
+        long line;
+        final String captureId;
+
+        Unmatched(long line, String captureId) {
+            this.line = line;
+            this.captureId = captureId;
+        }
+    }
+
+    /** Zero-copy CharSequence over ASCII bytes of the mapped file, so Money.parseMinor can read amounts in place. */
+    private static final class AsciiSlice implements CharSequence {
+        private final ByteBuffer buf;
+        private int from, to;
+
+        AsciiSlice(ByteBuffer buf) { this.buf = buf; }
+
+        AsciiSlice at(int from, int to) {
+            this.from = from;
+            this.to = to;
+            return this;
+        }
+
+        String string(int from, int to) {
+            byte[] b = new byte[to - from];
+            buf.get(from, b);
+            return new String(b, StandardCharsets.UTF_8);
+        }
+
+        @Override public int length() { return to - from; }
+        @Override public char charAt(int i) { return (char) (buf.get(from + i) & 0xFF); }
+        @Override public CharSequence subSequence(int s, int e) { return string(from + s, from + e); }
+        @Override public String toString() { return string(from, to); }
+    }
+
+    private static final class IntList {
+        private int[] a = new int[256];
+        private int n;
+
+        void add(int v) {
+            if (n == a.length) a = Arrays.copyOf(a, n * 2);
+            a[n++] = v;
+        }
+        void addAll(IntList o) {
+            if (n + o.n > a.length) a = Arrays.copyOf(a, Math.max(a.length * 2, n + o.n));
+            System.arraycopy(o.a, 0, a, n, o.n);
+            n += o.n;
+        }
+        int get(int i) { return a[i]; }
+        int size() { return n; }
+    }
+
+    private static final class LongList {
+        private long[] a = new long[256];
+        private int n;
+
+        void add(long v) {
+            if (n == a.length) a = Arrays.copyOf(a, n * 2);
+            a[n++] = v;
+        }
+        void addAll(LongList o) {
+            if (n + o.n > a.length) a = Arrays.copyOf(a, Math.max(a.length * 2, n + o.n));
+            System.arraycopy(o.a, 0, a, n, o.n);
+            n += o.n;
+        }
+        void shift(long delta) {
+            for (int i = 0; i < n; i++) a[i] += delta;
+        }
+        long get(int i) { return a[i]; }
+    }
+}
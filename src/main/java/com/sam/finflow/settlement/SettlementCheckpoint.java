@@ -0,0 +1,70 @@
+package com.sam.finflow.settlement;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Export progress after the last fully written payout: where the file ends, the keyset position to resume
+ * the query from, and the running totals of the open (account, currency) group.
+ * Saved next to the .part file (write tmp + atomic rename) only after the file bytes it describes are forced to disk.
+ */
+final class SettlementCheckpoint {
+
+    long bytes;
+    long rows;
+    long groups;
+    UUID lastAccount;   // keyset position: (account, currency, id) of the last D record, null before the first
+    String lastCurrency;
+    UUID lastId;
+    long groupRows;     // open group = (lastAccount, lastCurrency)
+    long groupMinor;
+
+    boolean started() { return lastId != null; }
+
+    /** @return null when there is nothing to resume */
+    static SettlementCheckpoint load(Path file) throws IOException {
+        if (!Files.exists(file)) return null;
+        SettlementCheckpoint c = new SettlementCheckpoint();
+        Properties p = new Properties();
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            p.load(in);
+        }
+        c.bytes = Long.parseLong(p.getProperty("bytes"));
+        c.rows = Long.parseLong(p.getProperty("rows"));
+        c.groups = Long.parseLong(p.getProperty("groups"));
+        c.groupRows = Long.parseLong(p.getProperty("groupRows"));
+        c.groupMinor = Long.parseLong(p.getProperty("groupMinor"));
+        if (p.getProperty("lastId") != null) {
+            c.lastAccount = UUID.fromString(p.getProperty("lastAccount"));
+            c.lastCurrency = p.getProperty("lastCurrency");
+            c.lastId = UUID.fromString(p.getProperty("lastId"));
+        }
+        return c;
+    }
+
+    void save(Path file) throws IOException {
+        Properties p = new Properties();
+        p.setProperty("bytes", Long.toString(bytes));
+        p.setProperty("rows", Long.toString(rows));
+        p.setProperty("groups", Long.toString(groups));
+        p.setProperty("groupRows", Long.toString(groupRows));
+        p.setProperty("groupMinor", Long.toString(groupMinor));
+        if (lastId != null) {
+            p.setProperty("lastAccount", lastAccount.toString());
+            p.setProperty("lastCurrency", lastCurrency);
+            p.setProperty("lastId", lastId.toString());
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            p.store(out, null);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
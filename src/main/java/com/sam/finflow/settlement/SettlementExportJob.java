@@ -0,0 +1,203 @@
+package com.sam.finflow.settlement;
+
+import com.sam.finflow.util.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Writes the daily settlement file: every payout that became SETTLED on a UTC day, ordered and subtotalled
+ * by (merchantSettlementAccountId, currency).
+ *
+ * Rows come from a server-side cursor (fetch-size rows per round trip) and go out through a direct buffer,
+ * so memory stays flat however many payouts there are. The file is built as {name}.part and renamed when done.
+ * Every checkpoint-every rows the bytes are forced to disk and a checkpoint is saved; an interrupted export
+ * truncates the .part back to the checkpoint and continues the query after the last written payout.
+ */
+@Component
+public class SettlementExportJob {
+
+    private static final Logger log = LoggerFactory.getLogger(SettlementExportJob.class);
+
+    private static final String QUERY = """
+            SELECT merchant_settlement_account_id, currency, id, merchant_id, capture_id, amount, updated_at
+            FROM merchant_payouts
+            WHERE status = 'SETTLED' AND updated_at >= ? AND updated_at < ?
+            """;
+    private static final String AFTER = " AND (merchant_settlement_account_id, currency, id) > (?, ?, ?)";
+    private static final String ORDER = " ORDER BY merchant_settlement_account_id, currency, id";
+
+    /** Outcome of one export call. resumed: continued from a checkpoint; rows/groups are -1 if the file already existed. */
+    public record Result(Path file, long rows, long groups, long bytes, boolean resumed) {}
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate readOnlyTx;
+    private final Path dir;
+    private final int bufferSize;
+    private final int checkpointEvery;
+    private final SettlementFormat scheduledFormat;
+
+    public SettlementExportJob(DataSource dataSource,
+                               PlatformTransactionManager txManager,
+                               @Value("${finflow.settlement.dir:settlements}") Path dir,
+                               @Value("${finflow.settlement.fetch-size:10000}") int fetchSize,
+                               @Value("${finflow.settlement.buffer-size:4194304}") int bufferSize,
+                               @Value("${finflow.settlement.checkpoint-every:100000}") int checkpointEvery,
+                               @Value("${finflow.settlement.format:CSV}") SettlementFormat scheduledFormat) {
+        // Own template: Postgres only streams with a fetch size inside a transaction (autocommit off)
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.jdbc.setFetchSize(fetchSize);
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.dir = dir;
+        this.bufferSize = bufferSize;
+        this.checkpointEvery = checkpointEvery;
+        this.scheduledFormat = scheduledFormat;
+    }
+
+    //Yesterday's file, shortly after midnight UTC
+    @Scheduled(cron = "${finflow.settlement.cron:-}", zone = "UTC")
+    public void scheduled() throws IOException {
+        Result r = export(LocalDate.now(ZoneOffset.UTC).minusDays(1), scheduledFormat);
+        log.info("settlement export done: {}", r);
+    }
+
+    /** The finished file for day/format; it may not exist yet. */
+    public Path fileFor(LocalDate day, SettlementFormat format) {
+        return dir.resolve("settlement-" + day + "." + format.extension());
+    }
+
+    /**
+     * Builds (or finishes) the file for day. Returns at once if it is already complete.
+     * @throws IllegalArgumentException if day is today or later (UTC): payouts can still settle on it
+     * @throws IllegalStateException if another export of the same file is running
+     */
+    public Result export(LocalDate day, SettlementFormat format) throws IOException {
+        // A finished file is never rebuilt, so one for a day still in progress would stay short for good
+        if (!day.isBefore(LocalDate.now(ZoneOffset.UTC))) {
+            throw new IllegalArgumentException("settlement day " + day + " is not over yet (UTC)");
+        }
+        Path done = fileFor(day, format);
+        if (Files.exists(done)) return new Result(done, -1, -1, Files.size(done), false);
+        Files.createDirectories(dir);
+        Path part = done.resolveSibling(done.getFileName() + ".part");
+        Path checkpointFile = done.resolveSibling(done.getFileName() + ".ckpt");
+
+        Result result;
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock lock = channel.tryLock()) { // also guards against another node on a shared volume
+            if (lock == null) throw new IllegalStateException("settlement export already running: " + done.getFileName());
+
+            SettlementCheckpoint cp = SettlementCheckpoint.load(checkpointFile);
+            boolean resumed = cp != null;
+            if (cp == null) cp = new SettlementCheckpoint();
+            channel.truncate(cp.bytes); // drop anything written after the checkpoint
+            channel.position(cp.bytes);
+
+            SettlementFileWriter out = new SettlementFileWriter(channel, bufferSize);
+            StringBuilder line = new StringBuilder(256);
+            if (!resumed) {
+                format.header(line, day);
+                out.write(line);
+            }
+            stream(day, format, cp, out, line, checkpointFile);
+
+            if (cp.started()) {
+                line.setLength(0);
+                format.subtotal(line, cp.lastAccount, cp.lastCurrency, cp.groupRows, cp.groupMinor);
+                out.write(line);
+                cp.groups++;
+            }
+            line.setLength(0);
+            format.trailer(line, cp.rows, cp.groups);
+            out.write(line);
+            out.sync();
+            result = new Result(done, cp.rows, cp.groups, channel.size(), resumed);
+        }
+        Files.move(part, done, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(checkpointFile);
+        return result;
+    }
+
+    private void stream(LocalDate day, SettlementFormat format, SettlementCheckpoint cp,
+                        SettlementFileWriter out, StringBuilder line, Path checkpointFile) {
+        Timestamp from = Timestamp.from(day.atStartOfDay(ZoneOffset.UTC).toInstant());
+        Timestamp to = Timestamp.from(day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+        boolean resume = cp.started();
+        String sql = QUERY + (resume ? AFTER : "") + ORDER;
+
+        readOnlyTx.executeWithoutResult(s -> jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setTimestamp(1, from);
+            ps.setTimestamp(2, to);
+            if (resume) {
+                ps.setObject(3, cp.lastAccount);
+                ps.setString(4, cp.lastCurrency);
+                ps.setObject(5, cp.lastId);
+            }
+            return ps;
+        }, rs -> {
+            String currency = rs.getString(2);
+            SettlementRow row = new SettlementRow(
+                    rs.getObject(1, UUID.class),
+                    rs.getObject(3, UUID.class),
+                    rs.getObject(4, UUID.class),
+                    rs.getString(5),
+                    Money.toMinor(rs.getBigDecimal(6), Money.exponentOf(currency)),
+                    currency,
+                    rs.getObject(7, OffsetDateTime.class));
+            try {
+                boolean newGroup = !row.settlementAccountId().equals(cp.lastAccount) || !currency.equals(cp.lastCurrency);
+                if (newGroup && cp.started()) {
+                    line.setLength(0);
+                    format.subtotal(line, cp.lastAccount, cp.lastCurrency, cp.groupRows, cp.groupMinor);
+                    out.write(line);
+                    cp.groups++;
+                }
+                if (newGroup) {
+                    cp.groupRows = 0;
+                    cp.groupMinor = 0;
+                }
+                line.setLength(0);
+                format.detail(line, row);
+                out.write(line);
+
+                cp.rows++;
+                cp.groupRows++;
+                cp.groupMinor = Money.addMinor(cp.groupMinor, row.amountMinor());
+                cp.lastAccount = row.settlementAccountId();
+                cp.lastCurrency = currency;
+                cp.lastId = row.payoutId();
+
+                if (cp.rows % checkpointEvery == 0) {
+                    out.sync();
+                    cp.bytes = out.position();
+                    cp.save(checkpointFile);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+}
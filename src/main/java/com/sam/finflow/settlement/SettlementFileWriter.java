@@ -0,0 +1,55 @@
+package com.sam.finflow.settlement;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Appends text records to a FileChannel through one large direct buffer: records are encoded straight into
+ * off-heap memory and handed to the OS in big sequential writes, with no per-line allocation on the ASCII path.
+ */
+final class SettlementFileWriter {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+    SettlementFileWriter(FileChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /** Bytes written so far, including what is still buffered. */
+    long position() throws IOException {
+        return channel.position() + buffer.position();
+    }
+
+    void write(CharSequence text) throws IOException {
+        int n = text.length();
+        if (buffer.remaining() < n * 3) flush(); // worst case 3 UTF-8 bytes per char
+        if (buffer.remaining() < n * 3) { // longer than the whole buffer
+            channel.write(ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8)));
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) { // rare: let the JDK encode the non-ASCII remainder
+                buffer.put(text.subSequence(i, n).toString().getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            buffer.put((byte) c);
+        }
+    }
+
+    void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    /** Flush and make the bytes durable (before a checkpoint claims them). */
+    void sync() throws IOException {
+        flush();
+        channel.force(false);
+    }
+}
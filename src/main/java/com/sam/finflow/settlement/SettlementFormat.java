@@ -0,0 +1,116 @@
+package com.sam.finflow.settlement;
+
+import com.sam.finflow.util.Money;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+/**
+ * Record layouts of the settlement file. Both formats carry the same records, one per line:
+ * H header, D payout, T subtotal per (settlement account, currency), F file trailer.
+ */
+public enum SettlementFormat {
+
+    /** Comma-separated, first column is the record type. */
+    CSV("csv") {
+        @Override void header(StringBuilder out, LocalDate day) {
+            out.append("H,").append(day).append('\n')
+               .append("type,settlement_account_id,payout_id,merchant_id,capture_id,amount,currency,settled_at\n");
+        }
+        @Override void detail(StringBuilder out, SettlementRow r) {
+            out.append("D,").append(r.settlementAccountId()).append(',').append(r.payoutId()).append(',')
+               .append(r.merchantId()).append(',');
+            quoted(out, r.captureId()).append(',');
+            Money.appendTo(out, r.amountMinor(), Money.exponentOf(r.currency())).append(',')
+               .append(r.currency()).append(',').append(SETTLED_AT.format(r.settledAt())).append('\n');
+        }
+        @Override void subtotal(StringBuilder out, UUID account, String currency, long count, long minor) {
+            out.append("T,").append(account).append(',').append(count).append(',');
+            Money.appendTo(out, minor, Money.exponentOf(currency)).append(',').append(currency).append('\n');
+        }
+        @Override void trailer(StringBuilder out, long rows, long groups) {
+            out.append("F,").append(rows).append(',').append(groups).append('\n');
+        }
+    },
+
+    /**
+     * Fixed-width bank layout: every line is 1 + the widths below, space padded, amounts as signed minor units
+     * zero-padded to 18 digits. D = type, account 36, payout 36, merchant 36, capture 64, amount 19, currency 3, settled 20.
+     */
+    FIXED_WIDTH("txt") {
+        @Override void header(StringBuilder out, LocalDate day) {
+            out.append('H').append(day.format(DateTimeFormatter.BASIC_ISO_DATE)).append('\n');
+        }
+        @Override void detail(StringBuilder out, SettlementRow r) {
+            out.append('D').append(r.settlementAccountId()).append(r.payoutId()).append(r.merchantId());
+            padRight(out, r.captureId(), 64);
+            amount(out, r.amountMinor());
+            out.append(r.currency()).append(SETTLED_AT.format(r.settledAt())).append('\n');
+        }
+        @Override void subtotal(StringBuilder out, UUID account, String currency, long count, long minor) {
+            out.append('T').append(account);
+            zeroPadded(out, count, 12);
+            amount(out, minor);
+            out.append(currency).append('\n');
+        }
+        @Override void trailer(StringBuilder out, long rows, long groups) {
+            out.append('F');
+            zeroPadded(out, rows, 12);
+            zeroPadded(out, groups, 12);
+            out.append('\n');
+        }
+    };
+
+    // Always 20 chars, e.g. 2026-10-18T11:08:00Z
+    private static final DateTimeFormatter SETTLED_AT = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ssX")
+            .withZone(ZoneOffset.UTC);
+
+    private final String extension;
+
+    SettlementFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String extension() { return extension; }
+
+    abstract void header(StringBuilder out, LocalDate day);
+    abstract void detail(StringBuilder out, SettlementRow r);
+    abstract void subtotal(StringBuilder out, UUID account, String currency, long count, long minor);
+    abstract void trailer(StringBuilder out, long rows, long groups);
+
+    private static StringBuilder quoted(StringBuilder out, String s) {
+        boolean plain = true;
+        for (int i = 0; i < s.length() && plain; i++) {
+            char c = s.charAt(i);
+            plain = c != ',' && c != '"' && c != '\n' && c != '\r';
+        }
+        if (plain) return out.append(s);
+        out.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"') out.append('"');
+            out.append(c);
+        }
+        return out.append('"');
+    }
+
+    private static void padRight(StringBuilder out, String s, int width) {
+        int n = Math.min(s.length(), width);
+        out.append(s, 0, n);
+        for (int i = n; i < width; i++) out.append(' ');
+    }
+
+    private static void amount(StringBuilder out, long minor) {
+        out.append(minor < 0 ? '-' : '+');
+        zeroPadded(out, Math.absExact(minor), 18);
+    }
+
+    private static void zeroPadded(StringBuilder out, long value, int width) {
+        int start = out.length();
+        out.append(value);
+        int digits = out.length() - start;
+        for (int i = digits; i < width; i++) out.insert(start, '0');
+    }
+}
@@ -0,0 +1,15 @@
+package com.sam.finflow.settlement;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/** One SETTLED payout as it appears in the file. amountMinor is in the currency's minor units. */
+record SettlementRow(
+        UUID settlementAccountId,
+        UUID payoutId,
+        UUID merchantId,
+        String captureId,
+        long amountMinor,
+        String currency,
+        OffsetDateTime settledAt
+) {}
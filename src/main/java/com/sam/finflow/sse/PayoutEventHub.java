@@ -0,0 +1,329 @@
+package com.sam.finflow.sse;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sam.finflow.domain.payout.MerchantPayout;
+import com.sam.finflow.domain.payout.PayoutChange;
+import com.sam.finflow.domain.payout.PayoutChangedEvent;
+import com.sam.finflow.dto.MerchantPayoutDto.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Committed payout transitions pushed to Server-Sent Events subscribers, so clients stop polling GET /{id}.
+ *
+ * After commit, each transition gets an event id ("node-seq" of the publishing node) and is published on a Redis
+ * channel. Every node, this one included, appends what it receives to its own {@link PayoutEventRing} and hands
+ * each event to the subscribers of its payout or merchant only, through their own bounded queue. Without Redis,
+ * or if the publish fails, events are delivered on this node only. Each subscriber is a virtual thread draining
+ * its queue to its connection, so a slow client only holds up its own thread. A client that falls more than
+ * subscriber-queue events behind is disconnected (finflow.sse.dropped) and resumes from the ring.
+ *
+ * Every node receives the same messages in the same order and keeps the publisher's ids, so a reconnect with
+ * Last-Event-ID continues where it left off on whichever node it lands, as long as that node still buffers the
+ * event (events delivered on the publishing node only, when Redis was down, resume there only). Otherwise the
+ * stream starts with a "reset" event: events were missed, re-read the current state.
+ */
+@Component
+public class PayoutEventHub {
+
+    private static final Logger log = LoggerFactory.getLogger(PayoutEventHub.class);
+    static final String CHANNEL = "finflow:sse:payouts";
+    private static final int MAX_EVENTS_PER_MESSAGE = 500; // bulk transitions publish in slices
+    private static final TypeReference<List<Published>> MESSAGE = new TypeReference<>() {};
+    private static final PayoutEventRing.Event CLOSED = new PayoutEventRing.Event("", null, null, "", "");
+
+    /** One transition as published: the id is assigned once, by the node that committed it. */
+    record Published(String id, Response payout) {}
+
+    private final PayoutEventRing ring;
+    // Guards the ring and the registrations: a subscriber gets every event after its resume point exactly once
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<UUID, Set<Subscription>> byMerchant = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<Subscription>> byPayout = new ConcurrentHashMap<>();
+    private final ObjectMapper json;
+    @Nullable private final StringRedisTemplate redis;
+    private final String node = Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 16);
+    private final AtomicLong published = new AtomicLong();
+    private final long timeoutMillis;
+    private final long heartbeatNanos;
+    private final int maxSubscribers;
+    private final int queueSize;
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Counter dropped;
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public PayoutEventHub(ObjectMapper json,
+                          ObjectProvider<StringRedisTemplate> redis,
+                          ObjectProvider<RedisMessageListenerContainer> listeners,
+                          MeterRegistry meters,
+                          @Value("${finflow.sse.redis.enabled:true}") boolean redisEnabled,
+                          @Value("${finflow.sse.buffer-size:65536}") int bufferSize,
+                          @Value("${finflow.sse.subscriber-queue:1024}") int queueSize,
+                          @Value("${finflow.sse.max-subscribers:10000}") int maxSubscribers,
+                          @Value("${finflow.sse.timeout:PT30M}") Duration timeout,
+                          @Value("${finflow.sse.heartbeat:PT15S}") Duration heartbeat) {
+        this.ring = new PayoutEventRing(bufferSize);
+        this.json = json;
+        RedisMessageListenerContainer container = redisEnabled ? listeners.getIfAvailable() : null;
+        this.redis = container != null ? redis.getIfAvailable() : null;
+        if (this.redis != null) {
+            container.addMessageListener((message, pattern) -> onMessage(message.getBody()), new ChannelTopic(CHANNEL));
+        }
+        this.timeoutMillis = timeout.toMillis();
+        this.heartbeatNanos = heartbeat.toNanos();
+        this.maxSubscribers = maxSubscribers;
+        this.queueSize = queueSize;
+        Gauge.builder("finflow.sse.subscribers", subscribers, AtomicInteger::get)
+                .description("open payout event streams on this node")
+                .register(meters);
+        this.dropped = Counter.builder("finflow.sse.dropped")
+                .description("payout event streams closed because the client fell behind its queue")
+                .register(meters);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void on(PayoutChangedEvent event) {
+        List<Published> transitions = new ArrayList<>();
+        for (PayoutChange c : event.changes()) {
+            if (!c.isCreation()) transitions.add(new Published(node + "-" + published.incrementAndGet(), Response.from(c)));
+        }
+        for (int from = 0; from < transitions.size(); from += MAX_EVENTS_PER_MESSAGE) {
+            List<Published> slice = transitions.subList(from, Math.min(transitions.size(), from + MAX_EVENTS_PER_MESSAGE));
+            if (redis != null) {
+                try {
+                    redis.convertAndSend(CHANNEL, json.writeValueAsString(slice));
+                    continue; // comes back through onMessage, like on every other node
+                } catch (Exception e) {
+                    log.warn("payout events: broadcast failed, delivering {} on this node only: {}", slice.size(), e.toString());
+                }
+            }
+            append(slice);
+        }
+    }
+
+    /** Transitions of every payout of the merchant. */
+    public SseEmitter subscribeMerchant(UUID merchantId, @Nullable String lastEventId) {
+        return subscribe(byMerchant, PayoutEventRing.Event::merchantId, merchantId, lastEventId, null);
+    }
+
+    /**
+     * Transitions of one payout, ending after SETTLED or FAILED. A new subscription (or one that can't resume)
+     * starts with the current state from current. That state is read after the subscription is registered, so a
+     * transition in between shows up twice, never zero times (compare version).
+     *
+     * @throws java.util.NoSuchElementException from current if the payout does not exist
+     */
+    public SseEmitter subscribePayout(UUID payoutId, @Nullable String lastEventId, Supplier<Response> current) {
+        return subscribe(byPayout, PayoutEventRing.Event::payoutId, payoutId, lastEventId, current);
+    }
+
+    /** @throws IllegalStateException if this node already serves max-subscribers streams */
+    private SseEmitter subscribe(Map<UUID, Set<Subscription>> index, Function<PayoutEventRing.Event, UUID> keyOf,
+                                 UUID key, @Nullable String lastEventId, @Nullable Supplier<Response> current) {
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new IllegalStateException("too many payout event streams on this node, retry later");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscription s = new Subscription(emitter, index, key, current != null);
+        boolean resumed;
+        lock.lock();
+        try {
+            List<PayoutEventRing.Event> missed = lastEventId != null
+                    ? ring.after(lastEventId, e -> key.equals(keyOf.apply(e)))
+                    : null;
+            resumed = missed != null && missed.size() <= queueSize;
+            if (resumed) missed.forEach(s::offer);
+            index.compute(key, (k, subs) -> {
+                if (subs == null) subs = ConcurrentHashMap.newKeySet();
+                subs.add(s);
+                return subs;
+            });
+        } finally {
+            lock.unlock();
+        }
+        try {
+            s.reset = lastEventId != null && !resumed;
+            s.initial = current != null && !resumed ? current.get() : null;
+            emitter.onCompletion(s::close);
+            emitter.onTimeout(s::close);
+            emitter.onError(t -> s.close());
+            senders.execute(s);
+            return emitter;
+        } catch (RuntimeException e) {
+            s.unregister();
+            subscribers.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void onMessage(byte[] body) {
+        try {
+            append(json.readValue(body, MESSAGE));
+        } catch (IOException e) {
+            log.debug("payout events: ignoring unreadable message", e);
+        }
+    }
+
+    // Only the subscribers of each event's merchant or payout are handed it; the others never wake
+    private void append(List<Published> events) {
+        List<PayoutEventRing.Event> ready = new ArrayList<>(events.size());
+        for (Published p : events) {
+            Response r = p.payout();
+            ready.add(new PayoutEventRing.Event(p.id(), r.merchantId(), r.id(), r.status(), write(r)));
+        }
+        lock.lock();
+        try {
+            for (PayoutEventRing.Event e : ready) {
+                ring.append(e);
+                offer(byMerchant.get(e.merchantId()), e);
+                offer(byPayout.get(e.payoutId()), e);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void offer(@Nullable Set<Subscription> subs, PayoutEventRing.Event e) {
+        if (subs != null) for (Subscription s : subs) s.offer(e);
+    }
+
+    private String write(Response r) {
+        try {
+            return json.writeValueAsString(r);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("cannot serialize payout event " + r.id(), e);
+        }
+    }
+
+    private static boolean isFinal(String status) {
+        return MerchantPayout.Status.SETTLED.name().equals(status) || MerchantPayout.Status.FAILED.name().equals(status);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow(); // interrupts the senders, which complete their streams
+    }
+
+    // One open stream: sends the events queued for it, plus a comment line every heartbeat
+    private final class Subscription implements Runnable {
+
+        private final SseEmitter emitter;
+        private final Map<UUID, Set<Subscription>> index;
+        private final UUID key;
+        private final boolean untilFinal;
+        private final BlockingQueue<PayoutEventRing.Event> queue;
+        // Set before the sender starts (executor hand-off publishes them)
+        private boolean reset;
+        @Nullable private Response initial;
+        private volatile boolean overflowed;
+        private volatile boolean closed;
+
+        Subscription(SseEmitter emitter, Map<UUID, Set<Subscription>> index, UUID key, boolean untilFinal) {
+            this.emitter = emitter;
+            this.index = index;
+            this.key = key;
+            this.untilFinal = untilFinal;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
+
+        // Appending thread, under the lock: never blocks. A full queue ends the stream once what it holds is sent
+        void offer(PayoutEventRing.Event e) {
+            if (overflowed) return;
+            if (!queue.offer(e)) {
+                overflowed = true;
+                unregister();
+            }
+        }
+
+        void unregister() {
+            index.computeIfPresent(key, (k, subs) -> {
+                subs.remove(this);
+                return subs.isEmpty() ? null : subs;
+            });
+        }
+
+        void close() {
+            closed = true;
+            queue.offer(CLOSED); // wakes the sender; if the queue is full it is awake anyway
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (reset) emitter.send(SseEmitter.event().name("reset").data("events were missed, re-read the current state"));
+                if (initial != null) {
+                    emitter.send(SseEmitter.event().name("payout").data(write(initial)));
+                    if (untilFinal && isFinal(initial.status())) {
+                        emitter.complete();
+                        return;
+                    }
+                }
+                long heartbeatAt = System.nanoTime() + heartbeatNanos;
+                while (!closed) {
+                    if (overflowed && queue.isEmpty()) { // fell behind: the client reconnects and resumes
+                        dropped.increment();
+                        emitter.complete();
+                        return;
+                    }
+                    PayoutEventRing.Event e = queue.poll(Math.max(1, heartbeatAt - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (e != null && e != CLOSED) {
+                        emitter.send(SseEmitter.event().id(e.id()).name("payout").data(e.data()));
+                        heartbeatAt = System.nanoTime() + heartbeatNanos;
+                        if (untilFinal && isFinal(e.status())) {
+                            emitter.complete();
+                            return;
+                        }
+                    } else if (!closed && System.nanoTime() - heartbeatAt >= 0) {
+                        emitter.send(SseEmitter.event().comment("keepalive")); // also how a dead connection is noticed
+                        heartbeatAt = System.nanoTime() + heartbeatNanos;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // client went away or the emitter already completed (timeout): nothing left to send to
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                emitter.complete();
+            } finally {
+                unregister();
+                subscribers.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.sam.finflow.sse;
+
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * The last capacity payout events of this node, kept for Last-Event-ID resumes. Each event keeps the id its
+ * publisher gave it, which is the same on every node, so a client can resume on any of them.
+ *
+ * Appending is O(1) per event: an event overwrites the slot of the one capacity positions before it.
+ * Not thread-safe: {@link PayoutEventHub} calls it under its lock.
+ */
+final class PayoutEventRing {
+
+    record Event(String id, UUID merchantId, UUID payoutId, String status, String data) {}
+
+    private final Event[] slots;
+    private final int mask;
+    private final Map<String, Long> seqById;
+    private long next; // seq the next append gets; [next - capacity, next) is readable
+
+    PayoutEventRing(int capacity) {
+        // Power of two so the slot is a mask, not a modulo
+        int n = Integer.highestOneBit(Math.max(2, Math.min(capacity, 1 << 24)) * 2 - 1);
+        this.slots = new Event[n];
+        this.mask = n - 1;
+        this.seqById = new HashMap<>(n * 2);
+    }
+
+    void append(Event e) {
+        int slot = (int) (next & mask);
+        Event old = slots[slot];
+        if (old != null) seqById.remove(old.id());
+        slots[slot] = e;
+        seqById.put(e.id(), next++);
+    }
+
+    /**
+     * The events after the one with this id that match filter, oldest first. Null if this node never saw that id
+     * (or restarted since) or already overwrote it.
+     */
+    @Nullable
+    List<Event> after(String id, Predicate<Event> filter) {
+        Long seq = seqById.get(id);
+        if (seq == null) return null;
+        List<Event> found = new ArrayList<>();
+        for (long s = seq + 1; s < next; s++) {
+            Event e = slots[(int) (s & mask)];
+            if (filter.test(e)) found.add(e);
+        }
+        return found;
+    }
+}
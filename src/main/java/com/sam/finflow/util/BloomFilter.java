@@ -0,0 +1,85 @@
+package com.sam.finflow.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Set membership with no false negatives and a bounded false positive rate: "definitely absent" or "maybe present".
+ * Sized up front for an expected number of keys; past that the false positive rate climbs, nothing breaks.
+ * Thread-safe; put and mightContain never lock.
+ *
+ * Each key is hashed twice (murmur3-style, over its UTF-8 bytes) and the k probe positions derived by double hashing.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    public BloomFilter(long expectedKeys, double falsePositiveRate) {
+        if (expectedKeys <= 0) throw new IllegalArgumentException("expectedKeys must be > 0");
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) throw new IllegalArgumentException("falsePositiveRate must be in (0, 1)");
+        long m = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        long wordCount = Math.max(1, (m + 63) / 64);
+        if (wordCount > Integer.MAX_VALUE) throw new IllegalArgumentException("filter too large: " + m + " bits");
+        this.words = new AtomicLongArray((int) wordCount);
+        this.bits = wordCount * 64;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedKeys * Math.log(2)));
+    }
+
+    public void put(String key) {
+        long h1 = murmur64(key, 0);
+        long h2 = murmur64(key, h1);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            int w = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if ((words.get(w) & mask) == 0) words.getAndAccumulate(w, mask, (a, b) -> a | b);
+        }
+    }
+
+    public boolean mightContain(String key) {
+        long h1 = murmur64(key, 0);
+        long h2 = murmur64(key, h1);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    public long bitSize() { return bits; }
+    public int hashCount() { return hashes; }
+
+    // ----- 64-bit murmur3-style hash over the key's UTF-8 bytes -----
+
+    private static long murmur64(String key, long seed) {
+        byte[] b = key.getBytes(StandardCharsets.UTF_8);
+        long h = seed ^ (b.length * 0xc6a4a7935bd1e995L);
+        int i = 0;
+        for (; i + 8 <= b.length; i += 8) {
+            long k = (b[i] & 0xffL) | (b[i + 1] & 0xffL) << 8 | (b[i + 2] & 0xffL) << 16 | (b[i + 3] & 0xffL) << 24
+                    | (b[i + 4] & 0xffL) << 32 | (b[i + 5] & 0xffL) << 40 | (b[i + 6] & 0xffL) << 48 | (b[i + 7] & 0xffL) << 56;
+            h = (h ^ mix(k)) * 0xc6a4a7935bd1e995L;
+        }
+        long tail = 0;
+        for (int s = 0; i < b.length; i++, s += 8) tail |= (b[i] & 0xffL) << s;
+        h ^= mix(tail);
+        return fmix(h);
+    }
+
+    private static long mix(long k) {
+        k *= 0x87c37b91114253d5L;
+        k = Long.rotateLeft(k, 31);
+        return k * 0x4cf5ad432745937fL;
+    }
+
+    private static long fmix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe53e2b3bL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,33 @@
+package com.sam.finflow.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a list ordered by (created_at DESC, id DESC). Clients get it as an opaque string
+ * and send it back to continue after the last row they saw.
+ */
+public record KeysetCursor(OffsetDateTime createdAt, UUID id) {
+
+    public String encode() {
+        Instant i = createdAt.toInstant();
+        String raw = i.getEpochSecond() + "." + i.getNano() + "." + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /** @throws IllegalArgumentException if the cursor was not produced by {@link #encode()} */
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            String[] parts = raw.split("\\.", 3);
+            Instant at = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new KeysetCursor(at.atOffset(ZoneOffset.UTC), UUID.fromString(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("invalid cursor", e);
+        }
+    }
+}
@@ -1,4 +1,228 @@
 package com.sam.finflow.util;
 
-public class Money {
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable amount of one currency, stored as a long count of minor units (cents, yen, fils...).
+ * The number of minor-unit digits comes from the ISO 4217 exponent of the currency.
+ *
+ * All arithmetic is exact and overflow-checked (ArithmeticException). The static helpers on raw minor units
+ * ({@link #parseMinor}, {@link #addMinor}, {@link #sumMinor}, {@link #appendTo}) let hot loops
+ * parse, add, compare and print amounts without creating a Money or a BigDecimal.
+ */
+public final class Money implements Comparable<Money> {
+
+    private static final int DEFAULT_EXPONENT = 2;
+    private static final Map<String, Integer> EXPONENTS = new HashMap<>();
+    private static final long[] POW10 = new long[19];
+
+    static {
+        for (Currency c : Currency.getAvailableCurrencies()) {
+            int digits = c.getDefaultFractionDigits();
+            if (digits >= 0) EXPONENTS.put(c.getCurrencyCode(), digits); // -1 = pseudo-currency (XAU, XXX)
+        }
+        long p = 1;
+        for (int i = 0; i < POW10.length; i++, p *= 10) POW10[i] = p;
+    }
+
+    private final long minorUnits;
+    private final String currency;
+
+    private Money(long minorUnits, String currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    // ----- Factories -----
+
+    public static Money ofMinor(long minorUnits, String currency) {
+        return new Money(minorUnits, normalizeCurrency(currency));
+    }
+
+    public static Money zero(String currency) {
+        return ofMinor(0, currency);
+    }
+
+    /** Exact: fails if amount has more decimals than the currency allows (trailing zeros are fine). */
+    public static Money of(BigDecimal amount, String currency) {
+        Objects.requireNonNull(amount, "amount");
+        String code = normalizeCurrency(currency);
+        return new Money(toMinor(amount, exponentOf(code)), code);
+    }
+
+    /** Parses a plain decimal like "-1234.5" without going through BigDecimal. */
+    public static Money parse(CharSequence amount, String currency) {
+        String code = normalizeCurrency(currency);
+        return new Money(parseMinor(amount, 0, amount.length(), exponentOf(code)), code);
+    }
+
+    // ----- Accessors -----
+
+    public long minorUnits() { return minorUnits; }
+    public String currency() { return currency; }
+    public int exponent() { return exponentOf(currency); }
+    public int signum() { return Long.signum(minorUnits); }
+    public boolean isPositive() { return minorUnits > 0; }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, exponent());
+    }
+
+    /** Same value with a fixed column scale (>= exponent), e.g. JPY 100 at scale 2 -> 100.00. */
+    public BigDecimal toBigDecimal(int scale) {
+        int shift = scale - exponent();
+        if (shift < 0) throw new ArithmeticException(currency + " needs " + exponent() + " decimals, scale is " + scale);
+        return BigDecimal.valueOf(Math.multiplyExact(minorUnits, POW10[shift]), scale);
+    }
+
+    // ----- Arithmetic (exact, same currency only) -----
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money times(long factor) {
+        return new Money(Math.multiplyExact(minorUnits, factor), currency);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), currency);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    public boolean isGreaterThan(Money other) { return compareTo(other) > 0; }
+    public boolean isLessThan(Money other) { return compareTo(other) < 0; }
+
+    // ----- Allocation-free helpers on raw minor units -----
+
+    public static long addMinor(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long sumMinor(long[] minorUnits, int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) sum = Math.addExact(sum, minorUnits[i]);
+        return sum;
+    }
+
+    /**
+     * Parses s[from, to) as a plain decimal into minor units with the given exponent.
+     * Accepts an optional sign, no exponent notation, no grouping.
+     */
+    public static long parseMinor(CharSequence s, int from, int to, int exponent) {
+        if (from >= to) throw new NumberFormatException("empty amount");
+        boolean negative = false;
+        char first = s.charAt(from);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++from == to) throw new NumberFormatException("no digits: " + s.subSequence(from - 1, to));
+        }
+        // Accumulate negatively so Long.MIN_VALUE parses too
+        long acc = 0;
+        int fraction = -1; // digits seen after '.', -1 = no '.' yet
+        boolean digits = false;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c == '.') {
+                if (fraction >= 0) throw new NumberFormatException("two decimal points: " + s.subSequence(from, to));
+                fraction = 0;
+                continue;
+            }
+            int d = c - '0';
+            if (d < 0 || d > 9) throw new NumberFormatException("bad amount: " + s.subSequence(from, to));
+            digits = true;
+            if (fraction >= 0 && ++fraction > exponent) {
+                if (d != 0) throw new ArithmeticException("more than " + exponent + " decimals: " + s.subSequence(from, to));
+                continue; // trailing zero beyond the exponent
+            }
+            acc = Math.subtractExact(Math.multiplyExact(acc, 10), d);
+        }
+        if (!digits) throw new NumberFormatException("no digits: " + s.subSequence(from, to));
+        int pad = exponent - Math.max(fraction, 0);
+        if (pad > 0) acc = Math.multiplyExact(acc, POW10[pad]);
+        return negative ? acc : Math.negateExact(acc);
+    }
+
+    /** Appends minorUnits as a plain decimal with exactly exponent decimals, e.g. 12345, 2 -> "123.45". */
+    public static StringBuilder appendTo(StringBuilder out, long minorUnits, int exponent) {
+        if (exponent == 0) return out.append(minorUnits);
+        if (minorUnits < 0) {
+            out.append('-');
+            if (minorUnits == Long.MIN_VALUE) { // cannot negate; go through unsigned division
+                long whole = Long.divideUnsigned(minorUnits, POW10[exponent]);
+                long frac = Long.remainderUnsigned(minorUnits, POW10[exponent]);
+                out.append(whole).append('.');
+                return padded(out, frac, exponent);
+            }
+            minorUnits = -minorUnits;
+        }
+        out.append(minorUnits / POW10[exponent]).append('.');
+        return padded(out, minorUnits % POW10[exponent], exponent);
+    }
+
+    public static long toMinor(BigDecimal amount, int exponent) {
+        return amount.movePointRight(exponent).longValueExact(); // throws on extra decimals or overflow
+    }
+
+    public static int exponentOf(String currency) {
+        Integer e = EXPONENTS.get(currency);
+        return e != null ? e : DEFAULT_EXPONENT;
+    }
+
+    private static StringBuilder padded(StringBuilder out, long frac, int width) {
+        for (long p = POW10[width - 1]; p > 1 && frac < p; p /= 10) out.append('0');
+        return out.append(frac);
+    }
+
+    private static String normalizeCurrency(String currency) {
+        if (currency == null || currency.length() != 3) throw new IllegalArgumentException("currency must be 3 letters");
+        if (isUpperAlpha(currency)) return currency; // common case: no copy
+        String upper = currency.toUpperCase();
+        if (!isUpperAlpha(upper)) throw new IllegalArgumentException("currency must be 3 letters");
+        return upper;
+    }
+
+    private static boolean isUpperAlpha(String code) {
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c < 'A' || c > 'Z') return false;
+        }
+        return true;
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+
+    // ----- Value semantics -----
+
+    @Override public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money m)) return false;
+        return minorUnits == m.minorUnits && currency.equals(m.currency);
+    }
+
+    @Override public int hashCode() { return Long.hashCode(minorUnits) * 31 + currency.hashCode(); }
+
+    /** e.g. "123.45 USD" */
+    @Override public String toString() {
+        return appendTo(new StringBuilder(24), minorUnits, exponent()).append(' ').append(currency).toString();
+    }
 }
@@ -0,0 +1,80 @@
+package com.sam.finflow.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sam.finflow.cache.VersionedCache.Versioned;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** L1-only (no Redis): a read racing a newer committed version never returns the older one. */
+class VersionedCacheTest {
+
+    private static final UUID ID = UUID.fromString("0190f0c4-0000-7000-8000-000000000001");
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final VersionedCache<String> cache = new VersionedCache<>("test", String.class, 100,
+            Duration.ofMinutes(1), Duration.ofMinutes(1), null, new ObjectMapper(), meters);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void loadsOnceThenServesL1() {
+        assertEquals("v1", cache.get(ID, id -> load(1, "v1")));
+        assertEquals("v1", cache.get(ID, id -> load(2, "v2")));
+
+        assertEquals(1, loads.get());
+        assertEquals(0, staleWrites());
+    }
+
+    @Test
+    void loadOlderThanARacingPutReturnsThePutValue() {
+        String got = cache.get(ID, id -> {
+            cache.put(ID, 5, "new"); // committed while the loader was reading
+            return load(4, "old");
+        });
+
+        assertEquals("new", got);
+        assertEquals(1, loads.get());
+        assertEquals(1, staleWrites());
+    }
+
+    @Test
+    void loadOlderThanARacingInvalidateIsRetried() {
+        String got = cache.get(ID, id -> {
+            if (loads.get() == 0) {
+                cache.invalidate(ID, 5); // the first read came from a replica that had not seen version 5
+                return load(4, "old");
+            }
+            return load(5, "new");
+        });
+
+        assertEquals("new", got);
+        assertEquals(2, loads.get());
+        assertEquals(1, staleWrites());
+        assertEquals("new", cache.get(ID, id -> load(4, "old"))); // and the retried value is cached
+    }
+
+    @Test
+    void olderChangeMessageKeepsTheEntry() {
+        cache.put(ID, 3, "v3");
+
+        cache.onChange(ID + ":2");
+        assertEquals("v3", cache.get(ID, id -> load(9, "reloaded")));
+
+        cache.onChange(ID + ":4");
+        assertEquals("reloaded", cache.get(ID, id -> load(9, "reloaded")));
+    }
+
+    private Versioned<String> load(long version, String value) {
+        loads.incrementAndGet();
+        return new Versioned<>(version, value);
+    }
+
+    private double staleWrites() {
+        return meters.get("finflow.cache.stale.writes").counter().count();
+    }
+}
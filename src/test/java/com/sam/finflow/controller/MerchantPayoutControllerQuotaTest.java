@@ -0,0 +1,125 @@
+package com.sam.finflow.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sam.finflow.domain.payout.MerchantPayout;
+import com.sam.finflow.domain.payout.MerchantPayoutService;
+import com.sam.finflow.domain.payout.MerchantPayoutService.BatchOutcome;
+import com.sam.finflow.domain.payout.MerchantPayoutService.BatchResult;
+import com.sam.finflow.domain.payout.MerchantPayoutService.CreateOrGetResult;
+import com.sam.finflow.dto.MerchantPayoutDto.BatchResponse;
+import com.sam.finflow.dto.MerchantPayoutDto.CreateRequest;
+import com.sam.finflow.ratelimit.InMemoryRateLimitStore;
+import com.sam.finflow.ratelimit.PayoutQuota;
+import com.sam.finflow.ratelimit.RateLimitExceededException;
+import com.sam.finflow.ratelimit.RateLimiter;
+import com.sam.finflow.ratelimit.RateLimiter.Limit;
+import com.sam.finflow.ratelimit.RateLimiter.Scope;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/** Only new payouts use up the daily quota: replays, rejected items and failed creates give it back. */
+class MerchantPayoutControllerQuotaTest {
+
+    private static final UUID MERCHANT = UUID.fromString("0190f0c4-0000-7000-8000-000000000001");
+    private static final UUID ACCOUNT = UUID.fromString("0190f0c4-0000-7000-8000-0000000000a1");
+
+    private final MerchantPayoutService service = mock(MerchantPayoutService.class);
+    private final InMemoryRateLimitStore store = new InMemoryRateLimitStore();
+    private final PayoutQuota quota = new PayoutQuota(store, new SimpleMeterRegistry(), true, "USD=100.00", "");
+    private final RateLimiter limiter = new RateLimiter(store, new SimpleMeterRegistry(), true, Duration.ofSeconds(1),
+            Map.of(Scope.PAYOUTS, new Limit(1000, 1000, 10), Scope.BANK_LINKS, new Limit(1, 10, 1)));
+    private final MerchantPayoutController controller = new MerchantPayoutController(service, null, null, null,
+            limiter, quota, Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), 10_000, 1000);
+
+    @Test
+    void newPayoutKeepsItsQuota() {
+        when(service.createOrGet(any(), any(), any(), any(), any())).thenReturn(new CreateOrGetResult(payout("60.00"), true));
+
+        controller.create(request("cap-1", "60.00"));
+
+        assertQuotaLeft("40.00");
+    }
+
+    @Test
+    void replayedCreateGivesQuotaBack() {
+        when(service.createOrGet(any(), any(), any(), any(), any())).thenReturn(new CreateOrGetResult(payout("60.00"), false));
+
+        controller.create(request("cap-1", "60.00"));
+
+        assertQuotaLeft("100.00");
+    }
+
+    @Test
+    void failedCreateGivesQuotaBack() {
+        when(service.createOrGet(any(), any(), any(), any(), any())).thenThrow(new IllegalArgumentException("bad currency"));
+
+        assertThrows(IllegalArgumentException.class, () -> controller.create(request("cap-1", "60.00")));
+
+        assertQuotaLeft("100.00");
+    }
+
+    @Test
+    void createOverQuotaIsRefusedBeforeTheService() {
+        assertThrows(RateLimitExceededException.class, () -> controller.create(request("cap-1", "100.01")));
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void batchKeepsQuotaOnlyForCreatedItems() {
+        when(service.createOrGetAll(anyList())).thenReturn(List.of(
+                new BatchResult(UUID.randomUUID(), BatchOutcome.CREATED, null),
+                new BatchResult(UUID.randomUUID(), BatchOutcome.EXISTING, null),
+                new BatchResult(null, BatchOutcome.REJECTED, "duplicate capture in batch")));
+
+        BatchResponse res = controller.createBatch(List.of(
+                request("cap-1", "10.00"), request("cap-2", "20.00"), request("cap-3", "30.00")));
+
+        assertEquals(1, res.created());
+        assertQuotaLeft("90.00");
+    }
+
+    @Test
+    void batchOverQuotaRejectsItemsInsteadOfFailing() {
+        BatchResponse res = controller.createBatch(List.of(request("cap-1", "60.00"), request("cap-2", "50.00")));
+
+        assertEquals(2, res.rejected());
+        verify(service, never()).createOrGetAll(anyList());
+        assertQuotaLeft("100.00");
+    }
+
+    @Test
+    void failedBatchGivesQuotaBack() {
+        when(service.createOrGetAll(anyList())).thenThrow(new IllegalStateException("database down"));
+
+        assertThrows(IllegalStateException.class, () -> controller.createBatch(List.of(request("cap-1", "60.00"))));
+
+        assertQuotaLeft("100.00");
+    }
+
+    // Exactly `left` fits today, a cent more doesn't
+    private void assertQuotaLeft(String left) {
+        BigDecimal amount = new BigDecimal(left);
+        assertThrows(RateLimitExceededException.class, () -> quota.reserve(MERCHANT, "USD", amount.add(new BigDecimal("0.01"))));
+        quota.reserve(MERCHANT, "USD", amount);
+    }
+
+    private static CreateRequest request(String captureId, String amount) {
+        return new CreateRequest(MERCHANT, ACCOUNT, captureId, new BigDecimal(amount), "USD");
+    }
+
+    private static MerchantPayout payout(String amount) {
+        return new MerchantPayout(MERCHANT, ACCOUNT, "cap-1", new BigDecimal(amount), "USD");
+    }
+}
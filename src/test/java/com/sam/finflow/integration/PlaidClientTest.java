@@ -0,0 +1,230 @@
+package com.sam.finflow.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sam.finflow.integration.PlaidClient.AccountDetails;
+import com.sam.finflow.integration.PlaidClient.LookupException;
+import com.sam.finflow.integration.PlaidClient.RejectedException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** PlaidClient against a local stub of the provider (JDK HttpServer), no network. */
+class PlaidClientTest {
+
+    private static final AccountDetails CHASE = new AccountDetails("Chase", "1234");
+
+    private final AtomicInteger hits = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1); // held by blocked() answers
+    private final ExecutorService stubThreads = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile HttpHandler answer = ok(CHASE);
+    private volatile String lastClientId;
+    private HttpServer server;
+    private PlaidClient client;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/accounts/", exchange -> {
+            hits.incrementAndGet();
+            lastClientId = exchange.getRequestHeaders().getFirst("PLAID-CLIENT-ID");
+            answer.handle(exchange);
+        });
+        server.setExecutor(stubThreads); // blocked answers must not hold up the others
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        release.countDown();
+        server.stop(0);
+        if (client != null) client.close();
+        stubThreads.shutdownNow();
+    }
+
+    @Test
+    void looksUpAccountWithCredentials() throws Exception {
+        PlaidClient c = client(Duration.ofSeconds(2), 1000, 1000, Duration.ofSeconds(1), 3, Duration.ofSeconds(30));
+
+        assertEquals(CHASE, c.lookup("plaid", "acc-1").get(5, TimeUnit.SECONDS));
+        assertEquals("client-id", lastClientId);
+    }
+
+    @Test
+    void concurrentLookupsOfTheSameAccountShareOneCall() throws Exception {
+        answer = blocked(ok(CHASE));
+        PlaidClient c = client(Duration.ofSeconds(2), 1000, 1000, Duration.ofSeconds(1), 3, Duration.ofSeconds(30));
+
+        CompletableFuture<AccountDetails> first = c.lookup("plaid", "acc-1");
+        CompletableFuture<AccountDetails> second = c.lookup("plaid", "acc-1");
+        CompletableFuture<AccountDetails> other = c.lookup("plaid", "acc-2");
+        first.cancel(true); // one caller giving up must not cancel the shared call
+        release.countDown();
+
+        assertEquals(CHASE, second.get(5, TimeUnit.SECONDS));
+        assertEquals(CHASE, other.get(5, TimeUnit.SECONDS));
+        assertEquals(2, hits.get());
+    }
+
+    @Test
+    void rateLimitDelaysCallsBeyondTheBurst() throws Exception {
+        PlaidClient c = client(Duration.ofSeconds(2), 10, 1, Duration.ofSeconds(1), 3, Duration.ofSeconds(30));
+
+        long start = System.nanoTime();
+        CompletableFuture<AccountDetails> a = c.lookup("plaid", "acc-1");
+        CompletableFuture<AccountDetails> b = c.lookup("plaid", "acc-2"); // waits ~100ms for a token
+        assertEquals(CHASE, a.get(5, TimeUnit.SECONDS));
+        assertEquals(CHASE, b.get(5, TimeUnit.SECONDS));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 80);
+        assertEquals(2, hits.get());
+    }
+
+    @Test
+    void rateLimitRejectsWhenTheWaitWouldBeTooLong() throws Exception {
+        PlaidClient c = client(Duration.ofSeconds(2), 1, 1, Duration.ofMillis(50), 3, Duration.ofSeconds(30));
+
+        assertEquals(CHASE, c.lookup("plaid", "acc-1").get(5, TimeUnit.SECONDS));
+        Throwable refused = failure(c.lookup("plaid", "acc-2"));
+
+        assertInstanceOf(LookupException.class, refused);
+        assertTrue(refused.getMessage().contains("rate limit"), refused.getMessage());
+        assertEquals(1, hits.get());
+    }
+
+    @Test
+    void slowProviderTimesOut() {
+        answer = blocked(ok(CHASE));
+        PlaidClient c = client(Duration.ofMillis(200), 1000, 1000, Duration.ofSeconds(1), 3, Duration.ofSeconds(30));
+
+        long start = System.nanoTime();
+        Throwable timedOut = failure(c.lookup("plaid", "acc-1"));
+
+        assertInstanceOf(LookupException.class, timedOut);
+        assertEquals("provider timed out", timedOut.getMessage());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2000);
+    }
+
+    @Test
+    void breakerOpensAfterConsecutiveFailuresThenLetsOneTrialThrough() throws Exception {
+        answer = status(503);
+        PlaidClient c = client(Duration.ofSeconds(2), 1000, 1000, Duration.ofSeconds(1), 2, Duration.ofMillis(300));
+
+        failure(c.lookup("plaid", "acc-1"));
+        failure(c.lookup("plaid", "acc-2"));
+        Throwable open = failure(c.lookup("plaid", "acc-3"));
+        assertTrue(open.getMessage().contains("circuit open"), open.getMessage());
+        assertEquals(2, hits.get()); // failed fast, the provider never saw it
+
+        Thread.sleep(350);
+        answer = blocked(ok(CHASE));
+        CompletableFuture<AccountDetails> trial = c.lookup("plaid", "acc-4");
+        awaitHits(3);
+        Throwable whileTrial = failure(c.lookup("plaid", "acc-5")); // half-open: one trial at a time
+        assertTrue(whileTrial.getMessage().contains("circuit open"), whileTrial.getMessage());
+
+        release.countDown();
+        assertEquals(CHASE, trial.get(5, TimeUnit.SECONDS));
+        assertEquals(CHASE, c.lookup("plaid", "acc-6").get(5, TimeUnit.SECONDS)); // closed again
+        assertEquals(4, hits.get());
+    }
+
+    @Test
+    void failedTrialOpensTheBreakerAgain() throws Exception {
+        answer = status(500);
+        PlaidClient c = client(Duration.ofSeconds(2), 1000, 1000, Duration.ofSeconds(1), 1, Duration.ofMillis(200));
+
+        failure(c.lookup("plaid", "acc-1"));
+        Thread.sleep(250);
+        failure(c.lookup("plaid", "acc-2")); // the trial
+        Throwable open = failure(c.lookup("plaid", "acc-3"));
+
+        assertTrue(open.getMessage().contains("circuit open"), open.getMessage());
+        assertEquals(2, hits.get());
+    }
+
+    @Test
+    void clientErrorsFailTheCallWithoutTrippingTheBreaker() throws Exception {
+        answer = status(404);
+        PlaidClient c = client(Duration.ofSeconds(2), 1000, 1000, Duration.ofSeconds(1), 2, Duration.ofSeconds(30));
+
+        for (int i = 0; i < 3; i++) {
+            assertInstanceOf(RejectedException.class, failure(c.lookup("plaid", "missing-" + i)));
+        }
+        answer = ok(CHASE);
+
+        assertEquals(CHASE, c.lookup("plaid", "acc-1").get(5, TimeUnit.SECONDS));
+        assertEquals(4, hits.get());
+    }
+
+    // ----- helpers -----
+
+    private PlaidClient client(Duration requestTimeout, double perSecond, int burst, Duration maxQueueWait,
+                               int failureThreshold, Duration openFor) {
+        URI base = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+        client = new PlaidClient(base, "client-id", "secret", Duration.ofSeconds(1), requestTimeout,
+                perSecond, burst, maxQueueWait, failureThreshold, openFor, new ObjectMapper());
+        return client;
+    }
+
+    private static Throwable failure(CompletableFuture<?> lookup) {
+        return assertThrows(ExecutionException.class, () -> lookup.get(5, TimeUnit.SECONDS)).getCause();
+    }
+
+    private void awaitHits(int n) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (hits.get() < n) {
+            if (System.nanoTime() > deadline) fail("stub saw " + hits.get() + " requests, expected " + n);
+            Thread.sleep(5);
+        }
+    }
+
+    private static HttpHandler ok(AccountDetails d) {
+        byte[] body = ("{\"institution_name\":\"" + d.institutionName() + "\",\"mask\":\"" + d.last4() + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        return exchange -> respond(exchange, 200, body);
+    }
+
+    private static HttpHandler status(int code) {
+        return exchange -> respond(exchange, code, new byte[0]);
+    }
+
+    private HttpHandler blocked(HttpHandler then) {
+        return exchange -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            then.handle(exchange);
+        };
+    }
+
+    private static void respond(HttpExchange exchange, int code, byte[] body) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
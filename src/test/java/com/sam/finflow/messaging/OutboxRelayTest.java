@@ -0,0 +1,175 @@
+package com.sam.finflow.messaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** OutboxRelay into the in-memory sink, over a fake payout_outbox table (no database). */
+class OutboxRelayTest {
+
+    private final Outbox outbox = new Outbox();
+    private final InMemoryStreamSink stream = new InMemoryStreamSink(100);
+    private final AtomicInteger appends = new AtomicInteger();
+    private volatile boolean sinkDown;
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+    private final EventStreamSink sink = messages -> {
+        appends.incrementAndGet();
+        if (sinkDown) throw new IllegalStateException("redis down");
+        stream.append(messages);
+    };
+
+    @Test
+    void relaysInIdOrderAndDeletesOnlyWhatWasAppended() {
+        outbox.insert(3);
+        outbox.insert(1);
+        outbox.insert(2);
+        outbox.insert(5);
+
+        relay(2, 10).poll(); // full batches keep the loop going: [1,2], [3,5]
+
+        assertEquals(List.of(1L, 2L, 3L, 5L), ids(stream.snapshot()));
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L, 5L)), outbox.deleted);
+        assertTrue(outbox.rows.isEmpty());
+    }
+
+    @Test
+    void failedAppendDeletesNothing() {
+        outbox.insert(1);
+        outbox.insert(2);
+        sinkDown = true;
+
+        relay(10, 10).poll();
+
+        assertEquals(1, appends.get());
+        assertTrue(outbox.deleted.isEmpty());
+        assertEquals(2, outbox.rows.size());
+    }
+
+    @Test
+    void backsOffWhileTheSinkFailsAndResetsOnceItRecovers() throws InterruptedException {
+        outbox.insert(1);
+        sinkDown = true;
+        OutboxRelay relay = relay(10, 20);
+
+        relay.poll();
+        relay.poll(); // within the 40ms backoff: not even tried
+        assertEquals(1, appends.get());
+
+        Thread.sleep(60);
+        relay.poll();
+        assertEquals(2, appends.get());
+
+        sinkDown = false;
+        Thread.sleep(100); // second backoff is 80ms
+        relay.poll();
+        assertEquals(List.of(1L), ids(stream.snapshot()));
+
+        outbox.insert(2);
+        relay.poll(); // no backoff left after a success
+        assertEquals(List.of(1L, 2L), ids(stream.snapshot()));
+    }
+
+    @Test
+    void anotherNodeHoldingTheLockRelaysNothing() {
+        outbox.insert(1);
+        outbox.lockTaken = true;
+
+        relay(10, 10).poll();
+
+        assertEquals(0, appends.get());
+        assertEquals(1, outbox.rows.size());
+    }
+
+    @Test
+    void backlogGaugeCountsQueuedRows() {
+        relay(10, 10);
+        outbox.insert(1);
+        outbox.insert(2);
+
+        assertEquals(2.0, meters.get("finflow.outbox.backlog").gauge().value());
+    }
+
+    @Test
+    void inMemoryStreamKeepsTheNewestInOrder() {
+        InMemoryStreamSink small = new InMemoryStreamSink(3);
+        small.append(List.of(message(1), message(2)));
+        small.append(List.of(message(3), message(4)));
+
+        assertEquals(List.of(2L, 3L, 4L), ids(small.snapshot()));
+    }
+
+    private OutboxRelay relay(int batchSize, long pollIntervalMillis) {
+        TransactionTemplate tx = new TransactionTemplate() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                return action.doInTransaction(null);
+            }
+        };
+        return new OutboxRelay(outbox, tx, sink, meters, batchSize, pollIntervalMillis, Duration.ofSeconds(1));
+    }
+
+    private static List<Long> ids(List<OutboxMessage> messages) {
+        return messages.stream().map(OutboxMessage::id).toList();
+    }
+
+    private static OutboxMessage message(long id) {
+        return new OutboxMessage(id, UUID.randomUUID(), "PayoutSettled", "{}");
+    }
+
+    // The three statements the relay runs, against an id-ordered map
+    private final class Outbox extends JdbcTemplate {
+        final TreeMap<Long, OutboxMessage> rows = new TreeMap<>();
+        final List<List<Long>> deleted = new ArrayList<>();
+        boolean lockTaken;
+
+        void insert(long id) {
+            rows.put(id, message(id));
+        }
+
+        @Override
+        public <T> T queryForObject(String sql, Class<T> requiredType) {
+            return queryForObject(sql, requiredType, new Object[0]);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+            if (sql.contains("pg_try_advisory_xact_lock")) return (T) Boolean.valueOf(!lockTaken);
+            if (sql.contains("count(*)")) return (T) Long.valueOf(rows.size());
+            throw new IllegalArgumentException(sql);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+            int limit = (Integer) args[0];
+            return (List<T>) rows.values().stream().limit(limit).toList();
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            List<Long> ids = new ArrayList<>();
+            for (Object[] a : batchArgs) {
+                long id = (Long) a[0];
+                assertTrue(ids(stream.snapshot()).contains(id), "deleted " + id + " before it was appended");
+                rows.remove(id);
+                ids.add(id);
+            }
+            deleted.add(ids);
+            return new int[batchArgs.size()];
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.sam.finflow.ratelimit;
+
+import com.sam.finflow.domain.payout.MerchantPayoutService.NewPayout;
+import com.sam.finflow.ratelimit.PayoutQuota.Reservation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Daily payout quota over the in-memory store. */
+class PayoutQuotaTest {
+
+    private static final UUID MERCHANT = UUID.fromString("0190f0c4-0000-7000-8000-000000000001");
+    private static final UUID BIG_MERCHANT = UUID.fromString("0190f0c4-0000-7000-8000-000000000002");
+
+    private final PayoutQuota quota = new PayoutQuota(new InMemoryRateLimitStore(), new SimpleMeterRegistry(), true,
+            "USD=100.00,JPY=10000", BIG_MERCHANT + "/USD=1000.00");
+
+    @Test
+    void reservesUpToTheDailyLimit() {
+        Reservation first = quota.reserve(MERCHANT, "USD", new BigDecimal("60.00"));
+        assertEquals(6000, first.minorUnits());
+        quota.reserve(MERCHANT, "USD", new BigDecimal("40.00"));
+
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+                () -> quota.reserve(MERCHANT, "USD", new BigDecimal("0.01")));
+        long retryAfter = Long.parseLong(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertTrue(retryAfter >= 1 && retryAfter <= 86_400, "until UTC midnight, was " + retryAfter);
+    }
+
+    @Test
+    void releaseGivesTheAmountBack() {
+        Reservation r = quota.reserve(MERCHANT, "USD", new BigDecimal("100.00"));
+        assertThrows(RateLimitExceededException.class, () -> quota.reserve(MERCHANT, "USD", new BigDecimal("1.00")));
+
+        quota.release(r);
+
+        quota.reserve(MERCHANT, "USD", new BigDecimal("100.00"));
+    }
+
+    @Test
+    void limitsArePerMerchantAndCurrency() {
+        quota.reserve(MERCHANT, "USD", new BigDecimal("100.00"));
+
+        quota.reserve(MERCHANT, "JPY", new BigDecimal("10000"));
+        quota.reserve(BIG_MERCHANT, "USD", new BigDecimal("1000.00")); // override
+        assertSame(Reservation.NONE, quota.reserve(MERCHANT, "EUR", new BigDecimal("1000000.00"))); // no limit
+    }
+
+    @Test
+    void batchRefusesAGroupOverItsQuotaAsAWhole() {
+        List<NewPayout> items = List.of(
+                item(MERCHANT, "USD", "60.00"),
+                item(MERCHANT, "USD", "50.00"),        // group total 110.00 > 100.00
+                item(BIG_MERCHANT, "USD", "110.00"),
+                item(MERCHANT, "EUR", "5.00"));
+        String[] refused = new String[items.size()];
+
+        Reservation[] held = quota.reserveAll(items, refused);
+
+        assertNotNull(refused[0]);
+        assertNotNull(refused[1]);
+        assertNull(refused[2]);
+        assertNull(refused[3]);
+        assertEquals(11000, held[2].minorUnits());
+        assertSame(Reservation.NONE, held[3]);
+        quota.reserve(MERCHANT, "USD", new BigDecimal("100.00")); // the refused group held nothing
+    }
+
+    @Test
+    void batchReleaseGivesBackPerItem() {
+        List<NewPayout> items = List.of(item(MERCHANT, "USD", "30.00"), item(MERCHANT, "USD", "70.00"));
+        Reservation[] held = quota.reserveAll(items, new String[items.size()]);
+
+        quota.releaseAll(List.of(held[1])); // say the second one was a replay
+
+        assertThrows(RateLimitExceededException.class, () -> quota.reserve(MERCHANT, "USD", new BigDecimal("70.01")));
+        quota.reserve(MERCHANT, "USD", new BigDecimal("70.00"));
+    }
+
+    @Test
+    void skipsItemsAlreadyRefused() {
+        List<NewPayout> items = List.of(item(MERCHANT, "USD", "100.00"), item(MERCHANT, "USD", "1.00"));
+        String[] refused = {"payouts rate limit exceeded", null};
+
+        Reservation[] held = quota.reserveAll(items, refused);
+
+        assertEquals(Arrays.asList(Reservation.NONE, new Reservation(held[1].key(), 100)), Arrays.asList(held));
+        assertEquals("payouts rate limit exceeded", refused[0]);
+    }
+
+    @Test
+    void disabledQuotaCountsNothing() {
+        PayoutQuota off = new PayoutQuota(new InMemoryRateLimitStore(), new SimpleMeterRegistry(), false, "USD=1.00", "");
+
+        assertSame(Reservation.NONE, off.reserve(MERCHANT, "USD", new BigDecimal("1000.00")));
+    }
+
+    private static NewPayout item(UUID merchantId, String currency, String amount) {
+        return new NewPayout(merchantId, UUID.randomUUID(), UUID.randomUUID().toString(), new BigDecimal(amount), currency);
+    }
+}
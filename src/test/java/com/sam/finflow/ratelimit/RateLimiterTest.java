@@ -0,0 +1,131 @@
+package com.sam.finflow.ratelimit;
+
+import com.sam.finflow.ratelimit.RateLimiter.Limit;
+import com.sam.finflow.ratelimit.RateLimiter.Scope;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** RateLimiter over the in-memory store, counting the round trips a Redis store would have seen. */
+class RateLimiterTest {
+
+    private static final Limit BANK_LINKS = new Limit(1, 10, 1);
+
+    private final AtomicInteger storeCalls = new AtomicInteger();
+    private final InMemoryRateLimitStore memory = new InMemoryRateLimitStore();
+
+    private final RateLimitStore store = new RateLimitStore() {
+        @Override
+        public long take(String key, long permits, long capacity, double ratePerSecond) {
+            storeCalls.incrementAndGet();
+            return memory.take(key, permits, capacity, ratePerSecond);
+        }
+
+        @Override
+        public boolean reserve(String key, long amount, long limit, Duration ttl) {
+            return memory.reserve(key, amount, limit, ttl);
+        }
+
+        @Override
+        public void release(String key, long amount) {
+            memory.release(key, amount);
+        }
+    };
+
+    @Test
+    void leaseIsHandedOutLocally() {
+        RateLimiter limiter = limiter(store, new Limit(1, 10, 5), Duration.ofSeconds(10));
+
+        for (int i = 0; i < 5; i++) limiter.acquire(Scope.PAYOUTS, "m-1");
+        assertEquals(1, storeCalls.get()); // one round trip fetched all five
+
+        limiter.acquire(Scope.PAYOUTS, "m-1");
+        assertEquals(2, storeCalls.get());
+        limiter.acquire(Scope.PAYOUTS, "m-2"); // other keys have their own lease
+        assertEquals(3, storeCalls.get());
+    }
+
+    @Test
+    void expiredLeaseIsDropped() throws InterruptedException {
+        RateLimiter limiter = limiter(store, new Limit(1, 10, 5), Duration.ofMillis(50));
+
+        limiter.acquire(Scope.PAYOUTS, "m-1");
+        Thread.sleep(60);
+        limiter.acquire(Scope.PAYOUTS, "m-1"); // the four left were dropped, not used
+
+        assertEquals(2, storeCalls.get());
+    }
+
+    @Test
+    void refusedKeyIsRefusedLocallyUntilATokenRefills() throws InterruptedException {
+        RateLimiter limiter = limiter(store, new Limit(10, 1, 1), Duration.ofSeconds(10));
+
+        limiter.acquire(Scope.PAYOUTS, "m-1");
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire(Scope.PAYOUTS, "m-1"));
+        assertEquals(2, storeCalls.get());
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire(Scope.PAYOUTS, "m-1"));
+        assertEquals(2, storeCalls.get()); // refused without asking the store
+
+        Thread.sleep(120); // one token at 10/s
+        limiter.acquire(Scope.PAYOUTS, "m-1");
+        assertEquals(3, storeCalls.get());
+    }
+
+    @Test
+    void refusalCarriesRetryAfter() {
+        RateLimiter slow = limiter(store, new Limit(0.25, 1, 1), Duration.ofSeconds(10));
+        slow.acquire(Scope.PAYOUTS, "m-1");
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class, () -> slow.acquire(Scope.PAYOUTS, "m-1"));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, e.getStatusCode());
+        assertEquals(Duration.ofSeconds(4), e.getRetryAfter());
+        assertEquals("4", e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        RateLimiter fast = limiter(store, new Limit(100, 1, 1), Duration.ofSeconds(10));
+        fast.acquire(Scope.PAYOUTS, "m-2");
+        RateLimitExceededException sub = assertThrows(RateLimitExceededException.class, () -> fast.acquire(Scope.PAYOUTS, "m-2"));
+
+        assertEquals("1", sub.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)); // 10ms rounds up to a whole second
+    }
+
+    @Test
+    void batchTakeGetsWhatTheBucketHas() {
+        RateLimiter limiter = limiter(store, new Limit(1, 3, 1), Duration.ofSeconds(10));
+
+        assertEquals(3, limiter.take(Scope.PAYOUTS, "m-1", 5));
+        assertEquals(0, limiter.take(Scope.PAYOUTS, "m-1", 5));
+    }
+
+    @Test
+    void unreachableStoreLetsRequestsThrough() {
+        RateLimitStore down = new RateLimitStore() {
+            @Override public long take(String key, long permits, long capacity, double ratePerSecond) { throw new IllegalStateException("down"); }
+            @Override public boolean reserve(String key, long amount, long limit, Duration ttl) { throw new IllegalStateException("down"); }
+            @Override public void release(String key, long amount) { throw new IllegalStateException("down"); }
+        };
+        RateLimiter limiter = limiter(down, new Limit(1, 1, 1), Duration.ofSeconds(10));
+
+        for (int i = 0; i < 3; i++) limiter.acquire(Scope.PAYOUTS, "m-1");
+    }
+
+    @Test
+    void disabledLimiterNeverAsks() {
+        RateLimiter limiter = new RateLimiter(store, new SimpleMeterRegistry(), false, Duration.ofSeconds(1),
+                Map.of(Scope.PAYOUTS, new Limit(1, 1, 1), Scope.BANK_LINKS, BANK_LINKS));
+
+        assertEquals(5, limiter.take(Scope.PAYOUTS, "m-1", 5));
+        assertEquals(0, storeCalls.get());
+    }
+
+    private static RateLimiter limiter(RateLimitStore store, Limit payouts, Duration leaseTtl) {
+        return new RateLimiter(store, new SimpleMeterRegistry(), true, leaseTtl,
+                Map.of(Scope.PAYOUTS, payouts, Scope.BANK_LINKS, BANK_LINKS));
+    }
+}